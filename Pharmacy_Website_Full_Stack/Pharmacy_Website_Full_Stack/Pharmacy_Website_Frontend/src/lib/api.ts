@@ -10,6 +10,15 @@ const api = axios.create({
   headers: { 'Content-Type': 'application/json' },
 })
 
+// Attach (or clear) the bearer token returned by /api/auth/login
+export function setAuthToken(token: string | null) {
+  if (token) {
+    api.defaults.headers.common['Authorization'] = `Bearer ${token}`
+  } else {
+    delete api.defaults.headers.common['Authorization']
+  }
+}
+
 // Simple error message extractor
 function getErrorMessage(err: unknown): string {
   if (axios.isAxiosError(err)) {
@@ -119,12 +119,13 @@ export const useStore = create<Store>((set, get) => ({
   login: async (email: string, password: string) => {
     try {
       // Call backend auth API
-      const { postJson } = await import('../lib/api')
-      const res = await postJson<{ email: string; password: string }, { success: boolean; role?: 'admin' | 'user'; message?: string }>(
+      const { postJson, setAuthToken } = await import('../lib/api')
+      const res = await postJson<{ email: string; password: string }, { success: boolean; role?: 'admin' | 'user'; message?: string; accessToken?: string }>(
         '/api/auth/login',
         { email, password }
       )
       if (!res.success || !res.role) throw new Error(res.message || 'Invalid credentials')
+      setAuthToken(res.accessToken ?? null)
 
       const isAdmin = res.role === 'admin'
       const user: User = {
@@ -142,14 +143,23 @@ export const useStore = create<Store>((set, get) => ({
       throw error
     }
   },
-  logout: () => set({ user: null, isAuthenticated: false }),
+  logout: () => {
+    import('../lib/api').then(({ setAuthToken }) => setAuthToken(null))
+    set({ user: null, isAuthenticated: false })
+  },
   
   // Products - safe initialization
   products: [...defaultProducts],
   fetchProducts: async () => {
     try {
       const { getJson } = await import('../lib/api')
-      const products = await getJson<Product[]>('/api/products')
+      // The catalog only changes with product edits; live stock comes separately so orders don't invalidate it
+      const [catalog, stock] = await Promise.all([
+        getJson<Product[]>('/api/products'),
+        getJson<Record<string, number>>('/api/products/stock')
+      ])
+      const products = catalog.map(product =>
+        stock[String(product.id)] === undefined ? product : { ...product, stock: stock[String(product.id)] })
       set({ products })
       return products
     } catch (error) {
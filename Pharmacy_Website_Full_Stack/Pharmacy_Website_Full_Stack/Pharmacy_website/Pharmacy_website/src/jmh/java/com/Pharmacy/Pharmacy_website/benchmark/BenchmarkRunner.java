@@ -0,0 +1,106 @@
+package com.Pharmacy.Pharmacy_website.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Runs the JMH benchmarks, writes the JSON results and, given a baseline from an
+ * earlier run, compares every benchmark present in both. Exits with status 1 when
+ * any score got worse by more than the threshold: lower throughput, or a higher
+ * time per operation. Started by the benchmarks Maven profile.
+ */
+public class BenchmarkRunner {
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            int equals = arg.indexOf('=');
+            if (arg.startsWith("--") && equals > 2) {
+                options.put(arg.substring(2, equals), arg.substring(equals + 1));
+            }
+        }
+        String include = options.getOrDefault("include", BenchmarkRunner.class.getPackageName() + "\\..*");
+        Path result = Path.of(options.getOrDefault("result", "target/jmh/results.json"));
+        String baseline = options.getOrDefault("baseline", "");
+        double threshold = Double.parseDouble(options.getOrDefault("threshold", "0.10"));
+        Files.createDirectories(result.toAbsolutePath().getParent());
+
+        Options jmh = new OptionsBuilder()
+                .include(include)
+                .forks(Integer.parseInt(options.getOrDefault("forks", "1")))
+                .warmupIterations(Integer.parseInt(options.getOrDefault("warmup", "3")))
+                .warmupTime(TimeValue.seconds(1))
+                .measurementIterations(Integer.parseInt(options.getOrDefault("iterations", "5")))
+                .measurementTime(TimeValue.seconds(1))
+                .resultFormat(ResultFormatType.JSON)
+                .result(result.toString())
+                .build();
+        new Runner(jmh).run();
+        System.out.println("Results written to " + result.toAbsolutePath());
+
+        if (!baseline.isBlank()) {
+            int regressions = compare(new File(baseline), result.toFile(), threshold);
+            if (regressions > 0) {
+                System.out.printf("%d benchmark(s) regressed by more than %.0f%% against %s%n",
+                        regressions, threshold * 100, baseline);
+                System.exit(1);
+            }
+            System.out.printf("No regression beyond %.0f%% against %s%n", threshold * 100, baseline);
+        }
+    }
+
+    static int compare(File baselineFile, File currentFile, double threshold) throws IOException {
+        Map<String, JsonNode> baseline = byKey(baselineFile);
+        Map<String, JsonNode> current = byKey(currentFile);
+        int regressions = 0;
+        System.out.printf("%-90s %14s %14s %9s%n", "Benchmark", "baseline", "current", "change");
+        for (Map.Entry<String, JsonNode> entry : current.entrySet()) {
+            JsonNode before = baseline.get(entry.getKey());
+            JsonNode now = entry.getValue();
+            double score = now.path("primaryMetric").path("score").asDouble();
+            String unit = now.path("primaryMetric").path("scoreUnit").asText();
+            if (before == null) {
+                System.out.printf("%-90s %14s %14.3f %9s  %s%n", entry.getKey(), "-", score, "new", unit);
+                continue;
+            }
+            double previous = before.path("primaryMetric").path("score").asDouble();
+            double change = (score - previous) / previous;
+            // Throughput should not fall; every other mode measures time, which should not grow
+            boolean higherIsBetter = "thrpt".equals(now.path("mode").asText());
+            boolean regressed = higherIsBetter ? change < -threshold : change > threshold;
+            if (regressed) {
+                regressions++;
+            }
+            System.out.printf("%-90s %14.3f %14.3f %+8.1f%%  %s%s%n", entry.getKey(), previous, score, change * 100,
+                    unit, regressed ? "  REGRESSION" : "");
+        }
+        return regressions;
+    }
+
+    // One entry per benchmark method, mode and parameter combination
+    private static Map<String, JsonNode> byKey(File file) throws IOException {
+        Map<String, JsonNode> results = new LinkedHashMap<>();
+        for (JsonNode result : new ObjectMapper().readTree(file)) {
+            Map<String, String> params = new TreeMap<>();
+            result.path("params").fields().forEachRemaining(p -> params.put(p.getKey(), p.getValue().asText()));
+            String key = result.path("benchmark").asText() + ":" + result.path("mode").asText()
+                    + (params.isEmpty() ? "" : params.toString());
+            results.put(key, result);
+        }
+        return results;
+    }
+}
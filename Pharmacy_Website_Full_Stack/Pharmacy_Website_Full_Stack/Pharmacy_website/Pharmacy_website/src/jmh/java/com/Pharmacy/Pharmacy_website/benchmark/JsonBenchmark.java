@@ -0,0 +1,115 @@
+package com.Pharmacy.Pharmacy_website.benchmark;
+
+import com.Pharmacy.Pharmacy_website.dto.OrderResponse;
+import com.Pharmacy.Pharmacy_website.entity.Order;
+import com.Pharmacy.Pharmacy_website.entity.OrderItem;
+import com.Pharmacy.Pharmacy_website.entity.Products;
+import com.Pharmacy.Pharmacy_website.service.ProductValidator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * What the product and order endpoints do without the database: write the
+ * catalog, a product and a placed order as JSON, and read and validate a product
+ * body the way ProductController's POST and PUT do.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class JsonBenchmark {
+
+    private static final int CATALOG_SIZE = 200;
+
+    private ObjectMapper objectMapper;
+    private Products product;
+    private List<Products> catalog;
+    private Order order;
+    private byte[] validBody;
+    private byte[] invalidBody;
+
+    @Setup
+    public void setUp() throws JsonProcessingException {
+        // Configured like the ObjectMapper Spring Boot gives the controllers
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        catalog = new ArrayList<>();
+        for (int i = 0; i < CATALOG_SIZE; i++) {
+            catalog.add(product(i));
+        }
+        product = catalog.get(0);
+
+        order = new Order();
+        order.setId(42L);
+        order.setDate(new Date());
+        order.setAmount(BigDecimal.ZERO);
+        for (int i = 0; i < 5; i++) {
+            OrderItem item = new OrderItem();
+            item.setOrder(order);
+            item.setProduct(catalog.get(i));
+            item.setQuantity(i + 1);
+            item.setPrice(BigDecimal.valueOf(catalog.get(i).getPrice()));
+            item.setAmount(item.getPrice().multiply(BigDecimal.valueOf(i + 1)));
+            order.getItems().add(item);
+            order.setAmount(order.getAmount().add(item.getAmount()));
+        }
+
+        Products incoming = product(CATALOG_SIZE);
+        incoming.setId(null);
+        validBody = objectMapper.writeValueAsBytes(incoming);
+        incoming.setPrice(0);
+        invalidBody = objectMapper.writeValueAsBytes(incoming);
+    }
+
+    private static Products product(int i) {
+        Products product = new Products();
+        product.setId((long) i + 1);
+        product.setSku("SKU-" + i);
+        product.setName("Paracetamol 500 mg tablets, pack " + i);
+        product.setCategory("Pain Relief");
+        product.setDescription("Film-coated tablets for mild to moderate pain and fever. Read the leaflet before use.");
+        product.setImage("https://cdn.example.com/products/" + i + ".jpg");
+        product.setPrice(2.49 + i);
+        product.setStock(100 + i);
+        product.setRating(4.5);
+        product.setReviews(i * 3);
+        return product;
+    }
+
+    @Benchmark
+    public byte[] writeProduct() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(product);
+    }
+
+    @Benchmark
+    public byte[] writeCatalog() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(catalog);
+    }
+
+    @Benchmark
+    public byte[] writeOrder() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(new OrderResponse(order));
+    }
+
+    @Benchmark
+    public String readAndValidateProduct() throws Exception {
+        return ProductValidator.validate(objectMapper.readValue(validBody, Products.class));
+    }
+
+    @Benchmark
+    public String readAndRejectProduct() throws Exception {
+        return ProductValidator.validate(objectMapper.readValue(invalidBody, Products.class));
+    }
+}
@@ -0,0 +1,73 @@
+package com.Pharmacy.Pharmacy_website.benchmark;
+
+import com.Pharmacy.Pharmacy_website.entity.Products;
+import com.Pharmacy.Pharmacy_website.service.ProductCatalogCache;
+import com.Pharmacy.Pharmacy_website.service.ProductSearchIndex;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ProductSearchIndex on a synthetic catalog with a mix of exact, multi-term,
+ * prefix and misspelt queries. Sampled, so the results carry p50 and p99.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SearchBenchmark {
+
+    private static final String[] MEDICINES = {"paracetamol", "ibuprofen", "aspirin", "cetirizine", "loratadine",
+            "omeprazole", "vitamin", "zinc", "amoxicillin", "metformin", "salbutamol", "magnesium"};
+    private static final String[] FORMS = {"tablets", "capsules", "syrup", "gel", "spray", "drops"};
+    private static final String[] QUERIES = {"paracetamol", "ibuprofen tablets", "vit", "amoxicilin",
+            "zinc 100 mg", "spray", "cetirizine syrup", "metformn"};
+
+    @Param({"100000"})
+    public int products;
+
+    private ProductSearchIndex index;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(7);
+        Map<Long, Products> catalog = new HashMap<>(products * 2);
+        for (int i = 0; i < products; i++) {
+            Products product = new Products();
+            product.setId((long) i + 1);
+            product.setName(MEDICINES[random.nextInt(MEDICINES.length)] + " " + 50 * (1 + random.nextInt(20))
+                    + " mg " + FORMS[random.nextInt(FORMS.length)]);
+            product.setCategory("Category " + i % 40);
+            product.setDescription("Pack of " + (10 + random.nextInt(90)) + ", batch " + random.nextInt(10_000));
+            product.setRating(random.nextInt(50) / 10.0);
+            product.setReviews(random.nextInt(500));
+            product.setFeatured(i % 97 == 0);
+            catalog.put(product.getId(), product);
+        }
+        // Hits resolve through the catalog cache; this one serves the synthetic catalog without a database
+        index = new ProductSearchIndex(new ProductCatalogCache() {
+            @Override
+            public Products getById(Long id) {
+                return catalog.get(id);
+            }
+        });
+        index.rebuild(catalog.values());
+    }
+
+    @Benchmark
+    public List<Products> search() {
+        next = (next + 1) % QUERIES.length;
+        return index.search(QUERIES[next], 20);
+    }
+}
@@ -0,0 +1,116 @@
+package com.Pharmacy.Pharmacy_website.benchmark;
+
+import com.Pharmacy.Pharmacy_website.PharmacyWebsiteApplication;
+import com.Pharmacy.Pharmacy_website.dto.CartItemRequest;
+import com.Pharmacy.Pharmacy_website.dto.CursorPageResponse;
+import com.Pharmacy.Pharmacy_website.dto.OrderSummary;
+import com.Pharmacy.Pharmacy_website.dto.ProductFilter;
+import com.Pharmacy.Pharmacy_website.dto.ProductPageResponse;
+import com.Pharmacy.Pharmacy_website.entity.Order;
+import com.Pharmacy.Pharmacy_website.entity.Products;
+import com.Pharmacy.Pharmacy_website.entity.User;
+import com.Pharmacy.Pharmacy_website.repo.UserRepo;
+import com.Pharmacy.Pharmacy_website.service.OrderService;
+import com.Pharmacy.Pharmacy_website.service.ProductService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Sort;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ProductService and OrderService against the application context and an
+ * embedded H2 database: cached catalog reads, the filtered product page query,
+ * a checkout and a page of order history.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class ServiceBenchmark {
+
+    private static final int PRODUCTS = 500;
+    private static final int ORDERS = 200;
+
+    private ConfigurableApplicationContext context;
+    private ProductService productService;
+    private OrderService orderService;
+    private final List<Long> productIds = new ArrayList<>();
+    private User buyer;
+    private ProductFilter filter;
+
+    @Setup
+    public void setUp() {
+        context = new SpringApplicationBuilder(PharmacyWebsiteApplication.class)
+                .profiles("test")
+                .web(WebApplicationType.NONE)
+                .run("--spring.datasource.url=jdbc:h2:mem:benchmark;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+                        "--spring.devtools.restart.enabled=false",
+                        "--logging.level.root=WARN");
+        productService = context.getBean(ProductService.class);
+        orderService = context.getBean(OrderService.class);
+
+        for (int i = 0; i < PRODUCTS; i++) {
+            Products product = new Products();
+            product.setName("Benchmark product " + i);
+            product.setCategory("Category " + (i % 10));
+            product.setPrice(1.0 + i % 50);
+            product.setStock(1_000_000_000);
+            productIds.add(productService.createProduct(product).getId());
+        }
+        buyer = new User();
+        buyer.setName("Benchmark buyer");
+        buyer.setEmail("benchmark@example.com");
+        buyer.setPassword("x");
+        buyer = context.getBean(UserRepo.class).save(buyer);
+        for (int i = 0; i < ORDERS; i++) {
+            checkout();
+        }
+        filter = new ProductFilter();
+        filter.setCategory("Category 3");
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<Products> cachedCatalog() {
+        return productService.getAllProduct();
+    }
+
+    @Benchmark
+    public Products cachedProductById() {
+        return productService.getProductById(productIds.get(ThreadLocalRandom.current().nextInt(PRODUCTS)));
+    }
+
+    @Benchmark
+    public ProductPageResponse filteredProductPage() {
+        return productService.getProductPage(filter, 1, 20, Sort.Order.asc("price"));
+    }
+
+    @Benchmark
+    public Order checkout() {
+        CartItemRequest line = new CartItemRequest();
+        line.setProductId(productIds.get(ThreadLocalRandom.current().nextInt(PRODUCTS)));
+        line.setQuantity(1);
+        return orderService.placeCartOrder(buyer, List.of(line));
+    }
+
+    @Benchmark
+    public CursorPageResponse<OrderSummary> orderHistoryPage() {
+        return orderService.getOrderHistory(buyer.getId(), null, 20);
+    }
+}
@@ -0,0 +1,60 @@
+package com.Pharmacy.Pharmacy_website.benchmark;
+
+import com.Pharmacy.Pharmacy_website.dto.ProductSuggestion;
+import com.Pharmacy.Pharmacy_website.entity.Products;
+import com.Pharmacy.Pharmacy_website.service.ProductSuggester;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// One keystroke's lookup in ProductSuggester's trie over a synthetic catalog
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class SuggestBenchmark {
+
+    private static final String[] WORDS = {"paracetamol", "ibuprofen", "aspirin", "cetirizine", "loratadine",
+            "omeprazole", "vitamin", "zinc", "amoxicillin", "metformin", "salbutamol", "magnesium"};
+    private static final String[] PREFIXES = {"p", "par", "ibu", "vitam", "zinc 4", "cat", "me", "salbutamol 1"};
+
+    @Param({"100000"})
+    public int products;
+
+    private ProductSuggester suggester;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(3);
+        List<Products> catalog = new ArrayList<>(products);
+        for (int i = 0; i < products; i++) {
+            Products product = new Products();
+            product.setId((long) i + 1);
+            product.setName(WORDS[random.nextInt(WORDS.length)] + " " + random.nextInt(1000) + " "
+                    + WORDS[random.nextInt(WORDS.length)]);
+            product.setCategory("Category " + i % 50);
+            product.setReviews(random.nextInt(500));
+            product.setRating(random.nextInt(50) / 10.0);
+            product.setFeatured(i % 101 == 0);
+            catalog.add(product);
+        }
+        suggester = new ProductSuggester();
+        suggester.rebuild(catalog);
+    }
+
+    @Benchmark
+    public List<ProductSuggestion> suggest() {
+        next = (next + 1) % PREFIXES.length;
+        return suggester.suggest(PREFIXES[next], 10);
+    }
+}
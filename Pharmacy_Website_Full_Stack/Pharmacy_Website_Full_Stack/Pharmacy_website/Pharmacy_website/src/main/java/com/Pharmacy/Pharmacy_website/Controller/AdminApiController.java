@@ -0,0 +1,142 @@
+package com.Pharmacy.Pharmacy_website.Controller;
+
+import com.Pharmacy.Pharmacy_website.dto.AccountResponse;
+import com.Pharmacy.Pharmacy_website.dto.DashboardSummary;
+import com.Pharmacy.Pharmacy_website.dto.PageResponse;
+import com.Pharmacy.Pharmacy_website.security.CredentialService;
+import com.Pharmacy.Pharmacy_website.service.AdminService;
+import com.Pharmacy.Pharmacy_website.service.DashboardAggregates;
+import com.Pharmacy.Pharmacy_website.service.OrderExportService;
+import com.Pharmacy.Pharmacy_website.service.OrderService;
+import com.Pharmacy.Pharmacy_website.service.UserService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Function;
+
+@RestController
+@RequestMapping("/api/admin")
+@CrossOrigin(origins = "http://localhost:5173")
+public class AdminApiController {
+    private static final int MAX_PAGE_SIZE = 100;
+
+    @Autowired
+    private CredentialService credentialService;
+
+    @Autowired
+    private DashboardAggregates dashboardAggregates;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private AdminService adminService;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private OrderExportService orderExportService;
+
+    @GetMapping("/dashboard")
+    public ResponseEntity<DashboardSummary> getDashboard() {
+        return ResponseEntity.ok(dashboardAggregates.summary());
+    }
+
+    // Drill-downs behind the dashboard tiles; products page through /api/products
+    @GetMapping("/users")
+    public ResponseEntity<?> getUsers(@RequestParam(defaultValue = "0") int page,
+                                      @RequestParam(defaultValue = "20") int size) {
+        String error = validatePage(page, size);
+        if (error != null) {
+            return ResponseEntity.badRequest().body(error);
+        }
+        return ResponseEntity.ok(new PageResponse<>(userService.getUserPage(page, size), AccountResponse::new));
+    }
+
+    @GetMapping("/admins")
+    public ResponseEntity<?> getAdmins(@RequestParam(defaultValue = "0") int page,
+                                       @RequestParam(defaultValue = "20") int size) {
+        String error = validatePage(page, size);
+        if (error != null) {
+            return ResponseEntity.badRequest().body(error);
+        }
+        return ResponseEntity.ok(new PageResponse<>(adminService.getAdminPage(page, size), AccountResponse::new));
+    }
+
+    @GetMapping("/orders")
+    public ResponseEntity<?> getOrders(@RequestParam(defaultValue = "0") int page,
+                                       @RequestParam(defaultValue = "20") int size) {
+        String error = validatePage(page, size);
+        if (error != null) {
+            return ResponseEntity.badRequest().body(error);
+        }
+        return ResponseEntity.ok(new PageResponse<>(orderService.getOrderSummaryPage(page, size), Function.identity()));
+    }
+
+    // Written while the rows are read, so the export never sits in memory
+    @GetMapping("/orders/export")
+    public ResponseEntity<StreamingResponseBody> exportOrders(@RequestParam(defaultValue = "csv") String format,
+                                         @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                         @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        OrderExportService.Format exportFormat;
+        try {
+            exportFormat = OrderExportService.Format.valueOf(format.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            return badRequestStream("Format must be csv or ndjson");
+        }
+        if (from != null && to != null && from.isAfter(to)) {
+            return badRequestStream("from must not be after to");
+        }
+
+        StreamingResponseBody body = out -> orderExportService.export(exportFormat, from, to, out);
+        String extension = exportFormat == OrderExportService.Format.CSV ? "csv" : "ndjson";
+        return ResponseEntity.ok()
+                .contentType(exportFormat == OrderExportService.Format.CSV
+                        ? new MediaType("text", "csv", StandardCharsets.UTF_8)
+                        : new MediaType("application", "x-ndjson"))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"orders." + extension + "\"")
+                .body(body);
+    }
+
+    // Hashes every remaining plaintext password in the background; progress shows up under /api/metrics
+    @PostMapping("/credentials/migrate")
+    public ResponseEntity<Map<String, Object>> migrateCredentials() {
+        if (!credentialService.startMigration()) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("message", "Migration already running"));
+        }
+        return ResponseEntity.accepted().body(credentialService.stats());
+    }
+
+    // The streaming return type is fixed by the signature, so errors are streamed too
+    private static ResponseEntity<StreamingResponseBody> badRequestStream(String message) {
+        return ResponseEntity.badRequest()
+                .contentType(new MediaType("text", "plain", StandardCharsets.UTF_8))
+                .body(out -> out.write(message.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private static String validatePage(int page, int size) {
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            return "Page size must be between 1 and " + MAX_PAGE_SIZE;
+        }
+        if (page < 0) {
+            return "Page number must not be negative";
+        }
+        return null;
+    }
+}
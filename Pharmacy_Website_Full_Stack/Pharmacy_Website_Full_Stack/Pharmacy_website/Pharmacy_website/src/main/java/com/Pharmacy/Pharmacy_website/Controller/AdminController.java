@@ -16,7 +16,9 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
+import java.math.BigDecimal;
 import java.util.Date;
+import java.util.List;
 
 public class AdminController {
 
@@ -115,6 +117,11 @@ public class AdminController {
     @PostMapping("/product/search")
     public String productSearch(String name, Long userId, Model model) {
         Products product = productService.findProductByName(name);
+        if (product == null) {
+            // Fall back to the best ranked match so typos and partial names still find something
+            List<Products> matches = productService.searchProducts(name, 1);
+            product = matches.isEmpty() ? null : matches.get(0);
+        }
         User user = userService.getUserById(userId);
         model.addAttribute("ordersList", orderService.findOrdersByUser(user));
 
@@ -131,8 +138,7 @@ public class AdminController {
 
     @PostMapping("/place/order")
     public String placeOrder(Order order, Long userId, RedirectAttributes redirectAttributes) {
-        double totalAmount = order.getPrice() * order.getQuantity();
-        order.setAmount(totalAmount);
+        order.setAmount(order.getPrice().multiply(BigDecimal.valueOf(order.getQuantity())));
         order.setDate(new Date());
 
         User user = userService.getUserById(userId);
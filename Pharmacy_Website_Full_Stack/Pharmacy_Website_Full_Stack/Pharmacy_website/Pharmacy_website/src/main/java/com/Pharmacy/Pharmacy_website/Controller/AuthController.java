@@ -1,6 +1,8 @@
 package com.Pharmacy.Pharmacy_website.Controller;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.PostMapping;
@@ -10,10 +12,21 @@ import org.springframework.web.bind.annotation.RestController;
 
 import com.Pharmacy.Pharmacy_website.dto.AuthRequest;
 import com.Pharmacy.Pharmacy_website.dto.AuthResponse;
-import com.Pharmacy.Pharmacy_website.entity.Admin;
-import com.Pharmacy.Pharmacy_website.entity.User;
-import com.Pharmacy.Pharmacy_website.repo.AdminRepo;
-import com.Pharmacy.Pharmacy_website.repo.UserRepo;
+import com.Pharmacy.Pharmacy_website.dto.RefreshRequest;
+import com.Pharmacy.Pharmacy_website.security.AuthenticatedUser;
+import com.Pharmacy.Pharmacy_website.security.CredentialService;
+import com.Pharmacy.Pharmacy_website.security.JwtService;
+import com.Pharmacy.Pharmacy_website.security.LoginRateLimiter;
+import com.Pharmacy.Pharmacy_website.security.PasswordHashingBusyException;
+import com.Pharmacy.Pharmacy_website.security.PasswordHashingService;
+import com.Pharmacy.Pharmacy_website.security.PrincipalResolver;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
 
 @RestController
 @RequestMapping("/api/auth")
@@ -21,48 +34,102 @@ import com.Pharmacy.Pharmacy_website.repo.UserRepo;
 public class AuthController {
 
     @Autowired
-    private AdminRepo adminRepo;
+    private PrincipalResolver principalResolver;
+
+    @Autowired
+    private PasswordHashingService passwordHashingService;
+
+    @Autowired
+    private JwtService jwtService;
 
     @Autowired
-    private UserRepo userRepo;
+    private CredentialService credentialService;
 
     @Autowired
-    private com.Pharmacy.Pharmacy_website.security.PasswordEncoder passwordEncoder;
+    private LoginRateLimiter loginRateLimiter;
 
+    // BCrypt runs on the hashing pool; the servlet thread is released while the check is queued
     @PostMapping("/login")
-    public ResponseEntity<AuthResponse> login(@RequestBody AuthRequest request) {
+    public CompletableFuture<ResponseEntity<AuthResponse>> login(@RequestBody AuthRequest request,
+                                                                 HttpServletRequest httpRequest) {
         String email = request.getEmail();
         String password = request.getPassword();
         if (email == null || password == null) {
-            return ResponseEntity.badRequest().body(new AuthResponse(false, null, "Email and password required"));
+            return CompletableFuture.completedFuture(
+                    ResponseEntity.badRequest().body(new AuthResponse(false, null, "Email and password required")));
         }
 
-        // Admin first
-        Admin admin = adminRepo.findByEmail(email);
-        if (admin != null) {
-            String stored = admin.getPassword();
-            boolean ok = stored != null && (
-                stored.equals(password) || // fallback if stored is plain
-                passwordEncoder.matches(password, stored) // hashed match
-            );
-            if (ok) {
-                return ResponseEntity.ok(new AuthResponse(true, "admin", "Login successful"));
-            }
+        // Throttled before any lookup or hash, so a flood of attempts costs one CAS each
+        long wait = loginRateLimiter.tryAcquire(httpRequest.getRemoteAddr(), email);
+        if (wait > 0) {
+            return CompletableFuture.completedFuture(tooManyAttempts(wait));
+        }
+
+        List<PrincipalResolver.Account> accounts = principalResolver.resolve(email);
+        if (accounts.isEmpty()) {
+            return CompletableFuture.completedFuture(unauthorized());
         }
 
-        // Then user
-        User user = userRepo.findByEmail(email);
-        if (user != null) {
-            String stored = user.getPassword();
-            boolean ok = stored != null && (
-                stored.equals(password) || // in case legacy/plain is stored
-                passwordEncoder.matches(password, stored)
-            );
-            if (ok) {
-                return ResponseEntity.ok(new AuthResponse(true, "user", "Login successful", user.getId(), user.getName(), user.getEmail()));
+        // Every matching account in a single pool task so one login takes one queue slot
+        return passwordHashingService.submit(encoder -> {
+            for (PrincipalResolver.Account account : accounts) {
+                if (credentialService.verify(encoder, password, account.getPassword())) {
+                    credentialService.upgradeAfterLogin(account, password);
+                    return ResponseEntity.ok(withTokens(new AuthResponse(true, account.getRole(), "Login successful",
+                            account.getId(), account.getName(), account.getEmail())));
+                }
             }
+            return unauthorized();
+        }).exceptionally(this::busy);
+    }
+
+    @PostMapping("/refresh")
+    public ResponseEntity<AuthResponse> refresh(@RequestBody RefreshRequest request, HttpServletRequest httpRequest) {
+        if (request.getRefreshToken() == null) {
+            return ResponseEntity.badRequest().body(new AuthResponse(false, null, "Refresh token required"));
         }
+        // Shares the per-IP bucket with login, so guessing or replaying refresh tokens is throttled the same way
+        long wait = loginRateLimiter.tryAcquire(httpRequest.getRemoteAddr(), null);
+        if (wait > 0) {
+            return tooManyAttempts(wait);
+        }
+        JwtService.Rotation rotation = jwtService.rotateRefreshToken(request.getRefreshToken());
+        if (rotation == null) {
+            return ResponseEntity.status(401).body(new AuthResponse(false, null, "Invalid or expired refresh token"));
+        }
+        AuthenticatedUser principal = rotation.getUser();
+        AuthResponse response = new AuthResponse(true, principal.getRole(), "Token refreshed",
+                principal.getId(), null, principal.getEmail());
+        response.setAccessToken(jwtService.createAccessToken(principal.getId(), principal.getEmail(), principal.getRole()));
+        response.setRefreshToken(rotation.getRefreshToken());
+        response.setExpiresIn(jwtService.getAccessTtlSeconds());
+        return ResponseEntity.ok(response);
+    }
+
+    private ResponseEntity<AuthResponse> tooManyAttempts(long waitNanos) {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(TimeUnit.NANOSECONDS.toSeconds(waitNanos) + 1))
+                .body(new AuthResponse(false, null, "Too many login attempts, please try again later"));
+    }
 
+    private ResponseEntity<AuthResponse> unauthorized() {
         return ResponseEntity.status(401).body(new AuthResponse(false, null, "Invalid email or password"));
     }
+
+    private ResponseEntity<AuthResponse> busy(Throwable error) {
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        if (cause instanceof PasswordHashingBusyException) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, "1")
+                    .body(new AuthResponse(false, null, "Too many login attempts in progress, please retry"));
+        }
+        throw error instanceof CompletionException ? (CompletionException) error : new CompletionException(cause);
+    }
+
+    private AuthResponse withTokens(AuthResponse response) {
+        response.setAccessToken(jwtService.createAccessToken(response.getId(), response.getEmail(), response.getRole()));
+        response.setRefreshToken(jwtService.createRefreshToken(response.getId(), response.getEmail(), response.getRole()));
+        response.setExpiresIn(jwtService.getAccessTtlSeconds());
+        return response;
+    }
 }
\ No newline at end of file
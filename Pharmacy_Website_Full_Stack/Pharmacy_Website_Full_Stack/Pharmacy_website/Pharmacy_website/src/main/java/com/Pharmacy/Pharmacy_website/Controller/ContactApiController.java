@@ -0,0 +1,48 @@
+package com.Pharmacy.Pharmacy_website.Controller;
+
+import com.Pharmacy.Pharmacy_website.entity.Message;
+import com.Pharmacy.Pharmacy_website.service.ContactService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/contact")
+@CrossOrigin(origins = "http://localhost:5173")
+public class ContactApiController {
+
+    @Autowired
+    private ContactService contactService;
+
+    // 202 once the message is queued; 503 with Retry-After when the queue is full, without waiting on the database
+    @PostMapping
+    public ResponseEntity<?> sendMessage(@RequestBody Message message) {
+        if (message.getEmail() == null || message.getEmail().isBlank()
+                || message.getContent() == null || message.getContent().isBlank()) {
+            return ResponseEntity.badRequest().body("Email and message are required");
+        }
+        // Checked here because the write happens later, when the sender can no longer be told
+        if (tooLong(message.getName(), Message.MAX_NAME_LENGTH) || tooLong(message.getEmail(), Message.MAX_EMAIL_LENGTH)
+                || tooLong(message.getContent(), Message.MAX_CONTENT_LENGTH)) {
+            return ResponseEntity.badRequest().body("Name and email are limited to " + Message.MAX_EMAIL_LENGTH
+                    + " characters and the message to " + Message.MAX_CONTENT_LENGTH);
+        }
+        message.setId(null);
+        if (!contactService.submitMessage(message)) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, "5")
+                    .body("Too many messages right now, please retry shortly");
+        }
+        return ResponseEntity.accepted().build();
+    }
+
+    private static boolean tooLong(String value, int max) {
+        return value != null && value.length() > max;
+    }
+}
@@ -13,8 +13,11 @@ public class ContactController {
 
     @PostMapping("/send/message")
     public String sendMessage(Message message, Model model) {
-        contactService.createMessage(message);
-        model.addAttribute("confirmation", "Your message has been successfully sent!!");
+        if (contactService.submitMessage(message)) {
+            model.addAttribute("confirmation", "Your message has been successfully sent!!");
+        } else {
+            model.addAttribute("error", "We are receiving a lot of messages right now, please try again in a minute.");
+        }
 
         return "ContactUs";
     }
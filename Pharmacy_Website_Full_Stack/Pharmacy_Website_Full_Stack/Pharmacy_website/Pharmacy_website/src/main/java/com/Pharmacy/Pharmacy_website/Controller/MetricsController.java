@@ -0,0 +1,51 @@
+package com.Pharmacy.Pharmacy_website.Controller;
+
+import com.Pharmacy.Pharmacy_website.config.StatsMeterBinder;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import javax.sql.DataSource;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/metrics")
+@CrossOrigin(origins = "http://localhost:5173")
+public class MetricsController {
+
+    @Autowired
+    private StatsMeterBinder statsMeterBinder;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @GetMapping
+    public ResponseEntity<Map<String, Object>> getMetrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        // The same figures are scraped as gauges from /actuator/prometheus
+        statsMeterBinder.sources().forEach((name, stats) -> metrics.put(name, stats.get()));
+        metrics.put("dbPool", dbPoolStats());
+        return ResponseEntity.ok(metrics);
+    }
+
+    // With virtual threads the pool, not Tomcat, caps concurrent JDBC work: watch threadsAwaiting
+    private Map<String, Object> dbPoolStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        if (dataSource instanceof HikariDataSource hikari) {
+            stats.put("maximumPoolSize", hikari.getMaximumPoolSize());
+            HikariPoolMXBean pool = hikari.getHikariPoolMXBean();
+            if (pool != null) {
+                stats.put("active", pool.getActiveConnections());
+                stats.put("idle", pool.getIdleConnections());
+                stats.put("threadsAwaiting", pool.getThreadsAwaitingConnection());
+            }
+        }
+        return stats;
+    }
+}
@@ -1,8 +1,97 @@
 package com.Pharmacy.Pharmacy_website.Controller;
 
+import com.Pharmacy.Pharmacy_website.dto.CheckoutRequest;
+import com.Pharmacy.Pharmacy_website.dto.OrderResponse;
+import com.Pharmacy.Pharmacy_website.entity.Order;
+import com.Pharmacy.Pharmacy_website.entity.User;
+import com.Pharmacy.Pharmacy_website.security.AuthenticatedUser;
 import com.Pharmacy.Pharmacy_website.service.OrderService;
+import com.Pharmacy.Pharmacy_website.service.OutOfStockException;
+import com.Pharmacy.Pharmacy_website.service.UserService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
 
+@RestController
+@RequestMapping("/api/orders")
+@CrossOrigin(origins = "http://localhost:5173")
 public class OrderController {
-    
-}
\ No newline at end of file
+    private static final int MAX_PAGE_SIZE = 100;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private UserService userService;
+
+    @PostMapping("/checkout")
+    public ResponseEntity<?> checkout(@RequestBody CheckoutRequest request,
+                                      @AuthenticationPrincipal AuthenticatedUser principal) {
+        if (request.getUserId() == null) {
+            return ResponseEntity.badRequest().body("User id is required");
+        }
+        if (!principal.isAdmin() && !request.getUserId().equals(principal.getId())) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body("Cannot place orders for another user");
+        }
+        User user;
+        try {
+            user = userService.getUserById(request.getUserId());
+        } catch (RuntimeException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(e.getMessage());
+        }
+
+        try {
+            Order order = orderService.placeCartOrder(user, request.getItems());
+            return ResponseEntity.status(HttpStatus.CREATED).body(new OrderResponse(order));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (OutOfStockException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body("Failed to place order: " + e.getMessage());
+        }
+    }
+
+    // Newest first; follow nextCursor for older orders. Users see their own history, admins anyone's
+    @GetMapping("/history")
+    public ResponseEntity<?> getOrderHistory(@RequestParam(required = false) Long userId,
+                                             @RequestParam(required = false) String cursor,
+                                             @RequestParam(defaultValue = "20") int size,
+                                             @AuthenticationPrincipal AuthenticatedUser principal) {
+        Long owner = userId != null ? userId : (principal.isAdmin() ? null : principal.getId());
+        if (owner == null) {
+            return ResponseEntity.badRequest().body("User id is required");
+        }
+        if (!principal.isAdmin() && !owner.equals(principal.getId())) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body("Cannot view another user's orders");
+        }
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            return ResponseEntity.badRequest().body("Page size must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        try {
+            return ResponseEntity.ok(orderService.getOrderHistory(owner, cursor, size));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    // Users cancel their own orders, admins anyone's. Someone else's order answers like a missing one,
+    // so order ids cannot be probed
+    @PostMapping("/{id}/cancel")
+    public ResponseEntity<?> cancelOrder(@PathVariable Long id,
+                                         @AuthenticationPrincipal AuthenticatedUser principal) {
+        Order order = orderService.findOrderById(id).orElse(null);
+        if (order == null || !principal.isAdmin() && !isOwner(order, principal)) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body("Order with id " + id + " not found");
+        }
+        orderService.cancelOrder(id);
+        return ResponseEntity.ok().build();
+    }
+
+    private static boolean isOwner(Order order, AuthenticatedUser principal) {
+        return order.getUser() != null && order.getUser().getId().equals(principal.getId());
+    }
+}
@@ -1,54 +1,127 @@
 package com.Pharmacy.Pharmacy_website.Controller;
 
+import com.Pharmacy.Pharmacy_website.dto.ProductFilter;
 import com.Pharmacy.Pharmacy_website.entity.Products;
+import com.Pharmacy.Pharmacy_website.service.CatalogResponseCache;
+import com.Pharmacy.Pharmacy_website.service.ProductImportService;
 import com.Pharmacy.Pharmacy_website.service.ProductService;
+import com.Pharmacy.Pharmacy_website.service.ProductSuggester;
+import com.Pharmacy.Pharmacy_website.service.ProductValidator;
+import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.function.Supplier;
 
 @RestController
 @RequestMapping("/api/products")
 @CrossOrigin(origins = "http://localhost:5173")
 public class ProductController {
+    private static final int MAX_PAGE_SIZE = 100;
+    private static final Set<String> SORTABLE_FIELDS = Set.of("id", "name", "price", "rating", "reviews");
+
     @Autowired
     private ProductService productService;
 
+    @Autowired
+    private ProductImportService productImportService;
+
+    @Autowired
+    private CatalogResponseCache catalogResponses;
+
     @GetMapping
-    public ResponseEntity<List<Products>> getAllProducts() {
-        return ResponseEntity.ok(productService.getAllProduct());
+    public ResponseEntity<?> getAllProducts(HttpServletRequest request,
+                                            ProductFilter filter,
+                                            @RequestParam(required = false) Integer page,
+                                            @RequestParam(required = false) Integer size,
+                                            @RequestParam(required = false) String sort,
+                                            @RequestParam(required = false) String cursor) {
+        // Plain GET keeps returning the whole (cached) catalog for existing clients
+        if (page == null && size == null && sort == null && cursor == null && filter.isEmpty()) {
+            return conditional(request, catalogResponses::catalog);
+        }
+
+        int pageSize = size == null ? 20 : size;
+        if (pageSize < 1 || pageSize > MAX_PAGE_SIZE) {
+            return ResponseEntity.badRequest().body("Page size must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        if (page != null && page < 0) {
+            return ResponseEntity.badRequest().body("Page number must not be negative");
+        }
+        if (filter.getMinPrice() != null && filter.getMaxPrice() != null && filter.getMinPrice() > filter.getMaxPrice()) {
+            return ResponseEntity.badRequest().body("minPrice must not be greater than maxPrice");
+        }
+
+        Sort.Order order;
+        try {
+            order = parseSort(sort);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+
+        try {
+            if (cursor != null) {
+                return ResponseEntity.ok(productService.getProductsAfter(filter, cursor, pageSize, order));
+            }
+            return ResponseEntity.ok(productService.getProductPage(filter, page == null ? 0 : page, pageSize, order));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    @GetMapping("/search")
+    public ResponseEntity<?> searchProducts(@RequestParam("q") String query,
+                                            @RequestParam(defaultValue = "20") int limit) {
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            return ResponseEntity.badRequest().body("Limit must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        return ResponseEntity.ok(productService.searchProducts(query, limit));
+    }
+
+    @GetMapping("/suggest")
+    public ResponseEntity<?> suggestProducts(@RequestParam("q") String prefix,
+                                             @RequestParam(defaultValue = "10") int limit) {
+        if (limit < 1 || limit > ProductSuggester.MAX_SUGGESTIONS) {
+            return ResponseEntity.badRequest().body("Limit must be between 1 and " + ProductSuggester.MAX_SUGGESTIONS);
+        }
+        return ResponseEntity.ok(productService.suggestProducts(prefix, limit));
+    }
+
+    // Live stock for every product; the catalog bodies above carry it as of the last product write
+    @GetMapping("/stock")
+    public ResponseEntity<byte[]> getStock(HttpServletRequest request) {
+        if (catalogResponses.isStockNotModified(request.getHeader(HttpHeaders.IF_NONE_MATCH))) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(catalogResponses.currentStockETag())
+                    .cacheControl(CacheControl.noCache())
+                    .varyBy(HttpHeaders.ACCEPT_ENCODING)
+                    .build();
+        }
+        return send(request, catalogResponses.stock(), null);
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<Products> getProductById(@PathVariable Long id) {
-        Products product = productService.getProductById(id);
-        return product != null ? ResponseEntity.ok(product) : ResponseEntity.notFound().build();
+    public ResponseEntity<byte[]> getProductById(HttpServletRequest request, @PathVariable Long id) {
+        return conditional(request, () -> catalogResponses.product(id));
     }
 
     @PostMapping
     public ResponseEntity<?> addProduct(@RequestBody Products product) {
         try {
-            // Validate required fields
-            if (product.getName() == null || product.getName().trim().isEmpty()) {
-                return ResponseEntity.badRequest().body("Product name is required");
-            }
-            if (product.getPrice() <= 0) {
-                return ResponseEntity.badRequest().body("Product price must be greater than zero");
-            }
-            if (product.getCategory() == null || product.getCategory().trim().isEmpty()) {
-                return ResponseEntity.badRequest().body("Product category is required");
-            }
-            
-            // Set default values for optional fields if not provided
-            if (product.getImage() == null || product.getImage().trim().isEmpty()) {
-                product.setImage("https://via.placeholder.com/300x300.png?text=No+Image");
+            String error = ProductValidator.validate(product);
+            if (error != null) {
+                return ResponseEntity.badRequest().body(error);
             }
-            if (product.getRating() <= 0) {
-                product.setRating(4.5); // Default rating
-            }
-            
+
             Products savedProduct = productService.createProduct(product);
             return ResponseEntity.ok(savedProduct);
         } catch (Exception e) {
@@ -57,28 +130,43 @@ public class ProductController {
         }
     }
 
+    // The body is read as it arrives, so a large supplier feed never sits in memory
+    @PostMapping("/import")
+    public ResponseEntity<?> importProducts(@RequestParam(required = false) String format, HttpServletRequest request) {
+        ProductImportService.Format importFormat;
+        if (format == null) {
+            String contentType = request.getContentType();
+            importFormat = contentType != null && contentType.toLowerCase(Locale.ROOT).contains("csv")
+                    ? ProductImportService.Format.CSV
+                    : ProductImportService.Format.JSON;
+        } else {
+            try {
+                importFormat = ProductImportService.Format.valueOf(format.toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                return ResponseEntity.badRequest().body("Format must be csv or json");
+            }
+        }
+
+        try {
+            return ResponseEntity.ok(productImportService.importProducts(importFormat, request.getInputStream()));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body("Failed to import products: " + e.getMessage());
+        }
+    }
+
     @PutMapping("/{id}")
     public ResponseEntity<?> updateProduct(@PathVariable Long id, @RequestBody Products product) {
         try {
-            // Validate required fields
-            if (product.getName() == null || product.getName().trim().isEmpty()) {
-                return ResponseEntity.badRequest().body("Product name is required");
-            }
-            if (product.getPrice() <= 0) {
-                return ResponseEntity.badRequest().body("Product price must be greater than zero");
+            String error = ProductValidator.validate(product);
+            if (error != null) {
+                return ResponseEntity.badRequest().body(error);
             }
-            if (product.getCategory() == null || product.getCategory().trim().isEmpty()) {
-                return ResponseEntity.badRequest().body("Product category is required");
-            }
-            
-            // Set default values for optional fields if not provided
-            if (product.getImage() == null || product.getImage().trim().isEmpty()) {
-                product.setImage("https://via.placeholder.com/300x300.png?text=No+Image");
-            }
-            if (product.getRating() <= 0) {
-                product.setRating(4.5); // Default rating
-            }
-            
+
             product.setId(id);
             Products updatedProduct = productService.updateProduct(product);
             return ResponseEntity.ok(updatedProduct);
@@ -94,4 +182,74 @@ public class ProductController {
         return ResponseEntity.ok().build();
     }
 
+    // 304 straight from the catalog version; otherwise the bytes rendered for it, gzipped if the client takes that
+    private ResponseEntity<byte[]> conditional(HttpServletRequest request, Supplier<CatalogResponseCache.Rendered> body) {
+        long ifModifiedSince;
+        try {
+            ifModifiedSince = request.getDateHeader(HttpHeaders.IF_MODIFIED_SINCE);
+        } catch (IllegalArgumentException e) {
+            ifModifiedSince = -1;
+        }
+        if (catalogResponses.isNotModified(request.getHeader(HttpHeaders.IF_NONE_MATCH), ifModifiedSince)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(catalogResponses.currentETag())
+                    .lastModified(catalogResponses.lastModified())
+                    .cacheControl(CacheControl.noCache())
+                    .varyBy(HttpHeaders.ACCEPT_ENCODING)
+                    .build();
+        }
+
+        CatalogResponseCache.Rendered rendered = body.get();
+        if (rendered == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return send(request, rendered, catalogResponses.lastModified());
+    }
+
+    private ResponseEntity<byte[]> send(HttpServletRequest request, CatalogResponseCache.Rendered rendered, Long lastModified) {
+        boolean gzip = acceptsGzip(request.getHeader(HttpHeaders.ACCEPT_ENCODING));
+        byte[] bytes = gzip ? rendered.getGzip() : rendered.getJson();
+        catalogResponses.recordSent(bytes.length);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .eTag(rendered.getETag())
+                .cacheControl(CacheControl.noCache())
+                .varyBy(HttpHeaders.ACCEPT_ENCODING);
+        if (lastModified != null) {
+            response.lastModified(lastModified);
+        }
+        if (gzip) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return response.body(bytes);
+    }
+
+    private static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String coding : acceptEncoding.toLowerCase(Locale.ROOT).split(",")) {
+            String[] parts = coding.trim().split(";");
+            if (parts[0].trim().equals("gzip")) {
+                return parts.length == 1 || !parts[1].replace(" ", "").matches("q=0(\\.0*)?");
+            }
+        }
+        return false;
+    }
+
+    private Sort.Order parseSort(String sort) {
+        if (sort == null || sort.isBlank()) {
+            return Sort.Order.asc("id");
+        }
+        String[] parts = sort.split(",");
+        String property = parts[0].trim();
+        if (!SORTABLE_FIELDS.contains(property)) {
+            throw new IllegalArgumentException("Cannot sort by " + property);
+        }
+        Sort.Direction direction = parts.length > 1
+                ? Sort.Direction.fromString(parts[1].trim())
+                : Sort.Direction.ASC;
+        return new Sort.Order(direction, property);
+    }
+
 }
@@ -1,6 +1,11 @@
 package com.Pharmacy.Pharmacy_website.Controller;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.CrossOrigin;
@@ -11,9 +16,14 @@ import org.springframework.web.bind.annotation.RestController;
 
 import com.Pharmacy.Pharmacy_website.entity.User;
 import com.Pharmacy.Pharmacy_website.repo.UserRepo;
-import com.Pharmacy.Pharmacy_website.security.PasswordEncoder;
+import com.Pharmacy.Pharmacy_website.security.PasswordHashingBusyException;
+import com.Pharmacy.Pharmacy_website.security.PasswordHashingService;
+import com.Pharmacy.Pharmacy_website.security.PrincipalResolver;
+import com.Pharmacy.Pharmacy_website.service.DashboardAggregates;
 
-import java.util.logging.Logger;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
 import java.util.regex.Pattern;
 
 @RestController
@@ -21,14 +31,25 @@ import java.util.regex.Pattern;
 @CrossOrigin(origins = "*")
 public class UserRestController {
 
-    private static final Logger logger = Logger.getLogger(UserRestController.class.getName());
+    private static final Logger logger = LoggerFactory.getLogger(UserRestController.class);
     private static final Pattern EMAIL_PATTERN = Pattern.compile("^[A-Za-z0-9+_.-]+@(.+)$");
 
     @Autowired
     private UserRepo userRepo;
     
     @Autowired
-    private PasswordEncoder passwordEncoder;
+    private PasswordHashingService passwordHashingService;
+
+    @Autowired
+    private PrincipalResolver principalResolver;
+
+    @Autowired
+    private DashboardAggregates dashboardAggregates;
+
+    // The executor Spring MVC runs async request work on (virtual threads when they are enabled)
+    @Autowired
+    @Qualifier(TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME)
+    private Executor requestExecutor;
 
     static class UserResponse {
         public Long id; public String name; public String email;
@@ -36,42 +57,58 @@ public class UserRestController {
     }
 
     @PostMapping
-    public ResponseEntity<?> createUser(@RequestBody User user) {
+    public CompletableFuture<ResponseEntity<?>> createUser(@RequestBody User user) {
         try {
             // Validate required fields
             if (user.getEmail() == null || user.getPassword() == null || user.getName() == null) {
-                return ResponseEntity.badRequest().body("Name, email and password are required");
+                return CompletableFuture.completedFuture(ResponseEntity.badRequest().body("Name, email and password are required"));
             }
             
             // Validate email format
             if (!EMAIL_PATTERN.matcher(user.getEmail()).matches()) {
-                return ResponseEntity.badRequest().body("Invalid email format");
+                return CompletableFuture.completedFuture(ResponseEntity.badRequest().body("Invalid email format"));
             }
             
             // Validate password strength
             if (user.getPassword().length() < 6) {
-                return ResponseEntity.badRequest().body("Password must be at least 6 characters long");
+                return CompletableFuture.completedFuture(ResponseEntity.badRequest().body("Password must be at least 6 characters long"));
             }
             
             // Check if email is already in use
             User existing = userRepo.findByEmail(user.getEmail());
             if (existing != null) {
-                return ResponseEntity.status(HttpStatus.CONFLICT).body("Email already in use");
+                return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.CONFLICT).body("Email already in use"));
             }
             
-            // Encode password before saving
-            String encodedPassword = passwordEncoder.encode(user.getPassword());
-            user.setPassword(encodedPassword);
-            
-            // Save user
-            User saved = userRepo.save(user);
-            logger.info("New user registered: " + user.getEmail());
-            
-            return ResponseEntity.status(HttpStatus.CREATED).body(new UserResponse(saved));
+            // Only the hash runs on the BCrypt pool; saving continues on the request executor,
+            // so JDBC waits never hold one of the few hashing threads
+            return passwordHashingService.encode(user.getPassword())
+                    .<ResponseEntity<?>>thenApplyAsync(encodedPassword -> {
+                        user.setPassword(encodedPassword);
+
+                        // Save user
+                        User saved = userRepo.save(user);
+                        principalResolver.invalidate(saved.getEmail());
+                        dashboardAggregates.userAdded();
+                        logger.atInfo().addKeyValue("userId", saved.getId()).log("New user registered");
+
+                        return ResponseEntity.status(HttpStatus.CREATED).body(new UserResponse(saved));
+                    }, requestExecutor)
+                    .exceptionally(this::registrationFailed);
         } catch (Exception e) {
-            logger.severe("Error creating user: " + e.getMessage());
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                    .body("An error occurred during registration");
+            return CompletableFuture.completedFuture(registrationFailed(e));
+        }
+    }
+
+    private ResponseEntity<?> registrationFailed(Throwable error) {
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        if (cause instanceof PasswordHashingBusyException) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, "1")
+                    .body("Too many registrations in progress, please retry");
         }
+        logger.atError().setCause(cause).log("Error creating user");
+        return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body("An error occurred during registration");
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,62 @@
+package com.Pharmacy.Pharmacy_website.config;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Threads for our own workers that spend their time blocked on I/O (SMTP, JDBC
+ * batches). When spring.threads.virtual.enabled is set and the JVM is Java 21 or
+ * later they are virtual threads, the same as Tomcat's request threads; otherwise
+ * named platform daemon threads. CPU-bound pools such as BCrypt stay on platform
+ * threads in both modes, because their size is what limits them.
+ */
+@Component
+public class BackgroundThreads {
+
+    private final boolean virtual;
+
+    @Autowired
+    public BackgroundThreads(Environment environment) {
+        this(Threading.VIRTUAL.isActive(environment));
+    }
+
+    public BackgroundThreads(boolean virtual) {
+        this.virtual = virtual;
+    }
+
+    public static BackgroundThreads platform() {
+        return new BackgroundThreads(false);
+    }
+
+    public boolean isVirtual() {
+        return virtual;
+    }
+
+    public ThreadFactory factory(String name) {
+        if (virtual) {
+            return new VirtualThreadTaskExecutor(name + "-").getVirtualThreadFactory();
+        }
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, name + "-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("virtualThreads", virtual);
+        stats.put("javaVersion", Runtime.version().feature());
+        stats.put("liveThreads", Thread.activeCount());
+        return stats;
+    }
+}
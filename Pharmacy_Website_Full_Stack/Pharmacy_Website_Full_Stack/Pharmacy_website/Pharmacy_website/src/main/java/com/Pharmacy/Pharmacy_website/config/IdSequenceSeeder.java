@@ -0,0 +1,74 @@
+package com.Pharmacy.Pharmacy_website.config;
+
+import com.Pharmacy.Pharmacy_website.entity.Order;
+import com.Pharmacy.Pharmacy_website.entity.OrderItem;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+import org.hibernate.dialect.Dialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Orders and order lines used to take IDENTITY ids. Their pooled sequences are
+ * created by ddl-auto starting at 1, which on an existing database would hand
+ * out ids that are already taken. Before the application serves anything, each
+ * sequence is moved past the highest id in its table; it is never moved back.
+ */
+@Component
+public class IdSequenceSeeder {
+
+    private static final Logger logger = LoggerFactory.getLogger(IdSequenceSeeder.class);
+    private static final Class<?>[] ENTITIES = {Order.class, OrderItem.class};
+
+    // Injected so the schema exists (ddl-auto has run) before seeding
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @PostConstruct
+    public void seed() {
+        Dialect dialect = entityManagerFactory.unwrap(SessionFactoryImplementor.class).getJdbcServices().getDialect();
+        for (Class<?> entity : ENTITIES) {
+            String table = entity.getAnnotation(Table.class).name();
+            SequenceGenerator generator;
+            try {
+                generator = entity.getDeclaredField("id").getAnnotation(SequenceGenerator.class);
+            } catch (NoSuchFieldException e) {
+                throw new IllegalStateException(entity.getSimpleName() + " has no id field", e);
+            }
+            seed(dialect, table, generator.sequenceName(), generator.allocationSize());
+        }
+    }
+
+    // The pooled optimizer hands out [value - allocationSize, value) for each value it reads,
+    // so the next value read has to be more than MAX(id) + allocationSize
+    private void seed(Dialect dialect, String table, String sequence, int allocationSize) {
+        Long maxId = jdbcTemplate.queryForObject("select max(id) from " + table, Long.class);
+        if (maxId == null) {
+            return;
+        }
+        long floor = maxId + allocationSize + 1;
+        if (!dialect.getSequenceSupport().supportsSequences()) {
+            // MySQL: Hibernate emulates the sequence with a one-row table holding next_val
+            int updated = jdbcTemplate.update("update " + sequence + " set next_val = ? where next_val < ?", floor, floor);
+            if (updated > 0) {
+                logger.info("Moved {} to {} past the ids already in {}", sequence, floor, table);
+            }
+            return;
+        }
+        // Reading the next value only skips one block of ids
+        Long next = jdbcTemplate.queryForObject(dialect.getSequenceSupport().getSequenceNextValString(sequence), Long.class);
+        if (next != null && next < floor) {
+            jdbcTemplate.execute("alter sequence " + sequence + " restart with " + floor);
+            logger.info("Moved {} to {} past the ids already in {}", sequence, floor, table);
+        }
+    }
+}
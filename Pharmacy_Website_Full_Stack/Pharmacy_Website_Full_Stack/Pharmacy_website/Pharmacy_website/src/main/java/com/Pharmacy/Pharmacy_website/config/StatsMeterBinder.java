@@ -0,0 +1,129 @@
+package com.Pharmacy.Pharmacy_website.config;
+
+import com.Pharmacy.Pharmacy_website.security.CredentialService;
+import com.Pharmacy.Pharmacy_website.security.JwtAuthenticationFilter;
+import com.Pharmacy.Pharmacy_website.security.LoginRateLimiter;
+import com.Pharmacy.Pharmacy_website.security.PasswordHashingService;
+import com.Pharmacy.Pharmacy_website.security.PrincipalResolver;
+import com.Pharmacy.Pharmacy_website.service.CatalogResponseCache;
+import com.Pharmacy.Pharmacy_website.service.ContactMessageQueue;
+import com.Pharmacy.Pharmacy_website.service.InventoryService;
+import com.Pharmacy.Pharmacy_website.service.MailDispatcher;
+import com.Pharmacy.Pharmacy_website.service.ProductCatalogCache;
+import com.Pharmacy.Pharmacy_website.service.ProductImportService;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Publishes the numeric entries of every component's stats() map as gauges named
+ * pharmacy.&lt;component&gt;.&lt;stat&gt;, next to the JSON view at /api/metrics.
+ * A scrape reads each gauge separately, so every component's map is computed at
+ * most once a second however many of its entries are scraped.
+ */
+@Component
+public class StatsMeterBinder implements MeterBinder {
+
+    private static final long SNAPSHOT_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    @Autowired
+    private ProductCatalogCache catalogCache;
+
+    @Autowired
+    private CatalogResponseCache catalogResponses;
+
+    @Autowired
+    private InventoryService inventoryService;
+
+    @Autowired
+    private JwtAuthenticationFilter jwtAuthenticationFilter;
+
+    @Autowired
+    private PasswordHashingService passwordHashingService;
+
+    @Autowired
+    private CredentialService credentialService;
+
+    @Autowired
+    private LoginRateLimiter loginRateLimiter;
+
+    @Autowired
+    private PrincipalResolver principalResolver;
+
+    @Autowired
+    private ProductImportService productImportService;
+
+    @Autowired
+    private ContactMessageQueue contactMessageQueue;
+
+    @Autowired
+    private MailDispatcher mailDispatcher;
+
+    @Autowired
+    private BackgroundThreads backgroundThreads;
+
+    public Map<String, Supplier<Map<String, Object>>> sources() {
+        Map<String, Supplier<Map<String, Object>>> sources = new LinkedHashMap<>();
+        sources.put("catalogCache", catalogCache::stats);
+        sources.put("catalogResponses", catalogResponses::stats);
+        sources.put("inventory", inventoryService::stats);
+        sources.put("auth", jwtAuthenticationFilter::stats);
+        sources.put("passwordHashing", passwordHashingService::stats);
+        sources.put("credentials", credentialService::stats);
+        sources.put("loginRateLimit", loginRateLimiter::stats);
+        sources.put("principalLookup", principalResolver::stats);
+        sources.put("productImport", productImportService::stats);
+        sources.put("contactQueue", contactMessageQueue::stats);
+        sources.put("mail", mailDispatcher::stats);
+        sources.put("threading", backgroundThreads::stats);
+        return sources;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        for (Map.Entry<String, Supplier<Map<String, Object>>> source : sources().entrySet()) {
+            Snapshot snapshot = new Snapshot(source.getValue());
+            // Keys are fixed per component, so the first map tells us which gauges to register
+            for (Map.Entry<String, Object> stat : snapshot.get().entrySet()) {
+                if (!(stat.getValue() instanceof Number)) {
+                    continue;
+                }
+                String key = stat.getKey();
+                Gauge.builder("pharmacy." + source.getKey() + "." + key, snapshot, s -> number(s.get().get(key)))
+                        .strongReference(true)
+                        .register(registry);
+            }
+        }
+    }
+
+    private static double number(Object value) {
+        return value instanceof Number number ? number.doubleValue() : Double.NaN;
+    }
+
+    private static final class Snapshot {
+        private final Supplier<Map<String, Object>> stats;
+        private volatile Map<String, Object> last = Collections.emptyMap();
+        private volatile long takenAt = System.nanoTime() - SNAPSHOT_NANOS;
+
+        Snapshot(Supplier<Map<String, Object>> stats) {
+            this.stats = stats;
+        }
+
+        Map<String, Object> get() {
+            long now = System.nanoTime();
+            if (now - takenAt >= SNAPSHOT_NANOS) {
+                last = stats.get();
+                takenAt = now;
+            }
+            return last;
+        }
+    }
+}
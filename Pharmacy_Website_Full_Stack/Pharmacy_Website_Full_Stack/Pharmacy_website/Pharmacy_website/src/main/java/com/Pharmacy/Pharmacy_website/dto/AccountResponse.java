@@ -0,0 +1,31 @@
+package com.Pharmacy.Pharmacy_website.dto;
+
+import com.Pharmacy.Pharmacy_website.entity.Admin;
+import com.Pharmacy.Pharmacy_website.entity.User;
+
+// Admin and user rows without their password hashes
+public class AccountResponse {
+    private Long id;
+    private String name;
+    private String email;
+
+    public AccountResponse() {}
+
+    public AccountResponse(User user) {
+        this(user.getId(), user.getName(), user.getEmail());
+    }
+
+    public AccountResponse(Admin admin) {
+        this(admin.getId(), admin.getName(), admin.getEmail());
+    }
+
+    public AccountResponse(Long id, String name, String email) {
+        this.id = id;
+        this.name = name;
+        this.email = email;
+    }
+
+    public Long getId() { return id; }
+    public String getName() { return name; }
+    public String getEmail() { return email; }
+}
@@ -7,6 +7,9 @@ public class AuthResponse {
     private Long id;
     private String name;
     private String email;
+    private String accessToken;
+    private String refreshToken;
+    private Long expiresIn; // access token lifetime in seconds
 
     public AuthResponse() {}
     
@@ -42,4 +45,13 @@ public class AuthResponse {
     
     public String getEmail() { return email; }
     public void setEmail(String email) { this.email = email; }
+
+    public String getAccessToken() { return accessToken; }
+    public void setAccessToken(String accessToken) { this.accessToken = accessToken; }
+
+    public String getRefreshToken() { return refreshToken; }
+    public void setRefreshToken(String refreshToken) { this.refreshToken = refreshToken; }
+
+    public Long getExpiresIn() { return expiresIn; }
+    public void setExpiresIn(Long expiresIn) { this.expiresIn = expiresIn; }
 }
\ No newline at end of file
@@ -0,0 +1,19 @@
+package com.Pharmacy.Pharmacy_website.dto;
+
+public class CartItemRequest {
+    private Long productId;
+    private int quantity;
+
+    public CartItemRequest() {}
+
+    public CartItemRequest(Long productId, int quantity) {
+        this.productId = productId;
+        this.quantity = quantity;
+    }
+
+    public Long getProductId() { return productId; }
+    public void setProductId(Long productId) { this.productId = productId; }
+
+    public int getQuantity() { return quantity; }
+    public void setQuantity(int quantity) { this.quantity = quantity; }
+}
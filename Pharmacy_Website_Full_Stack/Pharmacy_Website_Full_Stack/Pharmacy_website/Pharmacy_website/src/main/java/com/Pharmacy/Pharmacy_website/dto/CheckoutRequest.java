@@ -0,0 +1,16 @@
+package com.Pharmacy.Pharmacy_website.dto;
+
+import java.util.List;
+
+public class CheckoutRequest {
+    private Long userId;
+    private List<CartItemRequest> items;
+
+    public CheckoutRequest() {}
+
+    public Long getUserId() { return userId; }
+    public void setUserId(Long userId) { this.userId = userId; }
+
+    public List<CartItemRequest> getItems() { return items; }
+    public void setItems(List<CartItemRequest> items) { this.items = items; }
+}
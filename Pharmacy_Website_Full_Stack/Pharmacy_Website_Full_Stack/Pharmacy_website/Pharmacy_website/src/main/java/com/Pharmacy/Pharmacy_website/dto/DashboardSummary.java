@@ -0,0 +1,97 @@
+package com.Pharmacy.Pharmacy_website.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+public class DashboardSummary {
+    private long users;
+    private long admins;
+    private long products;
+    private long orders; // placed and not cancelled
+    private long cancelledOrders;
+    private BigDecimal revenue;
+    private List<DayTotal> ordersPerDay;
+    private List<StockAlert> lowStock;
+    private List<TopSeller> topSellers;
+
+    public DashboardSummary() {}
+
+    public DashboardSummary(long users, long admins, long products, long orders, long cancelledOrders,
+                            BigDecimal revenue, List<DayTotal> ordersPerDay, List<StockAlert> lowStock,
+                            List<TopSeller> topSellers) {
+        this.users = users;
+        this.admins = admins;
+        this.products = products;
+        this.orders = orders;
+        this.cancelledOrders = cancelledOrders;
+        this.revenue = revenue;
+        this.ordersPerDay = ordersPerDay;
+        this.lowStock = lowStock;
+        this.topSellers = topSellers;
+    }
+
+    public long getUsers() { return users; }
+    public long getAdmins() { return admins; }
+    public long getProducts() { return products; }
+    public long getOrders() { return orders; }
+    public long getCancelledOrders() { return cancelledOrders; }
+    public BigDecimal getRevenue() { return revenue; }
+    public List<DayTotal> getOrdersPerDay() { return ordersPerDay; }
+    public List<StockAlert> getLowStock() { return lowStock; }
+    public List<TopSeller> getTopSellers() { return topSellers; }
+
+    public static class DayTotal {
+        private LocalDate date;
+        private long orders;
+        private BigDecimal revenue;
+
+        public DayTotal() {}
+
+        public DayTotal(LocalDate date, long orders, BigDecimal revenue) {
+            this.date = date;
+            this.orders = orders;
+            this.revenue = revenue;
+        }
+
+        public LocalDate getDate() { return date; }
+        public long getOrders() { return orders; }
+        public BigDecimal getRevenue() { return revenue; }
+    }
+
+    public static class StockAlert {
+        private Long productId;
+        private String name;
+        private int stock;
+
+        public StockAlert() {}
+
+        public StockAlert(Long productId, String name, int stock) {
+            this.productId = productId;
+            this.name = name;
+            this.stock = stock;
+        }
+
+        public Long getProductId() { return productId; }
+        public String getName() { return name; }
+        public int getStock() { return stock; }
+    }
+
+    public static class TopSeller {
+        private Long productId;
+        private String name;
+        private long unitsSold;
+
+        public TopSeller() {}
+
+        public TopSeller(Long productId, String name, long unitsSold) {
+            this.productId = productId;
+            this.name = name;
+            this.unitsSold = unitsSold;
+        }
+
+        public Long getProductId() { return productId; }
+        public String getName() { return name; }
+        public long getUnitsSold() { return unitsSold; }
+    }
+}
@@ -0,0 +1,60 @@
+package com.Pharmacy.Pharmacy_website.dto;
+
+import com.Pharmacy.Pharmacy_website.entity.Order;
+import com.Pharmacy.Pharmacy_website.entity.OrderItem;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+public class OrderResponse {
+    private Long id;
+    private Date date;
+    private BigDecimal amount;
+    private String status;
+    private List<Line> items = new ArrayList<>();
+
+    public OrderResponse() {}
+
+    public OrderResponse(Order order) {
+        this.id = order.getId();
+        this.date = order.getDate();
+        this.amount = order.getAmount();
+        this.status = order.getStatus() == null ? null : order.getStatus().name();
+        for (OrderItem item : order.getItems()) {
+            items.add(new Line(item));
+        }
+    }
+
+    public Long getId() { return id; }
+    public Date getDate() { return date; }
+    public BigDecimal getAmount() { return amount; }
+    public String getStatus() { return status; }
+    public List<Line> getItems() { return items; }
+
+    public static class Line {
+        private Long productId;
+        private String name;
+        private int quantity;
+        private BigDecimal price;
+        private BigDecimal amount;
+
+        public Line() {}
+
+        // Product is read off the in-memory catalog entity attached at checkout, not lazily loaded
+        public Line(OrderItem item) {
+            this.productId = item.getProduct().getId();
+            this.name = item.getProduct().getName();
+            this.quantity = item.getQuantity();
+            this.price = item.getPrice();
+            this.amount = item.getAmount();
+        }
+
+        public Long getProductId() { return productId; }
+        public String getName() { return name; }
+        public int getQuantity() { return quantity; }
+        public BigDecimal getPrice() { return price; }
+        public BigDecimal getAmount() { return amount; }
+    }
+}
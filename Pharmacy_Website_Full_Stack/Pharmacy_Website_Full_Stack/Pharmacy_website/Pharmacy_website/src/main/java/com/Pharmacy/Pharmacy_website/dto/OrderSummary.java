@@ -0,0 +1,57 @@
+package com.Pharmacy.Pharmacy_website.dto;
+
+import com.Pharmacy.Pharmacy_website.entity.OrderStatus;
+
+import java.math.BigDecimal;
+import java.util.Date;
+
+// Read-only row for order listings, built by a JPQL constructor expression so no entity is loaded
+public class OrderSummary {
+    private Long id;
+    private Date date;
+    private String status;
+    private int quantity;
+    private BigDecimal amount;
+    private Long userId;
+    private String userName;
+    private String userEmail;
+    private Long productId; // single-product orders only; cart orders list their products as lines
+    private String productName;
+    private int lineCount;
+
+    public OrderSummary() {}
+
+    public OrderSummary(Long id, Date date, OrderStatus status, int quantity, BigDecimal amount,
+                        Long userId, String userName, String userEmail,
+                        Long productId, String productName, Integer lineCount) {
+        this.id = id;
+        this.date = date;
+        this.status = status == null ? null : status.name();
+        this.quantity = quantity;
+        this.amount = amount;
+        this.userId = userId;
+        this.userName = userName;
+        this.userEmail = userEmail;
+        this.productId = productId;
+        this.productName = productName;
+        this.lineCount = lineCount == null ? 0 : lineCount;
+    }
+
+    // For one user's history, where the buyer is already known
+    public OrderSummary(Long id, Date date, OrderStatus status, int quantity, BigDecimal amount,
+                        Long productId, String productName, Integer lineCount) {
+        this(id, date, status, quantity, amount, null, null, null, productId, productName, lineCount);
+    }
+
+    public Long getId() { return id; }
+    public Date getDate() { return date; }
+    public String getStatus() { return status; }
+    public int getQuantity() { return quantity; }
+    public BigDecimal getAmount() { return amount; }
+    public Long getUserId() { return userId; }
+    public String getUserName() { return userName; }
+    public String getUserEmail() { return userEmail; }
+    public Long getProductId() { return productId; }
+    public String getProductName() { return productName; }
+    public int getLineCount() { return lineCount; }
+}
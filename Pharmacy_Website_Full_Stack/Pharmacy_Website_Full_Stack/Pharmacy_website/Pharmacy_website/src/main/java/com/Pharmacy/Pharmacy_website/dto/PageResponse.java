@@ -0,0 +1,33 @@
+package com.Pharmacy.Pharmacy_website.dto;
+
+import org.springframework.data.domain.Page;
+
+import java.util.List;
+import java.util.function.Function;
+
+public class PageResponse<T> {
+    private List<T> content;
+    private int page;
+    private int size;
+    private long totalElements;
+    private int totalPages;
+    private boolean hasNext;
+
+    public PageResponse() {}
+
+    public <E> PageResponse(Page<E> source, Function<E, T> mapper) {
+        this.content = source.getContent().stream().map(mapper).toList();
+        this.page = source.getNumber();
+        this.size = source.getSize();
+        this.totalElements = source.getTotalElements();
+        this.totalPages = source.getTotalPages();
+        this.hasNext = source.hasNext();
+    }
+
+    public List<T> getContent() { return content; }
+    public int getPage() { return page; }
+    public int getSize() { return size; }
+    public long getTotalElements() { return totalElements; }
+    public int getTotalPages() { return totalPages; }
+    public boolean isHasNext() { return hasNext; }
+}
@@ -0,0 +1,31 @@
+package com.Pharmacy.Pharmacy_website.dto;
+
+public class ProductFilter {
+    private String category;
+    private Boolean prescription;
+    private Boolean featured;
+    private Double minPrice;
+    private Double maxPrice;
+
+    public ProductFilter() {}
+
+    public boolean isEmpty() {
+        return category == null && prescription == null && featured == null
+                && minPrice == null && maxPrice == null;
+    }
+
+    public String getCategory() { return category; }
+    public void setCategory(String category) { this.category = category; }
+
+    public Boolean getPrescription() { return prescription; }
+    public void setPrescription(Boolean prescription) { this.prescription = prescription; }
+
+    public Boolean getFeatured() { return featured; }
+    public void setFeatured(Boolean featured) { this.featured = featured; }
+
+    public Double getMinPrice() { return minPrice; }
+    public void setMinPrice(Double minPrice) { this.minPrice = minPrice; }
+
+    public Double getMaxPrice() { return maxPrice; }
+    public void setMaxPrice(Double maxPrice) { this.maxPrice = maxPrice; }
+}
@@ -0,0 +1,49 @@
+package com.Pharmacy.Pharmacy_website.dto;
+
+import java.util.List;
+
+public class ProductImportReport {
+    private long rows;
+    private long inserted;
+    private long updated;
+    private long failed;
+    private List<RowError> errors; // capped; failed holds the full count
+    private String abortedReason; // set when the file could not be read to the end
+
+    public ProductImportReport() {}
+
+    public ProductImportReport(long rows, long inserted, long updated, long failed,
+                               List<RowError> errors, String abortedReason) {
+        this.rows = rows;
+        this.inserted = inserted;
+        this.updated = updated;
+        this.failed = failed;
+        this.errors = errors;
+        this.abortedReason = abortedReason;
+    }
+
+    public long getRows() { return rows; }
+    public long getInserted() { return inserted; }
+    public long getUpdated() { return updated; }
+    public long getFailed() { return failed; }
+    public List<RowError> getErrors() { return errors; }
+    public String getAbortedReason() { return abortedReason; }
+
+    public static class RowError {
+        private long row; // 1-based position among the records, header excluded
+        private String key; // SKU, else name, when the row got far enough to have one
+        private String message;
+
+        public RowError() {}
+
+        public RowError(long row, String key, String message) {
+            this.row = row;
+            this.key = key;
+            this.message = message;
+        }
+
+        public long getRow() { return row; }
+        public String getKey() { return key; }
+        public String getMessage() { return message; }
+    }
+}
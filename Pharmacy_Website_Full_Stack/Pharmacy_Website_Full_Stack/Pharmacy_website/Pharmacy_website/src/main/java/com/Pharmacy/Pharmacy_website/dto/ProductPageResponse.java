@@ -0,0 +1,49 @@
+package com.Pharmacy.Pharmacy_website.dto;
+
+import com.Pharmacy.Pharmacy_website.entity.Products;
+
+import java.util.List;
+
+public class ProductPageResponse {
+    private List<Products> content;
+    private Integer page; // null for keyset pages
+    private int size;
+    private Long totalElements; // null for keyset pages, no count query is run
+    private Integer totalPages;
+    private boolean hasNext;
+    private String nextCursor;
+
+    public ProductPageResponse() {}
+
+    public ProductPageResponse(List<Products> content, Integer page, int size, Long totalElements,
+                               Integer totalPages, boolean hasNext, String nextCursor) {
+        this.content = content;
+        this.page = page;
+        this.size = size;
+        this.totalElements = totalElements;
+        this.totalPages = totalPages;
+        this.hasNext = hasNext;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<Products> getContent() { return content; }
+    public void setContent(List<Products> content) { this.content = content; }
+
+    public Integer getPage() { return page; }
+    public void setPage(Integer page) { this.page = page; }
+
+    public int getSize() { return size; }
+    public void setSize(int size) { this.size = size; }
+
+    public Long getTotalElements() { return totalElements; }
+    public void setTotalElements(Long totalElements) { this.totalElements = totalElements; }
+
+    public Integer getTotalPages() { return totalPages; }
+    public void setTotalPages(Integer totalPages) { this.totalPages = totalPages; }
+
+    public boolean isHasNext() { return hasNext; }
+    public void setHasNext(boolean hasNext) { this.hasNext = hasNext; }
+
+    public String getNextCursor() { return nextCursor; }
+    public void setNextCursor(String nextCursor) { this.nextCursor = nextCursor; }
+}
@@ -0,0 +1,19 @@
+package com.Pharmacy.Pharmacy_website.dto;
+
+public class ProductSuggestion {
+    private final String text;
+    private final String type; // "product" or "category"
+    private final Long productId;
+
+    public ProductSuggestion(String text, String type, Long productId) {
+        this.text = text;
+        this.type = type;
+        this.productId = productId;
+    }
+
+    public String getText() { return text; }
+
+    public String getType() { return type; }
+
+    public Long getProductId() { return productId; }
+}
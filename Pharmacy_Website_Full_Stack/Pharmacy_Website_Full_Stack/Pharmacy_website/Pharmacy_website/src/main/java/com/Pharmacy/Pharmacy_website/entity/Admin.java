@@ -43,6 +43,8 @@ public class Admin {
     }
 
     private String name;
+
+    @Column(unique = true)
     private String email;
     @Value("qwerty")
     private String password;
@@ -6,14 +6,21 @@ import jakarta.persistence.*;
 @Table(name = "messages")
 public class Message {
 
+    public static final int MAX_NAME_LENGTH = 255;
+    public static final int MAX_EMAIL_LENGTH = 255;
+    public static final int MAX_CONTENT_LENGTH = 2000;
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
+    @Column(length = MAX_NAME_LENGTH)
     private String name;
 
+    @Column(length = MAX_EMAIL_LENGTH)
     private String email;
 
+    @Column(length = MAX_CONTENT_LENGTH)
     private String content;
 
     public Long getId() {
@@ -2,33 +2,54 @@ package com.Pharmacy.Pharmacy_website.entity;
 
 import jakarta.persistence.*;
 
+import java.math.BigDecimal;
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.List;
 
 @Entity
-@Table(name = "orders")
+@Table(name = "orders", indexes = {
+        // Serves a user's order history newest first: equality on userID, then (date, id) read backwards in order
+        @Index(name = "idx_orders_user_date", columnList = "userID, date, id")
+})
 public class Order {
+    // Pooled sequence ids let Hibernate batch inserts; IDENTITY forces one round trip per row.
+    // IdSequenceSeeder moves the sequence past ids an existing table already holds.
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "orders_seq")
+    @SequenceGenerator(name = "orders_seq", sequenceName = "orders_seq", allocationSize = 50)
     private Long id;
 
-    private double price;
+    @Column(precision = 12, scale = 2)
+    private BigDecimal price;
 
     private int quantity;
 
     @Temporal(TemporalType.TIMESTAMP)
     private Date date;
 
-    private double amount;
+    @Column(precision = 12, scale = 2)
+    private BigDecimal amount;
 
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "userID")
     private User user;
 
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "productID")
+    private Products product;
+
+    @Enumerated(EnumType.STRING)
+    private OrderStatus status = OrderStatus.PLACED;
+
+    @OneToMany(mappedBy = "order", cascade = CascadeType.ALL, orphanRemoval = true)
+    private List<OrderItem> items = new ArrayList<>();
+
     public Long getId() { return id; }
     public void setId(Long id) { this.id = id; }
 
-    public double getPrice() { return price; }
-    public void setPrice(double price) { this.price = price; }
+    public BigDecimal getPrice() { return price; }
+    public void setPrice(BigDecimal price) { this.price = price; }
 
     public int getQuantity() { return quantity; }
     public void setQuantity(int quantity) { this.quantity = quantity; }
@@ -36,9 +57,23 @@ public class Order {
     public Date getDate() { return date; }
     public void setDate(Date date) { this.date = date; }
 
-    public double getAmount() { return amount; }
-    public void setAmount(double amount) { this.amount = amount; }
+    public BigDecimal getAmount() { return amount; }
+    public void setAmount(BigDecimal amount) { this.amount = amount; }
 
     public User getUser() { return user; }
     public void setUser(User user) { this.user = user; }
+
+    public Products getProduct() { return product; }
+    public void setProduct(Products product) { this.product = product; }
+
+    public OrderStatus getStatus() { return status; }
+    public void setStatus(OrderStatus status) { this.status = status; }
+
+    public List<OrderItem> getItems() { return items; }
+    public void setItems(List<OrderItem> items) { this.items = items; }
+
+    public void addItem(OrderItem item) {
+        item.setOrder(this);
+        items.add(item);
+    }
 }
@@ -0,0 +1,6 @@
+package com.Pharmacy.Pharmacy_website.entity;
+
+public enum OrderStatus {
+    PLACED,
+    CANCELLED
+}
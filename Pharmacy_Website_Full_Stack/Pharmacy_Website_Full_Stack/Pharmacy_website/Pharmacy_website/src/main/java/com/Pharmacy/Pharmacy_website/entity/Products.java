@@ -3,12 +3,20 @@ package com.Pharmacy.Pharmacy_website.entity;
 import jakarta.persistence.*;
 
 @Entity
-@Table(name = "products")
+@Table(name = "products", indexes = {
+        @Index(name = "idx_products_category_price", columnList = "category, price"),
+        @Index(name = "idx_products_price", columnList = "price"),
+        @Index(name = "idx_products_name", columnList = "name")
+})
 public class Products {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
+    // Supplier stock-keeping unit; optional, bulk imports match on it before falling back to the name
+    @Column(unique = true)
+    private String sku;
+
     private String name;
     private double price;
     private String description;
@@ -28,6 +36,14 @@ public class Products {
         this.id = id;
     }
 
+    public String getSku() {
+        return sku;
+    }
+
+    public void setSku(String sku) {
+        this.sku = sku;
+    }
+
     public String getName() {
         return name;
     }
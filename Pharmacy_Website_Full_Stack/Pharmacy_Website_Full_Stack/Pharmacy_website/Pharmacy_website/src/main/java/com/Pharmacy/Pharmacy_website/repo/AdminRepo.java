@@ -1,10 +1,22 @@
 package com.Pharmacy.Pharmacy_website.repo;
 
 import com.Pharmacy.Pharmacy_website.entity.Admin;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+
 @Repository
 public interface AdminRepo extends JpaRepository<Admin, Long> {
     public Admin findByEmail(String email);
+
+    // Anything that is not a BCrypt hash ($2a$/$2b$/$2y$) is a legacy plaintext password
+    @Query("select count(a) from Admin a where a.password is not null and a.password not like '$2%'")
+    public long countLegacyPasswords();
+
+    @Query("select a from Admin a where a.id > :afterId and a.password is not null and a.password not like '$2%' order by a.id")
+    public List<Admin> findLegacyPasswords(@Param("afterId") Long afterId, Pageable page);
 }
@@ -1,16 +1,73 @@
 package com.Pharmacy.Pharmacy_website.repo;
 
+import com.Pharmacy.Pharmacy_website.dto.OrderSummary;
 import com.Pharmacy.Pharmacy_website.entity.Order;
 import com.Pharmacy.Pharmacy_website.entity.Products;
 import com.Pharmacy.Pharmacy_website.entity.User;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.Date;
 import java.util.List;
 
+// Order.user, Order.product and Order.items are all lazy: every listing names what it fetches
 @Repository
 public interface OrderRepo extends JpaRepository<Order, Long> {
 
+    String HISTORY = "select new com.Pharmacy.Pharmacy_website.dto.OrderSummary(o.id, o.date, o.status, o.quantity, "
+            + "o.amount, p.id, p.name, size(o.items)) "
+            + "from Order o left join o.product p where o.user.id = :userId ";
+    String NEWEST_FIRST = "order by o.user.id desc, o.date desc, o.id desc";
+
+    // A user's own orders are few, so lines and their products come in the same query
+    @EntityGraph(attributePaths = {"user", "product", "items", "items.product"})
     public List<Order> findByUser(User user);
 
-}
\ No newline at end of file
+    @Override
+    @EntityGraph(attributePaths = {"user", "product"})
+    public List<Order> findAll();
+
+    // To-one associations join safely under paging; items follow through fetchItems
+    @EntityGraph(attributePaths = {"user", "product"})
+    public Page<Order> findAllBy(Pageable pageable);
+
+    // Initializes the lines of orders already in the persistence context in one query,
+    // since fetching a collection alongside a page would paginate in memory
+    @Query("select distinct o from Order o left join fetch o.items i left join fetch i.product where o in :orders")
+    public List<Order> fetchItems(@Param("orders") Collection<Order> orders);
+
+    // A user's history, newest first, by keyset on (date, id) over idx_orders_user_date. The user id leads the
+    // sort and the date bound is a plain range so the index is read in order and the scan stops at the limit.
+    @Query(HISTORY + "and o.date is not null " + NEWEST_FIRST)
+    public List<OrderSummary> findHistory(@Param("userId") Long userId, Limit limit);
+
+    @Query(HISTORY + "and o.date <= :date and (o.date < :date or o.id < :id) " + NEWEST_FIRST)
+    public List<OrderSummary> findHistoryBefore(@Param("userId") Long userId, @Param("date") Date date,
+                                                @Param("id") Long id, Limit limit);
+
+    // Undated legacy orders come after every dated one
+    @Query(HISTORY + "and o.date is null and o.id < :id " + NEWEST_FIRST)
+    public List<OrderSummary> findUndatedHistoryBefore(@Param("userId") Long userId, @Param("id") Long id, Limit limit);
+
+    @Query(value = "select new com.Pharmacy.Pharmacy_website.dto.OrderSummary(o.id, o.date, o.status, o.quantity, "
+            + "o.amount, u.id, u.name, u.email, p.id, p.name, size(o.items)) "
+            + "from Order o left join o.user u left join o.product p",
+            countQuery = "select count(o) from Order o")
+    public Page<OrderSummary> findSummaries(Pageable pageable);
+
+    // Flips a placed (or legacy, status-less) order to cancelled in one statement. Of two racing cancels only one
+    // changes the row, so only that one may hand the stock back.
+    @Modifying
+    @Query("update Order o set o.status = com.Pharmacy.Pharmacy_website.entity.OrderStatus.CANCELLED "
+            + "where o.id = :id and (o.status is null or o.status = com.Pharmacy.Pharmacy_website.entity.OrderStatus.PLACED)")
+    public int markCancelled(@Param("id") Long id);
+
+}
@@ -3,9 +3,23 @@ package com.Pharmacy.Pharmacy_website.repo;
 import com.Pharmacy.Pharmacy_website.entity.Admin;
 import com.Pharmacy.Pharmacy_website.entity.Products;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 @Repository
-public interface ProductRepo extends JpaRepository<Products, Long> {
+public interface ProductRepo extends JpaRepository<Products, Long>, JpaSpecificationExecutor<Products> {
     public Products findByName(String name);
+
+    // Conditional decrement: the row is only touched while enough stock is left,
+    // so concurrent checkouts can never drive it negative
+    @Modifying
+    @Query("update Products p set p.stock = p.stock - :quantity where p.id = :id and p.stock >= :quantity")
+    public int decrementStock(@Param("id") Long id, @Param("quantity") int quantity);
+
+    @Modifying
+    @Query("update Products p set p.stock = p.stock + :quantity where p.id = :id")
+    public int incrementStock(@Param("id") Long id, @Param("quantity") int quantity);
 }
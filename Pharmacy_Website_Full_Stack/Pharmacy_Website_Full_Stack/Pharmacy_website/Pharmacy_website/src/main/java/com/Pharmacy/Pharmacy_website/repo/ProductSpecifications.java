@@ -0,0 +1,62 @@
+package com.Pharmacy.Pharmacy_website.repo;
+
+import com.Pharmacy.Pharmacy_website.dto.ProductFilter;
+import com.Pharmacy.Pharmacy_website.entity.Products;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public final class ProductSpecifications {
+
+    private ProductSpecifications() {}
+
+    public static Specification<Products> matching(ProductFilter filter) {
+        return (root, query, cb) -> {
+            List<Predicate> predicates = new ArrayList<>();
+            if (filter.getCategory() != null && !filter.getCategory().isBlank()) {
+                predicates.add(cb.equal(root.get("category"), filter.getCategory().trim()));
+            }
+            if (filter.getPrescription() != null) {
+                predicates.add(cb.equal(root.get("prescription"), filter.getPrescription()));
+            }
+            if (filter.getFeatured() != null) {
+                predicates.add(cb.equal(root.get("featured"), filter.getFeatured()));
+            }
+            if (filter.getMinPrice() != null) {
+                predicates.add(cb.greaterThanOrEqualTo(root.get("price"), filter.getMinPrice()));
+            }
+            if (filter.getMaxPrice() != null) {
+                predicates.add(cb.lessThanOrEqualTo(root.get("price"), filter.getMaxPrice()));
+            }
+            return cb.and(predicates.toArray(new Predicate[0]));
+        };
+    }
+
+    // Seek predicate for keyset paging: rows strictly after (value, id) in the given order.
+    // The id acts as tie-breaker so rows sharing a sort value are neither skipped nor repeated.
+    // A null value sorts lowest, as MySQL and H2 order it: first ascending, last descending.
+    public static <T extends Comparable<? super T>> Specification<Products> after(
+            String property, Sort.Direction direction, T value, Long id) {
+        return (root, query, cb) -> {
+            Path<T> sortPath = root.get(property);
+            Path<Long> idPath = root.get("id");
+            Predicate idBeyond = direction.isAscending() ? cb.greaterThan(idPath, id) : cb.lessThan(idPath, id);
+            if ("id".equals(property)) {
+                return idBeyond;
+            }
+            if (value == null) {
+                Predicate tie = cb.and(cb.isNull(sortPath), idBeyond);
+                return direction.isAscending() ? cb.or(tie, cb.isNotNull(sortPath)) : tie;
+            }
+            Predicate beyond = direction.isAscending()
+                    ? cb.greaterThan(sortPath, value)
+                    : cb.lessThan(sortPath, value);
+            Predicate tie = cb.and(cb.equal(sortPath, value), idBeyond);
+            return direction.isAscending() ? cb.or(beyond, tie) : cb.or(beyond, tie, cb.isNull(sortPath));
+        };
+    }
+}
@@ -1,11 +1,22 @@
 package com.Pharmacy.Pharmacy_website.repo;
 
-import com.Pharmacy.Pharmacy_website.entity.Admin;
 import com.Pharmacy.Pharmacy_website.entity.User;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+
 @Repository
 public interface UserRepo extends JpaRepository<User, Long> {
     public User findByEmail(String email);
+
+    // Anything that is not a BCrypt hash ($2a$/$2b$/$2y$) is a legacy plaintext password
+    @Query("select count(u) from User u where u.password is not null and u.password not like '$2%'")
+    public long countLegacyPasswords();
+
+    @Query("select u from User u where u.id > :afterId and u.password is not null and u.password not like '$2%' order by u.id")
+    public List<User> findLegacyPasswords(@Param("afterId") Long afterId, Pageable page);
 }
@@ -0,0 +1,25 @@
+package com.Pharmacy.Pharmacy_website.security;
+
+public class AuthenticatedUser {
+    private final Long id;
+    private final String email;
+    private final String role; // "admin" or "user"
+    private final long expiresAtMillis;
+
+    public AuthenticatedUser(Long id, String email, String role, long expiresAtMillis) {
+        this.id = id;
+        this.email = email;
+        this.role = role;
+        this.expiresAtMillis = expiresAtMillis;
+    }
+
+    public Long getId() { return id; }
+
+    public String getEmail() { return email; }
+
+    public String getRole() { return role; }
+
+    public long getExpiresAtMillis() { return expiresAtMillis; }
+
+    public boolean isAdmin() { return "admin".equals(role); }
+}
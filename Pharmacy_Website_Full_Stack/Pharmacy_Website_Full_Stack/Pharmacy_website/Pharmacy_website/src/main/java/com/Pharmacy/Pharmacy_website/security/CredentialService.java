@@ -0,0 +1,306 @@
+package com.Pharmacy.Pharmacy_website.security;
+
+import com.Pharmacy.Pharmacy_website.config.BackgroundThreads;
+import com.Pharmacy.Pharmacy_website.entity.Admin;
+import com.Pharmacy.Pharmacy_website.entity.User;
+import com.Pharmacy.Pharmacy_website.repo.AdminRepo;
+import com.Pharmacy.Pharmacy_website.repo.UserRepo;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Verifies stored credentials in either format (BCrypt or legacy plaintext) and
+ * moves legacy rows to BCrypt. A successful login re-hashes the password in the
+ * background when it is plaintext or below the configured cost; rows that never
+ * log in are converted by the paged migration job.
+ */
+@Component
+public class CredentialService {
+
+    private static final Logger logger = LoggerFactory.getLogger(CredentialService.class);
+    private static final Pattern BCRYPT = Pattern.compile("\\$2[aby]?\\$(\\d{2})\\$[./A-Za-z0-9]{53}");
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private PasswordHashingService passwordHashingService;
+
+    @Autowired
+    private UserRepo userRepo;
+
+    @Autowired
+    private AdminRepo adminRepo;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private BackgroundThreads backgroundThreads;
+
+    @Value("${security.credentials.migration-page-size:200}")
+    private int migrationPageSize;
+
+    @Value("${security.credentials.migrate-on-startup:false}")
+    private boolean migrateOnStartup;
+
+    @Value("${security.credentials.legacy-count-ttl-seconds:30}")
+    private long legacyCountTtlSeconds;
+
+    // Persists upgrades off the hashing pool; when it backs up, the upgrade simply waits for the next login
+    private ThreadPoolExecutor upgradeExecutor;
+    private final AtomicBoolean migrating = new AtomicBoolean();
+
+    // Counting legacy rows scans both credential tables, so stats() and its gauges reuse the counts for a while
+    private volatile LegacyCounts legacyCounts;
+    private final ReentrantLock legacyCountLock = new ReentrantLock();
+
+    private final LongAdder legacyLogins = new LongAdder();
+    private final LongAdder upgradedOnLogin = new LongAdder();
+    private final LongAdder migrated = new LongAdder();
+    private final LongAdder upgradeFailures = new LongAdder();
+
+    public boolean isHashed(String stored) {
+        return stored != null && BCRYPT.matcher(stored).matches();
+    }
+
+    // Plaintext, or BCrypt with a cost that no longer matches security.bcrypt.strength
+    public boolean needsUpgrade(String stored) {
+        if (stored == null) {
+            return false;
+        }
+        Matcher matcher = BCRYPT.matcher(stored);
+        return !matcher.matches() || Integer.parseInt(matcher.group(1)) != passwordEncoder.getStrength();
+    }
+
+    // Must run on the hashing pool (or another non-request thread) since a BCrypt check is slow by design
+    public boolean verify(PasswordEncoder encoder, String rawPassword, String stored) {
+        if (rawPassword == null || stored == null) {
+            return false;
+        }
+        if (isHashed(stored)) {
+            return encoder.matches(rawPassword, stored);
+        }
+        legacyLogins.increment();
+        return MessageDigest.isEqual(rawPassword.getBytes(StandardCharsets.UTF_8), stored.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public boolean verify(String rawPassword, String stored) {
+        return verify(passwordEncoder, rawPassword, stored);
+    }
+
+    // For admin-side writes, which may resubmit an already hashed password unchanged
+    public String hashIfNeeded(String password) {
+        return password == null || isHashed(password) ? password : passwordEncoder.encode(password);
+    }
+
+    public void upgradeAfterLogin(User user, String rawPassword) {
+        if (user != null && needsUpgrade(user.getPassword())) {
+            upgrade("users", user.getId(), user.getPassword(), rawPassword);
+        }
+    }
+
+    public void upgradeAfterLogin(Admin admin, String rawPassword) {
+        if (admin != null && needsUpgrade(admin.getPassword())) {
+            upgrade("admins", admin.getId(), admin.getPassword(), rawPassword);
+        }
+    }
+
+    public void upgradeAfterLogin(PrincipalResolver.Account account, String rawPassword) {
+        if (account != null && needsUpgrade(account.getPassword())) {
+            upgrade(account.isAdmin() ? "admins" : "users", account.getId(), account.getPassword(), rawPassword);
+        }
+    }
+
+    private void upgrade(String table, Long id, String oldPassword, String rawPassword) {
+        passwordHashingService.encode(rawPassword)
+                .thenAcceptAsync(hash -> {
+                    if (replacePassword(table, id, oldPassword, hash) == 1) {
+                        upgradedOnLogin.increment();
+                    }
+                }, upgradeExecutor)
+                .exceptionally(error -> {
+                    // Pool busy or write failed; the row stays as it was and is retried on the next login
+                    upgradeFailures.increment();
+                    return null;
+                });
+    }
+
+    // Only replaces the value we verified, so a password changed in the meantime is never overwritten
+    private int replacePassword(String table, Long id, String oldPassword, String hash) {
+        return jdbcTemplate.update("update " + table + " set password = ? where id = ? and password = ?",
+                hash, id, oldPassword);
+    }
+
+    @PostConstruct
+    public void start() {
+        upgradeExecutor = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(256),
+                backgroundThreads.factory("credential-upgrade"), new ThreadPoolExecutor.DiscardPolicy());
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void migrateOnStartup() {
+        if (migrateOnStartup) {
+            startMigration();
+        }
+    }
+
+    public boolean startMigration() {
+        if (!migrating.compareAndSet(false, true)) {
+            return false;
+        }
+        Thread worker = backgroundThreads.factory("credential-migration").newThread(() -> {
+            try {
+                int users = migrate("users", after -> ids(userRepo.findLegacyPasswords(after, PageRequest.of(0, migrationPageSize)), User::getId, User::getPassword));
+                int admins = migrate("admins", after -> ids(adminRepo.findLegacyPasswords(after, PageRequest.of(0, migrationPageSize)), Admin::getId, Admin::getPassword));
+                logger.info("Legacy credential migration finished: {} users, {} admins", users, admins);
+            } catch (RuntimeException e) {
+                logger.warn("Legacy credential migration stopped", e);
+            } finally {
+                legacyCounts = null;
+                migrating.set(false);
+            }
+        });
+        worker.start();
+        return true;
+    }
+
+    // Walks the legacy rows in id order, hashes each page on the pool, then writes it as one JDBC batch
+    private int migrate(String table, Function<Long, List<Object[]>> page) {
+        // Keep at most half the pool busy so logins running alongside the migration still get through
+        int window = Math.max(1, passwordHashingService.getPoolSize() / 2);
+        int total = 0;
+        long after = 0L;
+        List<Object[]> rows;
+        while (!(rows = page.apply(after)).isEmpty()) {
+            List<Object[]> updates = new ArrayList<>(rows.size());
+            for (int from = 0; from < rows.size(); from += window) {
+                List<Object[]> chunk = rows.subList(from, Math.min(from + window, rows.size()));
+                List<CompletableFuture<String>> hashes = new ArrayList<>(chunk.size());
+                for (Object[] row : chunk) {
+                    hashes.add(passwordHashingService.encode((String) row[1]));
+                }
+                for (int i = 0; i < chunk.size(); i++) {
+                    Object[] row = chunk.get(i);
+                    updates.add(new Object[]{hashWithRetry(hashes.get(i), (String) row[1]), row[0], row[1]});
+                }
+            }
+            for (int updated : jdbcTemplate.batchUpdate(
+                    "update " + table + " set password = ? where id = ? and password = ?", updates)) {
+                // Drivers may report SUCCESS_NO_INFO (-2) for batched rows
+                if (updated != 0) {
+                    total++;
+                    migrated.increment();
+                }
+            }
+            after = (Long) rows.get(rows.size() - 1)[0];
+        }
+        return total;
+    }
+
+    // The pool answers busy during login spikes; the migration backs off and retries instead of failing
+    private String hashWithRetry(CompletableFuture<String> hash, String rawPassword) {
+        while (true) {
+            try {
+                return hash.join();
+            } catch (CompletionException e) {
+                if (!(e.getCause() instanceof PasswordHashingBusyException)) {
+                    throw e;
+                }
+            }
+            try {
+                Thread.sleep(100);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Credential migration interrupted", e);
+            }
+            hash = passwordHashingService.encode(rawPassword);
+        }
+    }
+
+    private static <T> List<Object[]> ids(List<T> rows, Function<T, Long> id, Function<T, String> password) {
+        List<Object[]> result = new ArrayList<>(rows.size());
+        for (T row : rows) {
+            result.add(new Object[]{id.apply(row), password.apply(row)});
+        }
+        return result;
+    }
+
+    private LegacyCounts legacyCounts() {
+        LegacyCounts counts = legacyCounts;
+        if (counts != null && !counts.isOlderThan(legacyCountTtlSeconds)) {
+            return counts;
+        }
+        legacyCountLock.lock();
+        try {
+            counts = legacyCounts;
+            if (counts == null || counts.isOlderThan(legacyCountTtlSeconds)) {
+                counts = new LegacyCounts(userRepo.countLegacyPasswords(), adminRepo.countLegacyPasswords());
+                legacyCounts = counts;
+            }
+            return counts;
+        } finally {
+            legacyCountLock.unlock();
+        }
+    }
+
+    public Map<String, Object> stats() {
+        LegacyCounts counts = legacyCounts();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("legacyUsers", counts.users);
+        stats.put("legacyAdmins", counts.admins);
+        stats.put("legacyLogins", legacyLogins.sum());
+        stats.put("upgradedOnLogin", upgradedOnLogin.sum());
+        stats.put("migrated", migrated.sum());
+        stats.put("upgradeFailures", upgradeFailures.sum());
+        stats.put("migrationRunning", migrating.get());
+        return stats;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        upgradeExecutor.shutdownNow();
+    }
+
+    private static final class LegacyCounts {
+        private final long users;
+        private final long admins;
+        private final long countedAtNanos = System.nanoTime();
+
+        LegacyCounts(long users, long admins) {
+            this.users = users;
+            this.admins = admins;
+        }
+
+        boolean isOlderThan(long seconds) {
+            return System.nanoTime() - countedAtNanos > TimeUnit.SECONDS.toNanos(seconds);
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.Pharmacy.Pharmacy_website.security;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+// Authenticates "Authorization: Bearer <token>" requests from the token alone, without a repository lookup
+@Component
+public class JwtAuthenticationFilter extends OncePerRequestFilter {
+
+    private static final String BEARER = "Bearer ";
+
+    @Autowired
+    private JwtService jwtService;
+
+    private final LongAdder authenticatedRequests = new LongAdder();
+    private final LongAdder authNanos = new LongAdder();
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String header = request.getHeader("Authorization");
+        if (header != null && header.startsWith(BEARER)) {
+            long started = System.nanoTime();
+            AuthenticatedUser user = jwtService.validateAccessToken(header.substring(BEARER.length()).trim());
+            if (user != null) {
+                String authority = user.isAdmin() ? "ROLE_ADMIN" : "ROLE_USER";
+                UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
+                        user, null, List.of(new SimpleGrantedAuthority(authority)));
+                SecurityContextHolder.getContext().setAuthentication(authentication);
+            }
+            authNanos.add(System.nanoTime() - started);
+            authenticatedRequests.increment();
+        }
+        chain.doFilter(request, response);
+    }
+
+    public Map<String, Object> stats() {
+        long requests = authenticatedRequests.sum();
+        Map<String, Object> stats = new LinkedHashMap<>(jwtService.stats());
+        stats.put("bearerRequests", requests);
+        stats.put("avgAuthMicros", requests == 0 ? 0.0 : authNanos.sum() / 1000.0 / requests);
+        return stats;
+    }
+}
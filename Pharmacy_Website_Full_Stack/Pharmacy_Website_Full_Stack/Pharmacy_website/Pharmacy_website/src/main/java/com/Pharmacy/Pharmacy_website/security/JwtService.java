@@ -0,0 +1,274 @@
+package com.Pharmacy.Pharmacy_website.security;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtBuilder;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Issues and validates signed access/refresh tokens.
+ * Validated access tokens are remembered by the SHA-256 of the token, so a
+ * client reusing its token skips signature verification and claim parsing
+ * until the token expires.
+ * Refresh tokens are single use: each one carries an id (jti) and the id of
+ * its login (family), and the server remembers the one current jti per family.
+ * Refreshing swaps in a new token; presenting a token that was already spent
+ * means it was stolen or replayed, so the whole family is revoked. Families
+ * live in memory, so a restart signs everyone out once their access token runs out.
+ */
+@Component
+public class JwtService {
+
+    private static final String ACCESS = "access";
+    private static final String REFRESH = "refresh";
+    // HS256 needs a key at least as long as its 256-bit hash
+    private static final int MIN_SECRET_BYTES = 32;
+    private static final int MIN_FAMILY_SWEEP = 1024;
+
+    private final SecretKey key;
+    private final long accessTtlMillis;
+    private final long refreshTtlMillis;
+    private final int cacheMaxEntries;
+
+    private final Map<String, AuthenticatedUser> validated = new ConcurrentHashMap<>();
+    private final LongAdder cacheHits = new LongAdder();
+    private final LongAdder cacheMisses = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+
+    private final Map<String, RefreshFamily> families = new ConcurrentHashMap<>();
+    private volatile int nextFamilySweep = MIN_FAMILY_SWEEP;
+    private final LongAdder rotations = new LongAdder();
+    private final LongAdder reusedRefreshTokens = new LongAdder();
+
+    public JwtService(@Value("${jwt.secret:}") String secret,
+                      @Value("${jwt.access-token-ttl-seconds:900}") long accessTtlSeconds,
+                      @Value("${jwt.refresh-token-ttl-seconds:604800}") long refreshTtlSeconds,
+                      @Value("${jwt.cache.max-entries:10000}") int cacheMaxEntries) {
+        this.key = Keys.hmacShaKeyFor(decodeSecret(secret));
+        this.accessTtlMillis = accessTtlSeconds * 1000;
+        this.refreshTtlMillis = refreshTtlSeconds * 1000;
+        this.cacheMaxEntries = cacheMaxEntries;
+    }
+
+    // Refuses to start without a real secret rather than sign tokens with a guessable one
+    static byte[] decodeSecret(String secret) {
+        if (secret == null || secret.isBlank()) {
+            throw new IllegalStateException("jwt.secret is not set; provide a base64 key of at least 256 bits via JWT_SECRET");
+        }
+        byte[] bytes;
+        try {
+            bytes = Decoders.BASE64.decode(secret.trim());
+        } catch (RuntimeException e) {
+            throw new IllegalStateException("jwt.secret is not valid base64", e);
+        }
+        if (bytes.length < MIN_SECRET_BYTES) {
+            throw new IllegalStateException("jwt.secret is " + bytes.length * 8 + " bits; at least "
+                    + MIN_SECRET_BYTES * 8 + " are required");
+        }
+        return bytes;
+    }
+
+    public String createAccessToken(Long id, String email, String role) {
+        return createToken(id, email, role, ACCESS, accessTtlMillis);
+    }
+
+    // Starts a new family, one per login
+    public String createRefreshToken(Long id, String email, String role) {
+        String family = UUID.randomUUID().toString();
+        RefreshFamily current = new RefreshFamily(UUID.randomUUID().toString(), System.currentTimeMillis() + refreshTtlMillis);
+        if (families.size() >= nextFamilySweep) {
+            sweepFamilies();
+        }
+        families.put(family, current);
+        return createRefreshToken(id, email, role, family, current);
+    }
+
+    public long getAccessTtlSeconds() {
+        return accessTtlMillis / 1000;
+    }
+
+    // Returns null when the token is missing, forged, expired or not an access token
+    public AuthenticatedUser validateAccessToken(String token) {
+        String hash = hash(token);
+        AuthenticatedUser cached = validated.get(hash);
+        if (cached != null) {
+            if (cached.getExpiresAtMillis() > System.currentTimeMillis()) {
+                cacheHits.increment();
+                return cached;
+            }
+            validated.remove(hash);
+        }
+        cacheMisses.increment();
+        AuthenticatedUser user = parse(token, ACCESS);
+        if (user != null) {
+            if (validated.size() >= cacheMaxEntries) {
+                evict();
+            }
+            validated.put(hash, user);
+        }
+        return user;
+    }
+
+    // Spends the refresh token and issues its successor; null when the token is invalid, expired, revoked or already spent
+    public Rotation rotateRefreshToken(String token) {
+        Claims claims = parseClaims(token, REFRESH);
+        if (claims == null) {
+            return null;
+        }
+        String family = claims.get("fam", String.class);
+        RefreshFamily current = family == null ? null : families.get(family);
+        if (current == null) {
+            rejected.increment();
+            return null;
+        }
+        AuthenticatedUser user = toUser(claims);
+        RefreshFamily next = new RefreshFamily(UUID.randomUUID().toString(), System.currentTimeMillis() + refreshTtlMillis);
+        // Two requests racing with the same token: only one replace wins, the other counts as reuse
+        if (!current.jti.equals(claims.getId()) || !families.replace(family, current, next)) {
+            families.remove(family);
+            reusedRefreshTokens.increment();
+            return null;
+        }
+        rotations.increment();
+        return new Rotation(user, createRefreshToken(user.getId(), user.getEmail(), user.getRole(), family, next));
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("tokenCacheHits", cacheHits.sum());
+        stats.put("tokenCacheMisses", cacheMisses.sum());
+        stats.put("tokenCacheSize", validated.size());
+        stats.put("rejectedTokens", rejected.sum());
+        stats.put("refreshFamilies", families.size());
+        stats.put("refreshRotations", rotations.sum());
+        stats.put("reusedRefreshTokens", reusedRefreshTokens.sum());
+        return stats;
+    }
+
+    private String createToken(Long id, String email, String role, String type, long ttlMillis) {
+        long now = System.currentTimeMillis();
+        return builder(id, email, role, type, now)
+                .setExpiration(new Date(now + ttlMillis))
+                .compact();
+    }
+
+    private String createRefreshToken(Long id, String email, String role, String family, RefreshFamily current) {
+        return builder(id, email, role, REFRESH, System.currentTimeMillis())
+                .setId(current.jti)
+                .claim("fam", family)
+                .setExpiration(new Date(current.expiresAtMillis))
+                .compact();
+    }
+
+    private JwtBuilder builder(Long id, String email, String role, String type, long now) {
+        return Jwts.builder()
+                .setSubject(email)
+                .claim("uid", id)
+                .claim("role", role)
+                .claim("typ", type)
+                .setIssuedAt(new Date(now))
+                .signWith(key, SignatureAlgorithm.HS256);
+    }
+
+    private AuthenticatedUser parse(String token, String expectedType) {
+        Claims claims = parseClaims(token, expectedType);
+        return claims == null ? null : toUser(claims);
+    }
+
+    private Claims parseClaims(String token, String expectedType) {
+        try {
+            Claims claims = Jwts.parserBuilder().setSigningKey(key).build().parseClaimsJws(token).getBody();
+            if (!expectedType.equals(claims.get("typ", String.class))) {
+                rejected.increment();
+                return null;
+            }
+            return claims;
+        } catch (JwtException | IllegalArgumentException e) {
+            rejected.increment();
+            return null;
+        }
+    }
+
+    private static AuthenticatedUser toUser(Claims claims) {
+        Number id = claims.get("uid", Number.class);
+        return new AuthenticatedUser(id == null ? null : id.longValue(), claims.getSubject(),
+                claims.get("role", String.class), claims.getExpiration().getTime());
+    }
+
+    // Families whose last token has expired are dead; the next sweep waits until the live ones double
+    private synchronized void sweepFamilies() {
+        if (families.size() < nextFamilySweep) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        families.values().removeIf(family -> family.expiresAtMillis <= now);
+        nextFamilySweep = Math.max(MIN_FAMILY_SWEEP, families.size() * 2);
+    }
+
+    // Drop expired entries first; if the cache is still full, drop arbitrary ones down to 90%
+    private void evict() {
+        long now = System.currentTimeMillis();
+        validated.values().removeIf(user -> user.getExpiresAtMillis() <= now);
+        Iterator<String> keys = validated.keySet().iterator();
+        while (validated.size() > cacheMaxEntries * 9 / 10 && keys.hasNext()) {
+            keys.next();
+            keys.remove();
+        }
+    }
+
+    private static String hash(String token) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return Base64.getEncoder().encodeToString(digest.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    public static final class Rotation {
+        private final AuthenticatedUser user;
+        private final String refreshToken;
+
+        Rotation(AuthenticatedUser user, String refreshToken) {
+            this.user = user;
+            this.refreshToken = refreshToken;
+        }
+
+        public AuthenticatedUser getUser() {
+            return user;
+        }
+
+        public String getRefreshToken() {
+            return refreshToken;
+        }
+    }
+
+    // Compared by identity, so replace() only succeeds against the exact entry that was read
+    private static final class RefreshFamily {
+        final String jti;
+        final long expiresAtMillis;
+
+        RefreshFamily(String jti, long expiresAtMillis) {
+            this.jti = jti;
+            this.expiresAtMillis = expiresAtMillis;
+        }
+    }
+}
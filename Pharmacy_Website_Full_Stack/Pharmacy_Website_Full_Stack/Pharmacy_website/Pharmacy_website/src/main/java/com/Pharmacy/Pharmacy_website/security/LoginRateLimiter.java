@@ -0,0 +1,160 @@
+package com.Pharmacy.Pharmacy_website.security;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Throttles login attempts per client IP and per email before any database or
+ * BCrypt work happens. Each key is a token bucket kept as a single timestamp
+ * (the generic cell rate algorithm), so a check is one CAS with no locks.
+ * Keys whose bucket has refilled are idle and get swept once the map grows
+ * past its bound. The client IP is the forwarded one (see
+ * server.forward-headers-strategy), not the proxy's.
+ */
+@Component
+public class LoginRateLimiter {
+
+    private final Buckets byIp;
+    private final Buckets byEmail;
+    private final LongSupplier clock;
+
+    @Autowired
+    public LoginRateLimiter(@Value("${security.login.ip-per-minute:30}") int ipPerMinute,
+                            @Value("${security.login.ip-burst:30}") int ipBurst,
+                            @Value("${security.login.email-per-minute:10}") int emailPerMinute,
+                            @Value("${security.login.email-burst:5}") int emailBurst,
+                            @Value("${security.login.max-keys:100000}") int maxKeys) {
+        this(ipPerMinute, ipBurst, emailPerMinute, emailBurst, maxKeys, System::nanoTime);
+    }
+
+    LoginRateLimiter(int ipPerMinute, int ipBurst, int emailPerMinute, int emailBurst, int maxKeys, LongSupplier clock) {
+        this.byIp = new Buckets(ipPerMinute, ipBurst, maxKeys);
+        this.byEmail = new Buckets(emailPerMinute, emailBurst, maxKeys);
+        this.clock = clock;
+    }
+
+    // Returns 0 when the attempt may proceed, otherwise how long the caller should wait in nanoseconds
+    public long tryAcquire(String ip, String email) {
+        long now = clock.getAsLong();
+        long wait = byIp.tryAcquire(ip == null ? "" : ip, now);
+        if (wait > 0 || email == null) {
+            return wait;
+        }
+        return byEmail.tryAcquire(email.strip().toLowerCase(Locale.ROOT), now);
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("ip", byIp.stats());
+        stats.put("email", byEmail.stats());
+        return stats;
+    }
+
+    private final class Buckets {
+        final ConcurrentHashMap<String, AtomicLong> theoreticalArrival = new ConcurrentHashMap<>();
+        final long intervalNanos;
+        final long toleranceNanos;
+        final int maxKeys;
+        final AtomicBoolean sweeping = new AtomicBoolean();
+
+        final LongAdder allowed = new LongAdder();
+        final LongAdder limited = new LongAdder();
+        final LongAdder evicted = new LongAdder();
+        final LongAdder evictedActive = new LongAdder();
+
+        Buckets(int perMinute, int burst, int maxKeys) {
+            this.intervalNanos = TimeUnit.MINUTES.toNanos(1) / Math.max(perMinute, 1);
+            this.toleranceNanos = intervalNanos * Math.max(burst - 1, 0);
+            this.maxKeys = maxKeys;
+        }
+
+        long tryAcquire(String key, long now) {
+            AtomicLong state = theoreticalArrival.get(key);
+            if (state == null) {
+                if (theoreticalArrival.size() >= maxKeys) {
+                    sweep(now);
+                }
+                state = theoreticalArrival.computeIfAbsent(key, k -> new AtomicLong(Long.MIN_VALUE));
+            }
+            while (true) {
+                long current = state.get();
+                long arrival = current == Long.MIN_VALUE || current - now < 0 ? now : current;
+                long next = arrival + intervalNanos;
+                long wait = next - now - toleranceNanos - intervalNanos;
+                if (wait > 0) {
+                    limited.increment();
+                    return wait;
+                }
+                if (state.compareAndSet(current, next)) {
+                    allowed.increment();
+                    return 0;
+                }
+            }
+        }
+
+        // Drops keys whose bucket is full again; only one thread sweeps, the others carry on
+        // and overshoot the bound by at most one key each until it is done
+        void sweep(long now) {
+            if (!sweeping.compareAndSet(false, true)) {
+                return;
+            }
+            try {
+                for (Map.Entry<String, AtomicLong> entry : theoreticalArrival.entrySet()) {
+                    long current = entry.getValue().get();
+                    // An attempt racing with the removal lands on a fresh bucket; at worst one token is forgiven
+                    if (current - now <= 0 && theoreticalArrival.remove(entry.getKey(), entry.getValue())) {
+                        evicted.increment();
+                    }
+                }
+                if (theoreticalArrival.size() >= maxKeys) {
+                    evictOldest();
+                }
+            } finally {
+                sweeping.set(false);
+            }
+        }
+
+        // A flood of distinct keys must not switch throttling off for new clients, so when every key is
+        // active the ones closest to refilled (the least throttled) go, down to 90% of the bound
+        private void evictOldest() {
+            long[] arrivals = theoreticalArrival.values().stream().mapToLong(AtomicLong::get).toArray();
+            int excess = arrivals.length - maxKeys * 9 / 10;
+            if (excess <= 0) {
+                return;
+            }
+            Arrays.sort(arrivals);
+            long cutoff = arrivals[excess - 1];
+            for (Map.Entry<String, AtomicLong> entry : theoreticalArrival.entrySet()) {
+                if (excess == 0) {
+                    break;
+                }
+                if (entry.getValue().get() <= cutoff && theoreticalArrival.remove(entry.getKey(), entry.getValue())) {
+                    evictedActive.increment();
+                    excess--;
+                }
+            }
+        }
+
+        Map<String, Object> stats() {
+            Map<String, Object> stats = new LinkedHashMap<>();
+            stats.put("keys", theoreticalArrival.size());
+            stats.put("allowed", allowed.sum());
+            stats.put("limited", limited.sum());
+            stats.put("evicted", evicted.sum());
+            stats.put("evictedActive", evictedActive.sum());
+            return stats;
+        }
+    }
+}
@@ -1,5 +1,7 @@
 package com.Pharmacy.Pharmacy_website.security;
 
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.stereotype.Component;
 
@@ -7,9 +9,16 @@ import org.springframework.stereotype.Component;
 public class PasswordEncoder {
     
     private final BCryptPasswordEncoder bCryptPasswordEncoder;
+    private final int strength;
     
     public PasswordEncoder() {
-        this.bCryptPasswordEncoder = new BCryptPasswordEncoder();
+        this(10);
+    }
+
+    @Autowired
+    public PasswordEncoder(@Value("${security.bcrypt.strength:10}") int strength) {
+        this.strength = strength;
+        this.bCryptPasswordEncoder = new BCryptPasswordEncoder(strength);
     }
     
     public String encode(String password) {
@@ -19,4 +28,8 @@ public class PasswordEncoder {
     public boolean matches(String rawPassword, String encodedPassword) {
         return bCryptPasswordEncoder.matches(rawPassword, encodedPassword);
     }
-}
\ No newline at end of file
+
+    public int getStrength() {
+        return strength;
+    }
+}
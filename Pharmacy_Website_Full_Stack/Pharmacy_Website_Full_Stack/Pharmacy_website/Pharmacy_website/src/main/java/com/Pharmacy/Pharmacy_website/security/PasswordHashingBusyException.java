@@ -0,0 +1,7 @@
+package com.Pharmacy.Pharmacy_website.security;
+
+public class PasswordHashingBusyException extends RuntimeException {
+    public PasswordHashingBusyException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,159 @@
+package com.Pharmacy.Pharmacy_website.security;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Runs BCrypt work on a dedicated pool sized to the CPU count, so a login burst
+ * cannot occupy every Tomcat worker. The queue is bounded: when it is full, or
+ * a task waited longer than the configured limit, callers get
+ * PasswordHashingBusyException and should answer 503 instead of queueing more.
+ */
+@Component
+public class PasswordHashingService implements MeterBinder {
+
+    private final PasswordEncoder passwordEncoder;
+    private final ThreadPoolExecutor executor;
+    private final long maxQueueWaitNanos;
+
+    private final LongAdder dequeued = new LongAdder();
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder queueWaitNanos = new LongAdder();
+    private final LongAdder hashNanos = new LongAdder();
+
+    // Null until the registry binds us, e.g. when a test builds the service by hand
+    private volatile Timer queueWaitTimer;
+    private volatile Timer hashSuccessTimer;
+    private volatile Timer hashErrorTimer;
+
+    public PasswordHashingService(PasswordEncoder passwordEncoder,
+                                  @Value("${security.bcrypt.threads:0}") int threads,
+                                  @Value("${security.bcrypt.queue-capacity:64}") int queueCapacity,
+                                  @Value("${security.bcrypt.max-queue-wait-ms:2000}") long maxQueueWaitMillis) {
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger counter = new AtomicInteger();
+        this.passwordEncoder = passwordEncoder;
+        this.maxQueueWaitNanos = TimeUnit.MILLISECONDS.toNanos(maxQueueWaitMillis);
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                    Thread thread = new Thread(runnable, "bcrypt-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    public CompletableFuture<Boolean> matches(String rawPassword, String encodedPassword) {
+        return submit(encoder -> encoder.matches(rawPassword, encodedPassword));
+    }
+
+    public CompletableFuture<String> encode(String rawPassword) {
+        return submit(encoder -> encoder.encode(rawPassword));
+    }
+
+    public <T> CompletableFuture<T> submit(Function<PasswordEncoder, T> work) {
+        long submitted = System.nanoTime();
+        CompletableFuture<T> result = new CompletableFuture<>();
+        try {
+            executor.execute(() -> {
+                long started = System.nanoTime();
+                long waited = started - submitted;
+                queueWaitNanos.add(waited);
+                dequeued.increment();
+                record(queueWaitTimer, waited);
+                if (waited > maxQueueWaitNanos) {
+                    // The client has most likely given up already; don't burn CPU on it
+                    rejected.increment();
+                    result.completeExceptionally(new PasswordHashingBusyException("Password hashing queue wait exceeded"));
+                    return;
+                }
+                // Counted before the future completes, so a caller that joined sees its own hash in the figures
+                T value;
+                try {
+                    value = work.apply(passwordEncoder);
+                } catch (RuntimeException e) {
+                    hashed(started, hashErrorTimer);
+                    result.completeExceptionally(e);
+                    return;
+                }
+                hashed(started, hashSuccessTimer);
+                result.complete(value);
+            });
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            result.completeExceptionally(new PasswordHashingBusyException("Password hashing queue is full"));
+        }
+        return result;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        queueWaitTimer = Timer.builder("pharmacy.bcrypt.queue.wait")
+                .description("Time a hashing task waited for a BCrypt thread")
+                .publishPercentileHistogram()
+                .register(registry);
+        hashSuccessTimer = hashTimer(registry, "success");
+        hashErrorTimer = hashTimer(registry, "error");
+    }
+
+    private Timer hashTimer(MeterRegistry registry, String outcome) {
+        return Timer.builder("pharmacy.bcrypt.hash")
+                .description("BCrypt encode and verify time on the hashing pool")
+                .tag("bcryptStrength", String.valueOf(passwordEncoder.getStrength()))
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(registry);
+    }
+
+    private void hashed(long started, Timer timer) {
+        long nanos = System.nanoTime() - started;
+        hashNanos.add(nanos);
+        completed.increment();
+        record(timer, nanos);
+    }
+
+    private static void record(Timer timer, long nanos) {
+        if (timer != null) {
+            timer.record(nanos, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    public int getPoolSize() {
+        return executor.getMaximumPoolSize();
+    }
+
+    public Map<String, Object> stats() {
+        long done = completed.sum();
+        long started = dequeued.sum();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("bcryptStrength", passwordEncoder.getStrength());
+        stats.put("poolSize", executor.getMaximumPoolSize());
+        stats.put("activeThreads", executor.getActiveCount());
+        stats.put("queueDepth", executor.getQueue().size());
+        stats.put("completed", done);
+        stats.put("rejected", rejected.sum());
+        stats.put("avgQueueWaitMillis", started == 0 ? 0.0 : queueWaitNanos.sum() / 1e6 / started);
+        stats.put("avgHashMillis", done == 0 ? 0.0 : hashNanos.sum() / 1e6 / done);
+        return stats;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
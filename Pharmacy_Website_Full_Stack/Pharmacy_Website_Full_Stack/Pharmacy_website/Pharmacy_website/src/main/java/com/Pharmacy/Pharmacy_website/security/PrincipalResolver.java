@@ -0,0 +1,127 @@
+package com.Pharmacy.Pharmacy_website.security;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Resolves a login email to its accounts with one query across admins and
+ * users, served by the unique email index on each table. Emails that match no
+ * account are remembered for a short while so repeated misses (typos, credential
+ * stuffing) stop reaching the database; account writes clear that memory.
+ */
+@Component
+public class PrincipalResolver {
+
+    // Admins first, matching the order logins have always been checked in
+    private static final String LOOKUP =
+            "select 'admin' as role, id, name, email, password from admins where email = ? "
+            + "union all "
+            + "select 'user' as role, id, name, email, password from users where email = ?";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${security.principal.negative-cache-ttl-seconds:60}")
+    private long negativeTtlSeconds;
+
+    @Value("${security.principal.negative-cache-max-entries:50000}")
+    private int negativeMaxEntries;
+
+    private final ConcurrentHashMap<String, Long> unknownEmails = new ConcurrentHashMap<>();
+    // Bumped on every account write so a lookup that raced with a sign-up never caches a stale miss
+    private final AtomicLong generation = new AtomicLong();
+
+    private final LongAdder queries = new LongAdder();
+    private final LongAdder negativeHits = new LongAdder();
+
+    public List<Account> resolve(String email) {
+        if (email == null) {
+            return Collections.emptyList();
+        }
+        String key = key(email);
+        Long expires = unknownEmails.get(key);
+        if (expires != null) {
+            if (expires - System.nanoTime() > 0) {
+                negativeHits.increment();
+                return Collections.emptyList();
+            }
+            unknownEmails.remove(key, expires);
+        }
+
+        long seen = generation.get();
+        queries.increment();
+        List<Account> accounts = jdbcTemplate.query(LOOKUP, (rs, row) -> new Account(
+                rs.getString("role"), rs.getLong("id"), rs.getString("name"),
+                rs.getString("email"), rs.getString("password")), email, email);
+        if (accounts.isEmpty() && generation.get() == seen) {
+            if (unknownEmails.size() >= negativeMaxEntries) {
+                // Cheaper than tracking recency; misses simply start reaching the database again
+                unknownEmails.clear();
+            }
+            unknownEmails.put(key, System.nanoTime() + TimeUnit.SECONDS.toNanos(negativeTtlSeconds));
+            if (generation.get() != seen) {
+                unknownEmails.remove(key);
+            }
+        }
+        return accounts;
+    }
+
+    // Call after creating an account or changing its email
+    public void invalidate(String email) {
+        generation.incrementAndGet();
+        if (email != null) {
+            unknownEmails.remove(key(email));
+        }
+    }
+
+    // Email columns compare case-insensitively in MySQL, so a sign-up must clear a miss cached under any casing
+    private static String key(String email) {
+        return email.toLowerCase(Locale.ROOT);
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("queries", queries.sum());
+        stats.put("negativeHits", negativeHits.sum());
+        stats.put("negativeEntries", unknownEmails.size());
+        return stats;
+    }
+
+    public static final class Account {
+        private final String role;
+        private final Long id;
+        private final String name;
+        private final String email;
+        private final String password;
+
+        public Account(String role, Long id, String name, String email, String password) {
+            this.role = role;
+            this.id = id;
+            this.name = name;
+            this.email = email;
+            this.password = password;
+        }
+
+        public String getRole() { return role; }
+        public Long getId() { return id; }
+        public String getName() { return name; }
+        public String getEmail() { return email; }
+        public String getPassword() { return password; }
+
+        public boolean isAdmin() {
+            return "admin".equals(role);
+        }
+    }
+}
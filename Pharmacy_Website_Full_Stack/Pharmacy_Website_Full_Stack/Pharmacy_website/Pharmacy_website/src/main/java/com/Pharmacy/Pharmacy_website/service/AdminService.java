@@ -2,7 +2,12 @@ package com.Pharmacy.Pharmacy_website.service;
 
 import com.Pharmacy.Pharmacy_website.entity.Admin;
 import com.Pharmacy.Pharmacy_website.repo.AdminRepo;
+import com.Pharmacy.Pharmacy_website.security.CredentialService;
+import com.Pharmacy.Pharmacy_website.security.PrincipalResolver;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
@@ -12,33 +17,56 @@ public class AdminService {
     @Autowired
     private AdminRepo adminRepo;
 
+    @Autowired
+    private CredentialService credentialService;
+
+    @Autowired
+    private PrincipalResolver principalResolver;
+
+    @Autowired
+    private DashboardAggregates dashboardAggregates;
+
     public List<Admin> getAllAdmin(){
         return adminRepo.findAll();
     }
 
+    public Page<Admin> getAdminPage(int page, int size){
+        return adminRepo.findAll(PageRequest.of(page, size, Sort.by("id")));
+    }
+
     public Admin getAdminById(Long id){
         return adminRepo.findById(id)
                 .orElseThrow(() -> new RuntimeException("Admin with id " + id + "not found"));
     }
 
     public void createUser(Admin admin){
+        boolean added = admin.getId() == null;
+        admin.setPassword(credentialService.hashIfNeeded(admin.getPassword()));
         adminRepo.save(admin);
+        if (added) {
+            dashboardAggregates.adminAdded();
+        }
+        principalResolver.invalidate(admin.getEmail());
     }
 
 
     public void updateAdmin( Admin admin ){
          adminRepo.findById(admin.getId())
                 .orElseThrow(() -> new RuntimeException("Admin with id " + admin.getId() + "not found"));
+           admin.setPassword(credentialService.hashIfNeeded(admin.getPassword()));
            adminRepo.save(admin);
+           principalResolver.invalidate(admin.getEmail());
     }
     public void deleteAdmin(Long id) {
         adminRepo.findById(id).orElseThrow(() -> new RuntimeException("Admin with id " + id + " not found"));
         adminRepo.deleteById(id);
+        dashboardAggregates.adminRemoved();
     }
 
     public boolean verifyCredentials(String email, String password) {
         Admin admin = adminRepo.findByEmail(email);
-        if (admin.getPassword().equals(password)) {
+        if (admin != null && credentialService.verify(password, admin.getPassword())) {
+            credentialService.upgradeAfterLogin(admin, password);
             return true;
         }else {
             return false;
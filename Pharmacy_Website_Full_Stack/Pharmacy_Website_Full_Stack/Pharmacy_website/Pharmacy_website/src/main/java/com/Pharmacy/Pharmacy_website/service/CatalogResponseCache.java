@@ -0,0 +1,218 @@
+package com.Pharmacy.Pharmacy_website.service;
+
+import com.Pharmacy.Pharmacy_website.entity.Products;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Catalog responses rendered once per catalog version: the JSON bytes and a
+ * gzipped copy, plus the validators clients send back. Conditional requests
+ * are answered from the version alone, without touching the products.
+ * Only product writes move that version. Stock moves with every order, so the
+ * catalog bodies carry it as of their version and the live figures are a
+ * separate, much smaller response with validators of their own.
+ */
+@Component
+public class CatalogResponseCache {
+
+    @Autowired
+    private ProductCatalogCache catalogCache;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private volatile Rendered catalog;
+    private volatile Rendered stock;
+    private final Map<Long, Rendered> products = new ConcurrentHashMap<>();
+
+    private final LongAdder notModified = new LongAdder();
+    private final LongAdder served = new LongAdder();
+    private final LongAdder renders = new LongAdder();
+    private final LongAdder bytesSent = new LongAdder();
+
+    public String currentETag() {
+        return eTag("catalog", String.valueOf(catalogCache.version()));
+    }
+
+    public String currentStockETag() {
+        return stockETag(catalogCache.stockVersion());
+    }
+
+    public long lastModified() {
+        return catalogCache.lastModified();
+    }
+
+    // RFC 9110: If-None-Match wins; If-Modified-Since only counts when there is no entity tag
+    public boolean isNotModified(String ifNoneMatch, long ifModifiedSince) {
+        boolean unchanged;
+        if (ifNoneMatch != null) {
+            unchanged = matches(ifNoneMatch, currentETag());
+        } else {
+            unchanged = ifModifiedSince >= 0 && lastModified() / 1000 <= ifModifiedSince / 1000;
+        }
+        if (unchanged) {
+            notModified.increment();
+        }
+        return unchanged;
+    }
+
+    public boolean isStockNotModified(String ifNoneMatch) {
+        boolean unchanged = ifNoneMatch != null && matches(ifNoneMatch, currentStockETag());
+        if (unchanged) {
+            notModified.increment();
+        }
+        return unchanged;
+    }
+
+    public Rendered catalog() {
+        // Version first: data read after it is at least that new
+        long version = catalogCache.version();
+        Rendered current = catalog;
+        if (current == null || current.version != version) {
+            // Copies, so the body has the stock as of this render; once per version, not per request
+            current = render(version, catalogCache.getAll());
+            catalog = current;
+        }
+        served.increment();
+        return current;
+    }
+
+    // Null when the product is not in the catalog
+    public Rendered product(Long id) {
+        long version = catalogCache.version();
+        Rendered current = products.get(id);
+        if (current == null || current.version != version) {
+            Products product = catalogCache.getById(id);
+            if (product == null) {
+                products.remove(id);
+                return null;
+            }
+            current = render(version, product);
+            products.put(id, current);
+        }
+        served.increment();
+        return current;
+    }
+
+    // Product id to units in stock, for every product in the catalog
+    public Rendered stock() {
+        long version = catalogCache.stockVersion();
+        String eTag = stockETag(version);
+        Rendered current = stock;
+        if (current == null || !current.eTag.equals(eTag)) {
+            List<Products> all = catalogCache.view();
+            Map<Long, Integer> levels = new LinkedHashMap<>(all.size() * 2);
+            for (Products product : all) {
+                levels.put(product.getId(), catalogCache.stock(product));
+            }
+            current = render(version, eTag, levels);
+            stock = current;
+        }
+        served.increment();
+        return current;
+    }
+
+    public void recordSent(int bytes) {
+        bytesSent.add(bytes);
+    }
+
+    public Map<String, Object> stats() {
+        Rendered current = catalog;
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("notModified", notModified.sum());
+        stats.put("served", served.sum());
+        stats.put("renders", renders.sum());
+        stats.put("bytesSent", bytesSent.sum());
+        stats.put("catalogBytes", current == null ? 0 : current.json.length);
+        stats.put("catalogGzipBytes", current == null ? 0 : current.gzip.length);
+        stats.put("cachedProducts", products.size());
+        return stats;
+    }
+
+    private Rendered render(long version, Object body) {
+        return render(version, eTag("catalog", String.valueOf(version)), body);
+    }
+
+    private Rendered render(long version, String eTag, Object body) {
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(body);
+            renders.increment();
+            return new Rendered(version, eTag, json, gzip(json));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize the catalog", e);
+        }
+    }
+
+    // Weak: the plain and gzipped bodies differ in bytes but carry the same catalog
+    private static String eTag(String kind, String version) {
+        return "W/\"" + kind + "-" + version + "\"";
+    }
+
+    // New and deleted products change the list too, so both versions count
+    private String stockETag(long stockVersion) {
+        return eTag("stock", catalogCache.version() + "." + stockVersion);
+    }
+
+    private static boolean matches(String ifNoneMatch, String eTag) {
+        String opaque = opaque(eTag);
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.equals("*") || opaque(tag).equals(opaque)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String opaque(String tag) {
+        return tag.startsWith("W/") ? tag.substring(2) : tag;
+    }
+
+    private static byte[] gzip(byte[] json) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, json.length / 4));
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(json);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    public static final class Rendered {
+        final long version;
+        private final String eTag;
+        private final byte[] json;
+        private final byte[] gzip;
+
+        Rendered(long version, String eTag, byte[] json, byte[] gzip) {
+            this.version = version;
+            this.eTag = eTag;
+            this.json = json;
+            this.gzip = gzip;
+        }
+
+        public String getETag() {
+            return eTag;
+        }
+
+        public byte[] getJson() {
+            return json;
+        }
+
+        public byte[] getGzip() {
+            return gzip;
+        }
+    }
+}
@@ -0,0 +1,546 @@
+package com.Pharmacy.Pharmacy_website.service;
+
+import com.Pharmacy.Pharmacy_website.config.BackgroundThreads;
+import com.Pharmacy.Pharmacy_website.entity.Message;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.InvalidDataAccessResourceUsageException;
+import org.springframework.dao.NonTransientDataAccessException;
+import org.springframework.dao.NonTransientDataAccessResourceException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Write-behind queue for contact-form messages. Accepting a message only appends
+ * it to a local spill file and a bounded in-memory queue; one background worker
+ * drains the queue into the database in JDBC batches, so a contact spike never
+ * takes connections from checkout. After each batch the spill file records how
+ * far the database has caught up, and on startup anything past that point is
+ * queued again. A batch the database rejects for its data is written again one
+ * message at a time, and a message it still rejects is dropped and logged. A batch
+ * that fails for any other reason than the database being unavailable is moved to
+ * the end of the spill file and the queue. Either way one bad message cannot hold
+ * up the messages behind it. Delivery is at least once: a crash between a
+ * batch commit and its checkpoint writes that batch twice.
+ */
+@Service
+public class ContactMessageQueue {
+
+    private static final Logger logger = LoggerFactory.getLogger(ContactMessageQueue.class);
+    private static final String INSERT = "insert into messages (name, email, content) values (?, ?, ?)";
+    private static final long MAX_RETRY_BACKOFF_MILLIS = 30_000;
+
+    private final BackgroundThreads backgroundThreads;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final Path spillFile;
+    private final int capacity;
+    private final int batchSize;
+    private final long retryBackoffMillis;
+    private final boolean fsync;
+
+    // Entries are numbered and queued under the lock, so the queue is in sequence order
+    private final LinkedBlockingQueue<Entry> queue = new LinkedBlockingQueue<>();
+    // Guards file appends on request threads; a monitor would pin a virtual thread for the write
+    private final ReentrantLock journalLock = new ReentrantLock();
+    // Swapped by compaction; force() reads it without the lock
+    private volatile FileChannel journal;
+    private FileChannel lockFile;
+    private long lastSequence;
+    private final AtomicLong flushedSequence = new AtomicLong();
+    private volatile int inFlight;
+    // Moved messages sit past the checkpoint under new sequences; only the worker changes this
+    private volatile int movedPending;
+    private volatile boolean running;
+    private Thread worker;
+
+    private final LongAdder accepted = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder written = new LongAdder();
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder failedBatches = new LongAdder();
+    private final LongAdder movedBatches = new LongAdder();
+    private final LongAdder droppedMessages = new LongAdder();
+    private final LongAdder flushNanos = new LongAdder();
+    private final AtomicLong maxFlushNanos = new AtomicLong();
+    private final LongAdder replayed = new LongAdder();
+
+    @Autowired
+    public ContactMessageQueue(BackgroundThreads backgroundThreads, JdbcTemplate jdbcTemplate, ObjectMapper objectMapper,
+                               @Value("${contact.queue.spill-file:data/contact-queue.log}") String spillFile,
+                               @Value("${contact.queue.capacity:10000}") int capacity,
+                               @Value("${contact.queue.batch-size:200}") int batchSize,
+                               @Value("${contact.queue.retry-backoff-ms:500}") long retryBackoffMillis,
+                               @Value("${contact.queue.fsync:true}") boolean fsync) {
+        this.backgroundThreads = backgroundThreads;
+        this.jdbcTemplate = jdbcTemplate;
+        // A batch the database rejects part way must leave none of its rows behind
+        this.transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(jdbcTemplate.getDataSource()));
+        this.objectMapper = objectMapper;
+        this.spillFile = Paths.get(spillFile);
+        this.capacity = capacity;
+        this.batchSize = batchSize;
+        this.retryBackoffMillis = retryBackoffMillis;
+        this.fsync = fsync;
+    }
+
+    @PostConstruct
+    public void start() throws IOException {
+        recover();
+        running = true;
+        worker = backgroundThreads.factory("contact-writer").newThread(this::drain);
+        worker.start();
+    }
+
+    /**
+     * Queues a message for writing. Returns false straight away, without touching
+     * the database, when the queue is full; callers should ask the client to retry.
+     */
+    public boolean offer(Message message) {
+        Entry entry;
+        journalLock.lock();
+        try {
+            if (queue.size() + inFlight >= capacity) {
+                rejected.increment();
+                return false;
+            }
+            entry = new Entry(lastSequence + 1, message.getName(), message.getEmail(), message.getContent());
+            append(record(entry));
+            lastSequence = entry.sequence;
+            queue.add(entry);
+        } finally {
+            journalLock.unlock();
+        }
+        if (fsync) {
+            force();
+        }
+        accepted.increment();
+        return true;
+    }
+
+    public int depth() {
+        return queue.size() + inFlight;
+    }
+
+    // Waits until everything accepted so far is in the database; false on timeout
+    public boolean awaitFlushed(long timeout, TimeUnit unit) throws InterruptedException {
+        long target;
+        journalLock.lock();
+        try {
+            target = lastSequence;
+        } finally {
+            journalLock.unlock();
+        }
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        while (flushedSequence.get() < target || movedPending > 0) {
+            if (System.nanoTime() > deadline) {
+                return false;
+            }
+            Thread.sleep(5);
+        }
+        return true;
+    }
+
+    private void drain() {
+        List<Entry> batch = new ArrayList<>(batchSize);
+        long backoff = retryBackoffMillis;
+        while (running || !batch.isEmpty() || !queue.isEmpty()) {
+            try {
+                if (batch.isEmpty()) {
+                    Entry first = queue.poll(200, TimeUnit.MILLISECONDS);
+                    if (first == null) {
+                        continue;
+                    }
+                    batch.add(first);
+                    queue.drainTo(batch, batchSize - 1);
+                    inFlight = batch.size();
+                }
+                try {
+                    write(batch);
+                } catch (DataAccessException e) {
+                    if (!isRejectedData(e)) {
+                        throw e;
+                    }
+                    failedBatches.increment();
+                    writeOneByOne(batch);
+                }
+                finished(batch);
+                batch.clear();
+                inFlight = 0;
+                backoff = retryBackoffMillis;
+            } catch (DataAccessException | CannotCreateTransactionException e) {
+                // Keep the batch and try again; new messages keep spilling to the file meanwhile
+                failedBatches.increment();
+                if (!running) {
+                    // Shutting down with the database unavailable: the spill file still has the batch
+                    return;
+                }
+                logger.warn("Writing {} contact messages failed, retrying in {} ms", batch.size(), backoff, e);
+                if (!sleep(backoff)) {
+                    return;
+                }
+                backoff = Math.min(backoff * 2, MAX_RETRY_BACKOFF_MILLIS);
+            } catch (RuntimeException e) {
+                failedBatches.increment();
+                logger.error("Writing {} contact messages failed, moving them to the end of the queue", batch.size(), e);
+                if (moveToTail(batch)) {
+                    batch.clear();
+                    inFlight = 0;
+                }
+                // Slows a batch that keeps failing to one attempt per backoff instead of a busy loop
+                if (!running || !sleep(backoff)) {
+                    return;
+                }
+                backoff = Math.min(backoff * 2, MAX_RETRY_BACKOFF_MILLIS);
+            } catch (InterruptedException e) {
+                // Whatever is still queued stays in the spill file for the next start
+                return;
+            }
+        }
+    }
+
+    // Constraint violations and the like come from the rows themselves; resource failures and bad SQL
+    // (a missing table, say) would fail every row alike, so those are waited out instead
+    static boolean isRejectedData(DataAccessException e) {
+        return e instanceof NonTransientDataAccessException
+                && !(e instanceof NonTransientDataAccessResourceException)
+                && !(e instanceof InvalidDataAccessResourceUsageException);
+    }
+
+    // Written entries leave the batch as they go, so a database failure part way keeps only the rest
+    private void writeOneByOne(List<Entry> batch) {
+        Iterator<Entry> entries = batch.iterator();
+        while (entries.hasNext()) {
+            Entry entry = entries.next();
+            try {
+                write(List.of(entry));
+            } catch (DataAccessException e) {
+                if (!isRejectedData(e)) {
+                    throw e;
+                }
+                droppedMessages.increment();
+                logger.error("Dropped contact message {} from {}, the database rejects it", entry.sequence, entry.email, e);
+                checkpoint(entry.sequence);
+            }
+            finished(List.of(entry));
+            entries.remove();
+            inFlight = batch.size();
+        }
+    }
+
+    private void finished(List<Entry> entries) {
+        int moved = (int) entries.stream().filter(entry -> entry.moved).count();
+        if (moved > 0) {
+            movedPending -= moved;
+            compact();
+        }
+    }
+
+    private void write(List<Entry> batch) {
+        long started = System.nanoTime();
+        transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(INSERT, batch, batch.size(),
+                (ps, entry) -> {
+                    ps.setString(1, entry.name);
+                    ps.setString(2, entry.email);
+                    ps.setString(3, entry.content);
+                }));
+        long elapsed = System.nanoTime() - started;
+        flushNanos.add(elapsed);
+        maxFlushNanos.accumulateAndGet(elapsed, Math::max);
+        batches.increment();
+        written.add(batch.size());
+        checkpoint(batch.get(batch.size() - 1).sequence);
+    }
+
+    // Later checkpoints pass the batch's old sequences, so it is appended again under new ones
+    private boolean moveToTail(List<Entry> batch) {
+        journalLock.lock();
+        try {
+            List<Entry> moved = new ArrayList<>(batch.size());
+            for (Entry entry : batch) {
+                Entry renumbered = new Entry(lastSequence + 1, entry.name, entry.email, entry.content, true);
+                append(record(renumbered));
+                lastSequence = renumbered.sequence;
+                moved.add(renumbered);
+            }
+            queue.addAll(moved);
+            movedPending += (int) batch.stream().filter(entry -> !entry.moved).count();
+            movedBatches.increment();
+            return true;
+        } catch (UncheckedIOException e) {
+            // Lines already appended are only written twice; keep the batch and try it again
+            logger.warn("Could not move failed contact messages in the spill file", e);
+            return false;
+        } finally {
+            journalLock.unlock();
+        }
+    }
+
+    // A moved batch leaves its old lines behind; rewrite the file with just what is still queued
+    private void compact() {
+        journalLock.lock();
+        try {
+            if (flushedSequence.get() == lastSequence) {
+                // The checkpoint has already emptied the file
+                return;
+            }
+            Path compacted = spillFile.resolveSibling(spillFile.getFileName() + ".tmp");
+            StringBuilder lines = new StringBuilder();
+            for (Entry entry : queue) {
+                lines.append(objectMapper.writeValueAsString(record(entry))).append('\n');
+            }
+            try (FileChannel channel = FileChannel.open(compacted, StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+                ByteBuffer buffer = ByteBuffer.wrap(lines.toString().getBytes(StandardCharsets.UTF_8));
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+                if (fsync) {
+                    // Messages accepted since their last force are only durable through this copy
+                    channel.force(false);
+                }
+            }
+            journal.close();
+            Files.move(compacted, spillFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            journal = FileChannel.open(spillFile, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        } catch (IOException e) {
+            // The old lines are still covered by the checkpoints, so this only costs space
+            logger.warn("Could not compact the contact spill file", e);
+            reopenJournal();
+        } finally {
+            journalLock.unlock();
+        }
+    }
+
+    private void reopenJournal() {
+        if (journal.isOpen()) {
+            return;
+        }
+        try {
+            journal = FileChannel.open(spillFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.APPEND);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not reopen the contact spill file", e);
+        }
+    }
+
+    private void checkpoint(long sequence) {
+        journalLock.lock();
+        try {
+            flushedSequence.set(sequence);
+            try {
+                if (sequence == lastSequence) {
+                    // Caught up: nothing in the file is needed any more
+                    journal.truncate(0);
+                } else {
+                    ObjectNode record = objectMapper.createObjectNode();
+                    record.put("flushed", sequence);
+                    append(record);
+                }
+            } catch (IOException | UncheckedIOException e) {
+                // Only costs a duplicate write after a crash
+                logger.warn("Could not checkpoint the contact spill file", e);
+            }
+        } finally {
+            journalLock.unlock();
+        }
+    }
+
+    // Queues whatever the last run accepted but never wrote, then rewrites the file with just that
+    private void recover() throws IOException {
+        Path parent = spillFile.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        // Two instances replaying and compacting one file would lose or duplicate messages
+        lockFile = FileChannel.open(spillFile.resolveSibling(spillFile.getFileName() + ".lock"),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        if (lockFile.tryLock() == null) {
+            lockFile.close();
+            throw new IllegalStateException(spillFile + " is in use by another instance");
+        }
+        List<Entry> pending = new ArrayList<>();
+        long flushed = 0;
+        if (Files.exists(spillFile)) {
+            try (BufferedReader reader = Files.newBufferedReader(spillFile, StandardCharsets.UTF_8)) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    JsonNode record;
+                    try {
+                        record = objectMapper.readTree(line);
+                    } catch (IOException e) {
+                        // A torn last line from a crash mid-append; it was never acknowledged
+                        continue;
+                    }
+                    if (record == null) {
+                        continue;
+                    }
+                    if (record.has("flushed")) {
+                        flushed = Math.max(flushed, record.get("flushed").asLong());
+                    } else {
+                        pending.add(new Entry(record.get("seq").asLong(), text(record, "name"),
+                                text(record, "email"), text(record, "content")));
+                    }
+                }
+            }
+        }
+        Path compacted = spillFile.resolveSibling(spillFile.getFileName() + ".tmp");
+        List<String> lines = new ArrayList<>();
+        long sequence = 0;
+        for (Entry entry : pending) {
+            if (entry.sequence > flushed) {
+                sequence++;
+                Entry renumbered = new Entry(sequence, entry.name, entry.email, entry.content);
+                queue.add(renumbered);
+                lines.add(objectMapper.writeValueAsString(record(renumbered)));
+            }
+        }
+        Files.write(compacted, lines, StandardCharsets.UTF_8);
+        Files.move(compacted, spillFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        journal = FileChannel.open(spillFile, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        lastSequence = sequence;
+        replayed.add(sequence);
+        if (sequence > 0) {
+            logger.info("Re-queued {} contact messages from {}", sequence, spillFile);
+        }
+    }
+
+    private ObjectNode record(Entry entry) {
+        ObjectNode record = objectMapper.createObjectNode();
+        record.put("seq", entry.sequence);
+        record.put("name", entry.name);
+        record.put("email", entry.email);
+        record.put("content", entry.content);
+        return record;
+    }
+
+    private void append(JsonNode record) {
+        try {
+            byte[] line = (objectMapper.writeValueAsString(record) + "\n").getBytes(StandardCharsets.UTF_8);
+            ByteBuffer buffer = ByteBuffer.wrap(line);
+            while (buffer.hasRemaining()) {
+                journal.write(buffer);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not write the contact spill file", e);
+        }
+    }
+
+    private void force() {
+        try {
+            journal.force(false);
+        } catch (ClosedChannelException e) {
+            // Compaction swapped the file; the new one was synced with everything still queued
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not sync the contact spill file", e);
+        }
+    }
+
+    private static String text(JsonNode record, String field) {
+        JsonNode value = record.get(field);
+        return value == null || value.isNull() ? null : value.asText();
+    }
+
+    private boolean sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+            return true;
+        } catch (InterruptedException e) {
+            return false;
+        }
+    }
+
+    public Map<String, Object> stats() {
+        long flushes = batches.sum();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("queueDepth", depth());
+        stats.put("capacity", capacity);
+        stats.put("accepted", accepted.sum());
+        stats.put("rejected", rejected.sum());
+        stats.put("written", written.sum());
+        stats.put("batches", flushes);
+        stats.put("failedBatches", failedBatches.sum());
+        stats.put("movedBatches", movedBatches.sum());
+        stats.put("droppedMessages", droppedMessages.sum());
+        stats.put("replayedOnStartup", replayed.sum());
+        stats.put("avgFlushMillis", flushes == 0 ? 0.0 : flushNanos.sum() / 1e6 / flushes);
+        stats.put("maxFlushMillis", maxFlushNanos.get() / 1e6);
+        return stats;
+    }
+
+    // Drains what it can in a few seconds; the rest is replayed from the spill file on the next start
+    @PreDestroy
+    public void shutdown() throws InterruptedException, IOException {
+        running = false;
+        if (worker != null) {
+            worker.join(TimeUnit.SECONDS.toMillis(5));
+            worker.interrupt();
+        }
+        journalLock.lock();
+        try {
+            if (journal != null) {
+                journal.close();
+            }
+            if (lockFile != null) {
+                lockFile.close();
+            }
+        } finally {
+            journalLock.unlock();
+        }
+    }
+
+    private static final class Entry {
+        final long sequence;
+        final String name;
+        final String email;
+        final String content;
+        final boolean moved;
+
+        Entry(long sequence, String name, String email, String content) {
+            this(sequence, name, email, content, false);
+        }
+
+        Entry(long sequence, String name, String email, String content, boolean moved) {
+            this.sequence = sequence;
+            this.name = name;
+            this.email = email;
+            this.content = content;
+            this.moved = moved;
+        }
+    }
+}
@@ -3,13 +3,18 @@ package com.Pharmacy.Pharmacy_website.service;
 import com.Pharmacy.Pharmacy_website.entity.Message;
 import com.Pharmacy.Pharmacy_website.repo.ContactRepo;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
 
 import java.util.List;
 
+@Service
 public class ContactService {
     @Autowired
     private ContactRepo contactRepo;
 
+    @Autowired
+    private ContactMessageQueue contactMessageQueue;
+
     public List<Message> getAllMessage() {
         return contactRepo.findAll();
     }
@@ -22,6 +27,11 @@ public class ContactService {
         contactRepo.save(Message);
     }
 
+    // Written to the database later, in a batch; false means the queue is full and the sender should retry
+    public boolean submitMessage(Message message) {
+        return contactMessageQueue.offer(message);
+    }
+
     public void updateMessage(Message Message) {
         contactRepo.findById(Message.getId()).orElseThrow(() -> new RuntimeException("Message with id " + Message.getId() + " not found"));
         contactRepo.save(Message);
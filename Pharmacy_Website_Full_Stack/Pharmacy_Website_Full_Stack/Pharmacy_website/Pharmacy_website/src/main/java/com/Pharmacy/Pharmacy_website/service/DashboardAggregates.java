@@ -0,0 +1,336 @@
+package com.Pharmacy.Pharmacy_website.service;
+
+import com.Pharmacy.Pharmacy_website.dto.DashboardSummary;
+import com.Pharmacy.Pharmacy_website.entity.Order;
+import com.Pharmacy.Pharmacy_website.entity.OrderItem;
+import com.Pharmacy.Pharmacy_website.entity.Products;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Running totals behind the admin dashboard. They are seeded once from
+ * GROUP BY queries and then moved by every committed order, cancellation
+ * and account change. Reading the dashboard costs the same whether there
+ * are a hundred orders or ten million.
+ */
+@Component
+public class DashboardAggregates {
+
+    private static final String ACTIVE = "(status is null or status <> 'CANCELLED')";
+    private static final int TOP_SELLERS = 10;
+    private static final int MAX_LOW_STOCK = 20;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ProductCatalogCache catalogCache;
+
+    @Value("${dashboard.low-stock-threshold:10}")
+    private int lowStockThreshold;
+
+    @Value("${dashboard.days:30}")
+    private int days;
+
+    // Seed and deltas bucket instants into days in this one zone
+    private final ZoneId zone = ZoneId.systemDefault();
+
+    // Deltas share the read lock; seeding takes the write lock so no delta lands mid-seed
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private volatile boolean loaded;
+    // Low stock only changes with the catalog or its stock, so it is rescanned once per pair of versions
+    private volatile StockView stockView;
+
+    private final LongAdder users = new LongAdder();
+    private final LongAdder admins = new LongAdder();
+    private final LongAdder orders = new LongAdder();
+    private final LongAdder cancelledOrders = new LongAdder();
+    private final LongAdder revenueCents = new LongAdder();
+    private final Map<LocalDate, DayTotals> perDay = new ConcurrentHashMap<>();
+    private final Map<Long, LongAdder> unitsSold = new ConcurrentHashMap<>();
+
+    public DashboardSummary summary() {
+        ensureLoaded();
+        LocalDate first = firstDay();
+        perDay.keySet().removeIf(day -> day.isBefore(first));
+        List<DashboardSummary.DayTotal> series = new ArrayList<>(days);
+        for (int i = 0; i < days; i++) {
+            LocalDate day = first.plusDays(i);
+            DayTotals totals = perDay.get(day);
+            series.add(new DashboardSummary.DayTotal(day,
+                    totals == null ? 0 : totals.orders.sum(),
+                    toMoney(totals == null ? 0 : totals.revenueCents.sum())));
+        }
+        StockView stock = stockView();
+        return new DashboardSummary(users.sum(), admins.sum(), stock.products,
+                orders.sum(), cancelledOrders.sum(), toMoney(revenueCents.sum()),
+                series, new ArrayList<>(stock.lowStock), topSellers());
+    }
+
+    // Captured while the order is still attached; applied only once the transaction commits
+    public void orderPlaced(Order order) {
+        OrderDelta delta = OrderDelta.of(order, zone);
+        afterCommit(() -> apply(delta, 1, 0));
+    }
+
+    public void orderCancelled(Order order) {
+        OrderDelta delta = OrderDelta.of(order, zone);
+        afterCommit(() -> apply(delta, -1, 1));
+    }
+
+    public void userAdded() { adjust(users, 1); }
+    public void userRemoved() { adjust(users, -1); }
+    public void adminAdded() { adjust(admins, 1); }
+    public void adminRemoved() { adjust(admins, -1); }
+
+    // Arbitrary admin edits and deletes are rare; the next dashboard read re-seeds from the database
+    public void invalidate() {
+        lock.writeLock().lock();
+        try {
+            loaded = false;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void adjust(LongAdder counter, int delta) {
+        afterCommit(() -> {
+            lock.readLock().lock();
+            try {
+                // Before seeding nothing is tracked; the seed queries will count this change
+                if (loaded) {
+                    counter.add(delta);
+                }
+            } finally {
+                lock.readLock().unlock();
+            }
+        });
+    }
+
+    private void apply(OrderDelta delta, int sign, int cancelled) {
+        lock.readLock().lock();
+        try {
+            if (!loaded) {
+                return;
+            }
+            orders.add(sign);
+            cancelledOrders.add(cancelled);
+            revenueCents.add(sign * delta.amountCents);
+            // Days that have left the reporting window are no longer kept
+            if (delta.day != null && !delta.day.isBefore(firstDay())) {
+                DayTotals totals = perDay.computeIfAbsent(delta.day, d -> new DayTotals());
+                totals.orders.add(sign);
+                totals.revenueCents.add(sign * delta.amountCents);
+            }
+            for (Map.Entry<Long, Integer> units : delta.units.entrySet()) {
+                unitsSold.computeIfAbsent(units.getKey(), id -> new LongAdder()).add((long) sign * units.getValue());
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void ensureLoaded() {
+        if (loaded) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            if (!loaded) {
+                seed();
+                loaded = true;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void seed() {
+        users.reset();
+        admins.reset();
+        orders.reset();
+        cancelledOrders.reset();
+        revenueCents.reset();
+        perDay.clear();
+        unitsSold.clear();
+
+        users.add(count("select count(*) from users"));
+        admins.add(count("select count(*) from admins"));
+        cancelledOrders.add(count("select count(*) from orders where status = 'CANCELLED'"));
+        jdbcTemplate.query("select count(*) as order_count, coalesce(sum(amount), 0) as total_amount from orders where "
+                + ACTIVE, rs -> {
+            orders.add(rs.getLong("order_count"));
+            revenueCents.add(toCents(rs.getBigDecimal("total_amount")));
+        });
+        // Only the window's orders, bucketed here rather than by the database's own idea of a day
+        Timestamp windowStart = Timestamp.from(firstDay().atStartOfDay(zone).toInstant());
+        jdbcTemplate.query("select date, amount from orders where date >= ? and " + ACTIVE, rs -> {
+            LocalDate day = rs.getTimestamp("date").toInstant().atZone(zone).toLocalDate();
+            DayTotals totals = perDay.computeIfAbsent(day, d -> new DayTotals());
+            totals.orders.increment();
+            totals.revenueCents.add(toCents(rs.getBigDecimal("amount")));
+        }, windowStart);
+        // Single-product orders carry the product on the order row, cart orders on their items
+        jdbcTemplate.query("select productID, sum(quantity) as units from orders where productID is not null and "
+                + ACTIVE + " group by productID", rs -> {
+            unitsSold.computeIfAbsent(rs.getLong("productID"), id -> new LongAdder()).add(rs.getLong("units"));
+        });
+        jdbcTemplate.query("select i.productID, sum(i.quantity) as units from order_items i join orders o on o.id = i.orderID "
+                + "where (o.status is null or o.status <> 'CANCELLED') group by i.productID", rs -> {
+            unitsSold.computeIfAbsent(rs.getLong("productID"), id -> new LongAdder()).add(rs.getLong("units"));
+        });
+    }
+
+    private LocalDate firstDay() {
+        return LocalDate.now(zone).minusDays(days - 1);
+    }
+
+    private long count(String sql) {
+        Long value = jdbcTemplate.queryForObject(sql, Long.class);
+        return value == null ? 0 : value;
+    }
+
+    // The versions are read before the scan, so a change made during the scan forces another one
+    private StockView stockView() {
+        long version = catalogCache.version();
+        long stockVersion = catalogCache.stockVersion();
+        StockView view = stockView;
+        if (view != null && view.version == version && view.stockVersion == stockVersion) {
+            return view;
+        }
+        List<Products> all = catalogCache.view();
+        List<DashboardSummary.StockAlert> alerts = new ArrayList<>();
+        for (Products product : all) {
+            int stock = catalogCache.stock(product);
+            if (stock <= lowStockThreshold) {
+                alerts.add(new DashboardSummary.StockAlert(product.getId(), product.getName(), stock));
+            }
+        }
+        alerts.sort(Comparator.comparingInt(DashboardSummary.StockAlert::getStock));
+        view = new StockView(version, stockVersion, all.size(),
+                alerts.size() > MAX_LOW_STOCK ? new ArrayList<>(alerts.subList(0, MAX_LOW_STOCK)) : alerts);
+        stockView = view;
+        return view;
+    }
+
+    private List<DashboardSummary.TopSeller> topSellers() {
+        PriorityQueue<Map.Entry<Long, Long>> top = new PriorityQueue<>(Map.Entry.comparingByValue());
+        for (Map.Entry<Long, LongAdder> entry : unitsSold.entrySet()) {
+            long units = entry.getValue().sum();
+            if (units <= 0) {
+                continue;
+            }
+            top.add(Map.entry(entry.getKey(), units));
+            if (top.size() > TOP_SELLERS) {
+                top.poll();
+            }
+        }
+        List<DashboardSummary.TopSeller> sellers = new ArrayList<>(top.size());
+        while (!top.isEmpty()) {
+            Map.Entry<Long, Long> entry = top.poll();
+            Products product = catalogCache.getById(entry.getKey());
+            sellers.add(0, new DashboardSummary.TopSeller(entry.getKey(),
+                    product == null ? null : product.getName(), entry.getValue()));
+        }
+        return sellers;
+    }
+
+    private static long toCents(BigDecimal amount) {
+        return amount == null ? 0 : amount.movePointRight(2).longValue();
+    }
+
+    private static BigDecimal toMoney(long cents) {
+        return BigDecimal.valueOf(cents, 2);
+    }
+
+    // The read lock is held from just before the commit until the delta is applied. A seed
+    // therefore never sees a commit whose delta is still to come, which would count it twice
+    private void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            private boolean held;
+
+            @Override
+            public void beforeCommit(boolean readOnly) {
+                lock.readLock().lock();
+                held = true;
+            }
+
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                if (held) {
+                    held = false;
+                    lock.readLock().unlock();
+                }
+            }
+        });
+    }
+
+    private static final class DayTotals {
+        final LongAdder orders = new LongAdder();
+        final LongAdder revenueCents = new LongAdder();
+    }
+
+    private static final class StockView {
+        final long version;
+        final long stockVersion;
+        final int products;
+        final List<DashboardSummary.StockAlert> lowStock;
+
+        StockView(long version, long stockVersion, int products, List<DashboardSummary.StockAlert> lowStock) {
+            this.version = version;
+            this.stockVersion = stockVersion;
+            this.products = products;
+            this.lowStock = lowStock;
+        }
+    }
+
+    private static final class OrderDelta {
+        final LocalDate day;
+        final long amountCents;
+        final Map<Long, Integer> units = new HashMap<>();
+
+        private OrderDelta(LocalDate day, long amountCents) {
+            this.day = day;
+            this.amountCents = amountCents;
+        }
+
+        static OrderDelta of(Order order, ZoneId zone) {
+            LocalDate day = order.getDate() == null ? null : order.getDate().toInstant().atZone(zone).toLocalDate();
+            OrderDelta delta = new OrderDelta(day, toCents(order.getAmount()));
+            if (order.getProduct() != null) {
+                delta.units.merge(order.getProduct().getId(), order.getQuantity(), Integer::sum);
+            }
+            for (OrderItem item : order.getItems()) {
+                delta.units.merge(item.getProduct().getId(), item.getQuantity(), Integer::sum);
+            }
+            return delta;
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.Pharmacy.Pharmacy_website.service;
+
+import com.Pharmacy.Pharmacy_website.repo.ProductRepo;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+@Service
+public class InventoryService {
+
+    @Autowired
+    private ProductRepo productRepo;
+
+    @Autowired
+    private ProductCatalogCache catalogCache;
+
+    private final LongAdder reserved = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder released = new LongAdder();
+
+    @Transactional
+    public void reserve(Long productId, int quantity) {
+        if (quantity <= 0) {
+            throw new IllegalArgumentException("Quantity must be greater than zero");
+        }
+        if (productRepo.decrementStock(productId, quantity) == 0) {
+            rejected.increment();
+            throw new OutOfStockException(productId, quantity);
+        }
+        reserved.increment();
+        afterCommit(() -> catalogCache.adjustStock(productId, -quantity));
+    }
+
+    @Transactional
+    public void release(Long productId, int quantity) {
+        if (quantity <= 0) {
+            return;
+        }
+        if (productRepo.incrementStock(productId, quantity) > 0) {
+            released.increment();
+            afterCommit(() -> catalogCache.adjustStock(productId, quantity));
+        }
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("reserved", reserved.sum());
+        stats.put("rejected", rejected.sum());
+        stats.put("released", released.sum());
+        return stats;
+    }
+
+    // The cache must only reflect stock that actually committed
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
@@ -0,0 +1,295 @@
+package com.Pharmacy.Pharmacy_website.service;
+
+import com.Pharmacy.Pharmacy_website.config.BackgroundThreads;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.mail.MessagingException;
+import jakarta.mail.internet.MimeMessage;
+import org.eclipse.angus.mail.smtp.SMTPAddressFailedException;
+import org.eclipse.angus.mail.smtp.SMTPSendFailedException;
+import org.eclipse.angus.mail.smtp.SMTPSenderFailedException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.MimeMessageHelper;
+import org.springframework.stereotype.Service;
+import org.thymeleaf.context.Context;
+import org.thymeleaf.spring6.SpringTemplateEngine;
+import org.thymeleaf.templatemode.TemplateMode;
+import org.thymeleaf.templateresolver.ClassLoaderTemplateResolver;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Sends outbound mail off the request path. Callers enqueue a template name and
+ * its model and return at once; a small pool of workers drains the queue, renders
+ * each mail from templates parsed once and cached, and sends everything it drained
+ * over a single SMTP connection. Mails the server refuses for now (a 4xx reply,
+ * or no connection at all) are retried with exponential backoff and abandoned
+ * after the last attempt; a permanent 5xx refusal is abandoned at once. When the
+ * queue is full new mail is dropped rather than slowing the caller down.
+ */
+@Service
+public class MailDispatcher {
+
+    private static final Logger logger = LoggerFactory.getLogger(MailDispatcher.class);
+    private static final long MAX_RETRY_BACKOFF_MILLIS = TimeUnit.MINUTES.toMillis(5);
+
+    private final BackgroundThreads backgroundThreads;
+    private final JavaMailSender mailSender;
+    private final String from;
+    private final int threads;
+    private final int batchSize;
+    private final int maxAttempts;
+    private final long retryBackoffMillis;
+    private final BlockingQueue<OutgoingMail> queue;
+    private final SpringTemplateEngine templateEngine = createTemplateEngine();
+    private final ScheduledExecutorService retries;
+    private final List<Thread> workers = new ArrayList<>();
+    private volatile boolean running;
+
+    private final LongAdder enqueued = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder sent = new LongAdder();
+    private final LongAdder sessions = new LongAdder();
+    private final LongAdder failedAttempts = new LongAdder();
+    private final LongAdder retried = new LongAdder();
+    private final LongAdder abandoned = new LongAdder();
+    private final LongAdder sessionNanos = new LongAdder();
+    private final AtomicLong pendingRetries = new AtomicLong();
+
+    @Autowired
+    public MailDispatcher(BackgroundThreads backgroundThreads, JavaMailSender mailSender,
+                          @Value("${notifications.mail.from:orders@pharmacy.local}") String from,
+                          @Value("${mail.dispatch.threads:2}") int threads,
+                          @Value("${mail.dispatch.queue-capacity:10000}") int queueCapacity,
+                          @Value("${mail.dispatch.batch-size:50}") int batchSize,
+                          @Value("${mail.dispatch.max-attempts:5}") int maxAttempts,
+                          @Value("${mail.dispatch.retry-backoff-ms:1000}") long retryBackoffMillis) {
+        this.backgroundThreads = backgroundThreads;
+        this.mailSender = mailSender;
+        this.from = from;
+        this.threads = threads;
+        this.batchSize = batchSize;
+        this.maxAttempts = maxAttempts;
+        this.retryBackoffMillis = retryBackoffMillis;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.retries = Executors.newSingleThreadScheduledExecutor(backgroundThreads.factory("mail-retry"));
+    }
+
+    // Text templates under classpath:mail/, parsed on first use and kept; the first line is the subject
+    private static SpringTemplateEngine createTemplateEngine() {
+        ClassLoaderTemplateResolver resolver = new ClassLoaderTemplateResolver();
+        resolver.setPrefix("mail/");
+        resolver.setSuffix(".txt");
+        resolver.setTemplateMode(TemplateMode.TEXT);
+        resolver.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        resolver.setCacheable(true);
+        SpringTemplateEngine engine = new SpringTemplateEngine();
+        engine.setTemplateResolver(resolver);
+        return engine;
+    }
+
+    @PostConstruct
+    public void start() {
+        running = true;
+        ThreadFactory factory = backgroundThreads.factory("mail-sender");
+        for (int i = 1; i <= threads; i++) {
+            Thread worker = factory.newThread(this::drain);
+            worker.start();
+            workers.add(worker);
+        }
+    }
+
+    // Never blocks; false when the queue is full and the mail was dropped
+    public boolean enqueue(String to, String template, Map<String, Object> model) {
+        if (!queue.offer(new OutgoingMail(to, template, model))) {
+            dropped.increment();
+            logger.warn("Mail queue is full, dropped {} for {}", template, to);
+            return false;
+        }
+        enqueued.increment();
+        return true;
+    }
+
+    private void drain() {
+        List<OutgoingMail> batch = new ArrayList<>(batchSize);
+        while (running) {
+            try {
+                OutgoingMail first = queue.poll(200, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                send(batch);
+            } catch (InterruptedException e) {
+                return;
+            } catch (RuntimeException e) {
+                logger.error("Mail worker failed on a batch of {}", batch.size(), e);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void send(List<OutgoingMail> batch) {
+        // MimeMessage keeps identity equality, so this keys by instance and keeps the queue order
+        Map<MimeMessage, OutgoingMail> messages = new LinkedHashMap<>();
+        for (OutgoingMail mail : batch) {
+            try {
+                messages.put(render(mail), mail);
+            } catch (MessagingException | RuntimeException e) {
+                // A template or address problem will not fix itself
+                abandoned.increment();
+                logger.warn("Could not build {} for {}", mail.template, mail.to, e);
+            }
+        }
+        if (messages.isEmpty()) {
+            return;
+        }
+        long started = System.nanoTime();
+        try {
+            // JavaMailSenderImpl sends the whole array over one connection
+            mailSender.send(messages.keySet().toArray(new MimeMessage[0]));
+            sent.add(messages.size());
+        } catch (MailSendException e) {
+            Map<Object, Exception> failed = e.getFailedMessages();
+            if (failed.isEmpty()) {
+                retryAll(messages.values(), e);
+                return;
+            }
+            // The rest of the batch was accepted by the server
+            sent.add(messages.size() - failed.size());
+            for (Map.Entry<Object, Exception> failure : failed.entrySet()) {
+                OutgoingMail mail = messages.get(failure.getKey());
+                if (mail != null) {
+                    retry(mail, failure.getValue());
+                }
+            }
+        } catch (MailException e) {
+            // Connection or authentication failure: nothing in the batch went out
+            retryAll(messages.values(), e);
+        } finally {
+            sessions.increment();
+            sessionNanos.add(System.nanoTime() - started);
+        }
+    }
+
+    private MimeMessage render(OutgoingMail mail) throws MessagingException {
+        String text = templateEngine.process(mail.template, new Context(Locale.ROOT, mail.model));
+        int newline = text.indexOf('\n');
+        MimeMessage message = mailSender.createMimeMessage();
+        MimeMessageHelper helper = new MimeMessageHelper(message, StandardCharsets.UTF_8.name());
+        helper.setFrom(from);
+        helper.setTo(mail.to);
+        helper.setSubject(newline < 0 ? text.trim() : text.substring(0, newline).trim());
+        helper.setText(newline < 0 ? "" : text.substring(newline + 1));
+        return message;
+    }
+
+    private void retryAll(Iterable<OutgoingMail> mails, Exception cause) {
+        for (OutgoingMail mail : mails) {
+            retry(mail, cause);
+        }
+    }
+
+    private void retry(OutgoingMail mail, Exception cause) {
+        failedAttempts.increment();
+        mail.attempts++;
+        if (isPermanent(cause)) {
+            abandoned.increment();
+            logger.warn("Giving up on {} for {}, refused permanently", mail.template, mail.to, cause);
+            return;
+        }
+        if (mail.attempts >= maxAttempts) {
+            abandoned.increment();
+            logger.warn("Giving up on {} for {} after {} attempts", mail.template, mail.to, mail.attempts, cause);
+            return;
+        }
+        long delay = Math.min(retryBackoffMillis << (mail.attempts - 1), MAX_RETRY_BACKOFF_MILLIS);
+        logger.debug("Retrying {} for {} in {} ms: {}", mail.template, mail.to, delay, cause.getMessage());
+        pendingRetries.incrementAndGet();
+        retries.schedule(() -> {
+            pendingRetries.decrementAndGet();
+            retried.increment();
+            if (!queue.offer(mail)) {
+                dropped.increment();
+            }
+        }, delay, TimeUnit.MILLISECONDS);
+    }
+
+    // A 5xx reply will be the same next time (RFC 5321 4.2.1); the reply code may be nested a few causes deep
+    static boolean isPermanent(Throwable failure) {
+        for (Throwable cause = failure; cause != null; cause = cause.getCause()) {
+            int code = -1;
+            if (cause instanceof SMTPSendFailedException sendFailed) {
+                code = sendFailed.getReturnCode();
+            } else if (cause instanceof SMTPAddressFailedException addressFailed) {
+                code = addressFailed.getReturnCode();
+            } else if (cause instanceof SMTPSenderFailedException senderFailed) {
+                code = senderFailed.getReturnCode();
+            }
+            if (code > 0) {
+                return code >= 500;
+            }
+        }
+        return false;
+    }
+
+    public Map<String, Object> stats() {
+        long connections = sessions.sum();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("queueDepth", queue.size());
+        stats.put("pendingRetries", pendingRetries.get());
+        stats.put("enqueued", enqueued.sum());
+        stats.put("sent", sent.sum());
+        stats.put("smtpSessions", connections);
+        stats.put("failedAttempts", failedAttempts.sum());
+        stats.put("retried", retried.sum());
+        stats.put("abandoned", abandoned.sum());
+        stats.put("dropped", dropped.sum());
+        stats.put("cachedTemplates", templateEngine.getConfiguration().getCacheManager().getTemplateCache().keySet().size());
+        stats.put("avgSessionMillis", connections == 0 ? 0.0 : sessionNanos.sum() / 1e6 / connections);
+        return stats;
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        running = false;
+        retries.shutdownNow();
+        for (Thread worker : workers) {
+            worker.join(TimeUnit.SECONDS.toMillis(5));
+        }
+    }
+
+    private static final class OutgoingMail {
+        final String to;
+        final String template;
+        final Map<String, Object> model;
+        int attempts;
+
+        OutgoingMail(String to, String template, Map<String, Object> model) {
+            this.to = to;
+            this.template = template;
+            this.model = model;
+        }
+    }
+}
@@ -0,0 +1,232 @@
+package com.Pharmacy.Pharmacy_website.service;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.jdbc.support.MetaDataAccessException;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Streams orders for reporting straight from a forward-only JDBC result set to
+ * the response. Rows are never mapped to entities or collected, so memory stays
+ * flat whatever the date range.
+ */
+@Service
+public class OrderExportService {
+
+    public enum Format { CSV, NDJSON }
+
+    private static final String[] COLUMNS = {
+            "id", "date", "status", "user_id", "user_email", "product_id", "quantity", "price", "amount", "lines"};
+    private static final DateTimeFormatter TIMESTAMP = DateTimeFormatter.ISO_LOCAL_DATE_TIME;
+    private static final int FLUSH_EVERY = 10_000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final JsonFactory jsonFactory = new JsonFactory();
+
+    @Autowired
+    public OrderExportService(DataSource dataSource, @Value("${export.fetch-size:1000}") int fetchSize) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        // MySQL only streams with Integer.MIN_VALUE; any other value makes Connector/J buffer the whole result
+        this.jdbcTemplate.setFetchSize(isMySql(dataSource) ? Integer.MIN_VALUE : fetchSize);
+    }
+
+    private static boolean isMySql(DataSource dataSource) {
+        try {
+            String product = JdbcUtils.extractDatabaseMetaData(dataSource, DatabaseMetaData::getDatabaseProductName);
+            return product != null && product.toLowerCase(Locale.ROOT).contains("mysql");
+        } catch (MetaDataAccessException e) {
+            return false;
+        }
+    }
+
+    // from is inclusive, to is inclusive of the whole day; either may be null
+    public long export(Format format, LocalDate from, LocalDate to, OutputStream out) throws IOException {
+        StringBuilder sql = new StringBuilder("select o.id, o.date, o.status, o.userID, u.email, o.productID, "
+                + "o.quantity, o.price, o.amount, coalesce(l.line_count, 0) as line_count "
+                + "from orders o left join users u on u.id = o.userID "
+                + "left join (select orderID, count(*) as line_count from order_items group by orderID) l "
+                + "on l.orderID = o.id where 1 = 1");
+        List<Object> args = new ArrayList<>(2);
+        if (from != null) {
+            sql.append(" and o.date >= ?");
+            args.add(Timestamp.valueOf(from.atStartOfDay()));
+        }
+        if (to != null) {
+            sql.append(" and o.date < ?");
+            args.add(Timestamp.valueOf(to.plusDays(1).atStartOfDay()));
+        }
+        sql.append(" order by o.id");
+
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 64 * 1024);
+        RowWriter rows = format == Format.NDJSON ? new NdjsonRowWriter(writer) : new CsvRowWriter(writer);
+        long[] count = {0};
+        try {
+            jdbcTemplate.query(sql.toString(), rs -> {
+                try {
+                    rows.write(rs);
+                    if (++count[0] % FLUSH_EVERY == 0) {
+                        // Push bytes to the client as we go instead of holding them in the buffer
+                        rows.flush();
+                        writer.flush();
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }, args.toArray());
+        } catch (UncheckedIOException e) {
+            // Usually the client went away; stop reading rows
+            throw e.getCause();
+        }
+        rows.flush();
+        writer.flush();
+        return count[0];
+    }
+
+    private interface RowWriter {
+        void write(ResultSet rs) throws SQLException, IOException;
+
+        default void flush() throws IOException {}
+    }
+
+    private static final class CsvRowWriter implements RowWriter {
+        private final Writer writer;
+
+        CsvRowWriter(Writer writer) throws IOException {
+            this.writer = writer;
+            writer.write(String.join(",", COLUMNS));
+            writer.write('\n');
+        }
+
+        @Override
+        public void write(ResultSet rs) throws SQLException, IOException {
+            writer.write(Long.toString(rs.getLong(1)));
+            writer.write(',');
+            writer.write(timestamp(rs.getTimestamp(2)));
+            writer.write(',');
+            text(rs.getString(3));
+            writer.write(',');
+            writer.write(nullable(rs, 4));
+            writer.write(',');
+            text(rs.getString(5));
+            writer.write(',');
+            writer.write(nullable(rs, 6));
+            writer.write(',');
+            writer.write(Integer.toString(rs.getInt(7)));
+            writer.write(',');
+            writer.write(money(rs.getBigDecimal(8)));
+            writer.write(',');
+            writer.write(money(rs.getBigDecimal(9)));
+            writer.write(',');
+            writer.write(Long.toString(rs.getLong(10)));
+            writer.write('\n');
+        }
+
+        // Quoted only when needed, with embedded quotes doubled (RFC 4180). A leading ' stops
+        // spreadsheets from running a value such as =HYPERLINK(...) as a formula, including one
+        // behind a tab or carriage return that the spreadsheet would strip first
+        private void text(String value) throws IOException {
+            if (value == null) {
+                return;
+            }
+            if (!value.isEmpty() && "=+-@\t\r".indexOf(value.charAt(0)) >= 0) {
+                value = "'" + value;
+            }
+            if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+                writer.write(value);
+                return;
+            }
+            writer.write('"');
+            writer.write(value.replace("\"", "\"\""));
+            writer.write('"');
+        }
+
+        private static String nullable(ResultSet rs, int column) throws SQLException {
+            long value = rs.getLong(column);
+            return rs.wasNull() ? "" : Long.toString(value);
+        }
+    }
+
+    private final class NdjsonRowWriter implements RowWriter {
+        private final JsonGenerator json;
+
+        NdjsonRowWriter(Writer writer) throws IOException {
+            this.json = jsonFactory.createGenerator(writer);
+            // The generator must not close or flush the servlet stream behind our back
+            json.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            json.disable(JsonGenerator.Feature.FLUSH_PASSED_TO_STREAM);
+            // Records are separated by our newline, not Jackson's default space
+            json.setRootValueSeparator(null);
+        }
+
+        @Override
+        public void write(ResultSet rs) throws SQLException, IOException {
+            json.writeStartObject();
+            json.writeNumberField(COLUMNS[0], rs.getLong(1));
+            Timestamp date = rs.getTimestamp(2);
+            json.writeStringField(COLUMNS[1], date == null ? null : timestamp(date));
+            json.writeStringField(COLUMNS[2], rs.getString(3));
+            writeNullableLong(COLUMNS[3], rs, 4);
+            json.writeStringField(COLUMNS[4], rs.getString(5));
+            writeNullableLong(COLUMNS[5], rs, 6);
+            json.writeNumberField(COLUMNS[6], rs.getInt(7));
+            writeMoney(COLUMNS[7], rs.getBigDecimal(8));
+            writeMoney(COLUMNS[8], rs.getBigDecimal(9));
+            json.writeNumberField(COLUMNS[9], rs.getLong(10));
+            json.writeEndObject();
+            json.writeRaw('\n');
+        }
+
+        @Override
+        public void flush() throws IOException {
+            json.flush();
+        }
+
+        private void writeNullableLong(String field, ResultSet rs, int column) throws SQLException, IOException {
+            long value = rs.getLong(column);
+            if (rs.wasNull()) {
+                json.writeNullField(field);
+            } else {
+                json.writeNumberField(field, value);
+            }
+        }
+
+        private void writeMoney(String field, BigDecimal value) throws IOException {
+            if (value == null) {
+                json.writeNullField(field);
+            } else {
+                json.writeNumberField(field, value);
+            }
+        }
+    }
+
+    private static String timestamp(Timestamp value) {
+        return value == null ? "" : value.toLocalDateTime().format(TIMESTAMP);
+    }
+
+    private static String money(BigDecimal value) {
+        return value == null ? "" : value.toPlainString();
+    }
+}
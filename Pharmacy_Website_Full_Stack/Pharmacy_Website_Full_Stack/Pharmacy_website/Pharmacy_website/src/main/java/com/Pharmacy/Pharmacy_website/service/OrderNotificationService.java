@@ -0,0 +1,74 @@
+package com.Pharmacy.Pharmacy_website.service;
+
+import com.Pharmacy.Pharmacy_website.entity.Order;
+import com.Pharmacy.Pharmacy_website.entity.OrderItem;
+import com.Pharmacy.Pharmacy_website.entity.User;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Order confirmation mail. Checkout only copies what the mail needs; rendering and SMTP happen in MailDispatcher.
+@Service
+public class OrderNotificationService {
+
+    static final String ORDER_CONFIRMATION = "order-confirmation";
+
+    @Autowired
+    private MailDispatcher mailDispatcher;
+
+    @Value("${notifications.mail.enabled:true}")
+    private boolean enabled;
+
+    // Captured while the order is still attached; queued only once the transaction commits
+    public void orderPlaced(Order order) {
+        User user = order.getUser();
+        if (!enabled || user == null || user.getEmail() == null || user.getEmail().isBlank()) {
+            return;
+        }
+        String to = user.getEmail();
+        Map<String, Object> model = confirmationModel(order, user);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    mailDispatcher.enqueue(to, ORDER_CONFIRMATION, model);
+                }
+            });
+        } else {
+            mailDispatcher.enqueue(to, ORDER_CONFIRMATION, model);
+        }
+    }
+
+    private static Map<String, Object> confirmationModel(Order order, User user) {
+        List<Map<String, Object>> lines = new ArrayList<>();
+        if (order.getProduct() != null) {
+            lines.add(line(order.getProduct().getName(), order.getQuantity(), order.getAmount()));
+        }
+        for (OrderItem item : order.getItems()) {
+            lines.add(line(item.getProduct().getName(), item.getQuantity(), item.getAmount()));
+        }
+        Map<String, Object> model = new HashMap<>();
+        model.put("orderId", order.getId());
+        model.put("customerName", user.getName() == null ? "customer" : user.getName());
+        model.put("date", order.getDate());
+        model.put("lines", lines);
+        model.put("total", order.getAmount());
+        return model;
+    }
+
+    private static Map<String, Object> line(String name, int quantity, BigDecimal amount) {
+        Map<String, Object> line = new HashMap<>();
+        line.put("name", name);
+        line.put("quantity", quantity);
+        line.put("amount", amount);
+        return line;
+    }
+}
@@ -1,44 +1,246 @@
 package com.Pharmacy.Pharmacy_website.service;
 
+import com.Pharmacy.Pharmacy_website.dto.CartItemRequest;
+import com.Pharmacy.Pharmacy_website.dto.CursorPageResponse;
+import com.Pharmacy.Pharmacy_website.dto.OrderSummary;
 import com.Pharmacy.Pharmacy_website.entity.Order;
+import com.Pharmacy.Pharmacy_website.entity.OrderItem;
+import com.Pharmacy.Pharmacy_website.entity.OrderStatus;
+import com.Pharmacy.Pharmacy_website.entity.Products;
 import com.Pharmacy.Pharmacy_website.entity.User;
 import com.Pharmacy.Pharmacy_website.repo.OrderRepo;
 import com.Pharmacy.Pharmacy_website.repo.UserRepo;
+import io.micrometer.core.annotation.Timed;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Date;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
 
 @Service
+@Timed(value = "pharmacy.service", histogram = true)
 public class OrderService {
 
+    private static final Sort NEWEST_FIRST = Sort.by(Sort.Order.desc("date"), Sort.Order.desc("id"));
+
     @Autowired
     private OrderRepo orderRepo;
 
+    @Autowired
+    private InventoryService inventoryService;
+
+    @Autowired
+    private ProductCatalogCache catalogCache;
+
+    @Autowired
+    private PriceTable priceTable;
+
+    @Autowired
+    private DashboardAggregates dashboardAggregates;
+
+    @Autowired
+    private OrderNotificationService orderNotificationService;
+
     public List<Order> getAllOrder() {
         return orderRepo.findAll();
     }
 
+    // Newest first, with buyer, product and lines loaded, for pages that render the entities
+    @Transactional(readOnly = true)
+    public Page<Order> getOrderPage(int page, int size) {
+        Page<Order> orders = orderRepo.findAllBy(PageRequest.of(page, size, NEWEST_FIRST));
+        if (orders.hasContent()) {
+            orderRepo.fetchItems(orders.getContent());
+        }
+        return orders;
+    }
+
+    // Newest first, as flat read-only rows for the admin API
+    public Page<OrderSummary> getOrderSummaryPage(int page, int size) {
+        return orderRepo.findSummaries(PageRequest.of(page, size, NEWEST_FIRST));
+    }
+
     public Order getOrderById(Long id) {
         return orderRepo.findById(id).orElseThrow(() -> new RuntimeException("Order with id " + id + " not found"));
     }
 
+    public Optional<Order> findOrderById(Long id) {
+        return orderRepo.findById(id);
+    }
+
     public void createOrder(Order Order) {
         orderRepo.save(Order);
+        dashboardAggregates.invalidate();
+    }
+
+    // Stock is reserved in the same transaction as the insert, so a failed save gives it back
+    @Transactional
+    public Order placeOrder(Order order) {
+        if (order.getProduct() != null) {
+            // Never trust a client-submitted price
+            PriceTable.Snapshot prices = priceTable.snapshot();
+            order.setPrice(prices.priceOf(order.getProduct().getId()));
+            order.setAmount(prices.amountOf(order.getProduct().getId(), order.getQuantity()));
+            inventoryService.reserve(order.getProduct().getId(), order.getQuantity());
+        }
+        order.setStatus(OrderStatus.PLACED);
+        Order saved = orderRepo.save(order);
+        dashboardAggregates.orderPlaced(saved);
+        orderNotificationService.orderPlaced(saved);
+        return saved;
+    }
+
+    // One transaction for the whole cart: every line reserves stock or the order is not created.
+    // Lines are inserted together through JDBC batching once the order is flushed.
+    @Transactional
+    public Order placeCartOrder(User user, List<CartItemRequest> cart) {
+        if (cart == null || cart.isEmpty()) {
+            throw new IllegalArgumentException("Cart is empty");
+        }
+        // Merge repeated products and reserve in id order so concurrent carts lock rows in the same order
+        Map<Long, Integer> quantities = new TreeMap<>();
+        for (CartItemRequest line : cart) {
+            if (line.getProductId() == null) {
+                throw new IllegalArgumentException("Product id is required");
+            }
+            if (line.getQuantity() <= 0) {
+                throw new IllegalArgumentException("Quantity must be greater than zero");
+            }
+            quantities.merge(line.getProductId(), line.getQuantity(), Integer::sum);
+        }
+
+        // Every line is priced from the same snapshot, whatever price updates land meanwhile
+        PriceTable.Snapshot prices = priceTable.snapshot();
+        Order order = new Order();
+        order.setUser(user);
+        order.setDate(new Date());
+        int totalQuantity = 0;
+        BigDecimal totalAmount = BigDecimal.ZERO;
+        for (Map.Entry<Long, Integer> line : quantities.entrySet()) {
+            Products product = catalogCache.getById(line.getKey());
+            if (product == null) {
+                throw new IllegalArgumentException("Product with id " + line.getKey() + " not found");
+            }
+            BigDecimal price = prices.priceOf(product.getId());
+            inventoryService.reserve(product.getId(), line.getValue());
+
+            OrderItem item = new OrderItem();
+            item.setProduct(product);
+            item.setQuantity(line.getValue());
+            item.setPrice(price);
+            item.setAmount(price.multiply(BigDecimal.valueOf(line.getValue())));
+            order.addItem(item);
+            totalQuantity += item.getQuantity();
+            totalAmount = totalAmount.add(item.getAmount());
+        }
+        order.setQuantity(totalQuantity);
+        order.setAmount(totalAmount);
+        order.setStatus(OrderStatus.PLACED);
+        Order saved = orderRepo.save(order);
+        dashboardAggregates.orderPlaced(saved);
+        orderNotificationService.orderPlaced(saved);
+        return saved;
+    }
+
+    @Transactional
+    public Order cancelOrder(Long id) {
+        Order order = getOrderById(id);
+        if (orderRepo.markCancelled(id) == 0) {
+            // Already cancelled, possibly by a concurrent request that released the stock itself
+            order.setStatus(OrderStatus.CANCELLED);
+            return order;
+        }
+        if (order.getProduct() != null) {
+            inventoryService.release(order.getProduct().getId(), order.getQuantity());
+        }
+        for (OrderItem item : order.getItems()) {
+            inventoryService.release(item.getProduct().getId(), item.getQuantity());
+        }
+        dashboardAggregates.orderCancelled(order);
+        order.setStatus(OrderStatus.CANCELLED);
+        return order;
     }
 
     public void updateOrder(Order Order) {
         orderRepo.findById(Order.getId()).orElseThrow(() -> new RuntimeException("Order with id " + Order.getId() + " not found"));
         orderRepo.save(Order);
+        dashboardAggregates.invalidate();
     }
 
     public void deleteOrder(Long id) {
         orderRepo.findById(id).orElseThrow(() -> new RuntimeException("Order with id " + id + " not found"));
         orderRepo.deleteById(id);
+        dashboardAggregates.invalidate();
     }
 
     public List<Order> findOrdersByUser(User user) {
         return orderRepo.findByUser(user);
     }
 
+    // Newest first by keyset on (date, id), straight from the user id; each page costs the same however long the history.
+    // The page where dated orders run out costs one more query for the undated tail.
+    public CursorPageResponse<OrderSummary> getOrderHistory(Long userId, String cursor, int size) {
+        Limit limit = Limit.of(size + 1);
+        List<OrderSummary> rows;
+        Long undatedBefore = Long.MAX_VALUE;
+        if (cursor == null || cursor.isEmpty()) {
+            rows = orderRepo.findHistory(userId, limit);
+        } else {
+            Object[] after = decodeHistoryCursor(cursor);
+            if (after[0] == null) {
+                rows = List.of();
+                undatedBefore = (Long) after[1];
+            } else {
+                rows = orderRepo.findHistoryBefore(userId, (Date) after[0], (Long) after[1], limit);
+            }
+        }
+        // Dated orders ran out on this page: fill it from the undated tail
+        if (rows.size() <= size) {
+            List<OrderSummary> undated = orderRepo.findUndatedHistoryBefore(userId, undatedBefore,
+                    Limit.of(size + 1 - rows.size()));
+            if (!undated.isEmpty()) {
+                rows = new ArrayList<>(rows);
+                rows.addAll(undated);
+            }
+        }
+        // One extra row tells whether an older page exists without a count query
+        boolean hasNext = rows.size() > size;
+        List<OrderSummary> content = hasNext ? rows.subList(0, size) : rows;
+        String nextCursor = hasNext ? encodeHistoryCursor(content.get(content.size() - 1)) : null;
+        return new CursorPageResponse<>(content, size, hasNext, nextCursor);
+    }
+
+    private static String encodeHistoryCursor(OrderSummary last) {
+        String raw = (last.getDate() == null ? "" : String.valueOf(last.getDate().getTime())) + "|" + last.getId();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static Object[] decodeHistoryCursor(String cursor) {
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = decoded.indexOf('|');
+            if (separator < 0) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            String date = decoded.substring(0, separator);
+            return new Object[]{date.isEmpty() ? null : new Date(Long.parseLong(date)),
+                    Long.valueOf(decoded.substring(separator + 1))};
+        } catch (IllegalArgumentException e) {
+            // Also covers bad Base64 and NumberFormatException
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+
 }
\ No newline at end of file
@@ -0,0 +1,7 @@
+package com.Pharmacy.Pharmacy_website.service;
+
+public class OutOfStockException extends RuntimeException {
+    public OutOfStockException(Long productId, int quantity) {
+        super("Product with id " + productId + " does not have " + quantity + " item(s) in stock");
+    }
+}
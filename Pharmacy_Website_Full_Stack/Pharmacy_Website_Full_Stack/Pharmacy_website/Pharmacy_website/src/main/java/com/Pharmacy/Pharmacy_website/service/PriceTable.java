@@ -0,0 +1,122 @@
+package com.Pharmacy.Pharmacy_website.service;
+
+import com.Pharmacy.Pharmacy_website.entity.Products;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Authoritative unit prices for order pricing, fed by ProductService writes.
+ * Each write publishes a new immutable version; an order takes one snapshot
+ * and prices every line from it, so a concurrent price change can never
+ * split a single order across two price lists.
+ */
+@Component
+public class PriceTable {
+
+    @Autowired
+    private ProductCatalogCache catalogCache;
+
+    private volatile Snapshot current;
+    // Survives invalidate(), so a reloaded table never reuses a version an older snapshot had
+    private long version;
+    // A ReentrantLock because load() may fill the catalog cache from the database
+    private final ReentrantLock lock = new ReentrantLock();
+
+    public Snapshot snapshot() {
+        Snapshot snapshot = current;
+        return snapshot != null ? snapshot : load();
+    }
+
+    public void update(Products product) {
+        lock.lock();
+        try {
+            Snapshot snapshot = current;
+            if (snapshot == null || product == null || product.getId() == null) {
+                return;
+            }
+            Map<Long, BigDecimal> prices = new HashMap<>(snapshot.prices);
+            prices.put(product.getId(), toMoney(product.getPrice()));
+            current = new Snapshot(++version, prices);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void remove(Long id) {
+        lock.lock();
+        try {
+            Snapshot snapshot = current;
+            if (snapshot == null || !snapshot.prices.containsKey(id)) {
+                return;
+            }
+            Map<Long, BigDecimal> prices = new HashMap<>(snapshot.prices);
+            prices.remove(id);
+            current = new Snapshot(++version, prices);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // After bulk writes; the next order reloads every price from the catalog
+    public void invalidate() {
+        lock.lock();
+        try {
+            current = null;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public static BigDecimal toMoney(double amount) {
+        return BigDecimal.valueOf(amount).setScale(2, RoundingMode.HALF_UP);
+    }
+
+    private Snapshot load() {
+        lock.lock();
+        try {
+            if (current == null) {
+                Map<Long, BigDecimal> prices = new HashMap<>();
+                for (Products product : catalogCache.view()) {
+                    prices.put(product.getId(), toMoney(product.getPrice()));
+                }
+                current = new Snapshot(++version, prices);
+            }
+            return current;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public static final class Snapshot {
+        private final long version;
+        private final Map<Long, BigDecimal> prices;
+
+        Snapshot(long version, Map<Long, BigDecimal> prices) {
+            this.version = version;
+            this.prices = Collections.unmodifiableMap(prices);
+        }
+
+        public long getVersion() {
+            return version;
+        }
+
+        public BigDecimal priceOf(Long productId) {
+            BigDecimal price = prices.get(productId);
+            if (price == null) {
+                throw new IllegalArgumentException("Product with id " + productId + " not found");
+            }
+            return price;
+        }
+
+        public BigDecimal amountOf(Long productId, int quantity) {
+            return priceOf(productId).multiply(BigDecimal.valueOf(quantity));
+        }
+    }
+}
@@ -0,0 +1,252 @@
+package com.Pharmacy.Pharmacy_website.service;
+
+import com.Pharmacy.Pharmacy_website.entity.Products;
+import com.Pharmacy.Pharmacy_website.repo.ProductRepo;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * In-memory snapshot of the whole product catalog.
+ * Reads never lock; product writes copy the snapshot and swap it in, so readers
+ * always see either the old or the new catalog, never a half-applied one.
+ * Stock moves with every order, so it is kept apart in one counter per product
+ * and changes neither the snapshot nor the catalog version.
+ * The snapshot holds its own copies of the products, which are never changed once
+ * published. Callers outside this package only ever get copies of those; the
+ * services here that only read them use {@link #view()} instead.
+ * Every product write also moves the catalog version, which HTTP validators are built from.
+ */
+@Component
+public class ProductCatalogCache {
+
+    @Autowired
+    private ProductRepo productRepo;
+
+    private volatile Snapshot snapshot;
+    // Not synchronized: load() runs a query, and a virtual thread blocking inside a monitor pins its carrier
+    private final ReentrantLock lock = new ReentrantLock();
+    // Seeded from the clock so a restart never hands out a version an earlier run already used
+    private final AtomicLong version = new AtomicLong(System.currentTimeMillis());
+    private volatile long lastModified = System.currentTimeMillis();
+    // Filled and cleared with the snapshot, under the lock; adjusted without it
+    private final Map<Long, AtomicInteger> stock = new ConcurrentHashMap<>();
+    private final AtomicLong stockVersion = new AtomicLong();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder loads = new LongAdder();
+
+    public List<Products> getAll() {
+        List<Products> all = current().all;
+        List<Products> copies = new ArrayList<>(all.size());
+        for (Products product : all) {
+            copies.add(withStock(product));
+        }
+        return Collections.unmodifiableList(copies);
+    }
+
+    // The published snapshot itself, for callers in this package that only read it; its stock is not kept up to date
+    List<Products> view() {
+        return current().all;
+    }
+
+    public Products getById(Long id) {
+        return id == null ? null : withStock(current().byId.get(id));
+    }
+
+    public Products getByName(String name) {
+        return name == null ? null : withStock(current().byName.get(name));
+    }
+
+    // The current stock of a product from the snapshot
+    int stock(Products product) {
+        AtomicInteger current = stock.get(product.getId());
+        return current == null ? product.getStock() : current.get();
+    }
+
+    // Moved by every stock change, never by product writes
+    long stockVersion() {
+        return stockVersion.get();
+    }
+
+    // Bumped after the data changes, so a reader that sees a version also sees its data
+    public long version() {
+        return version.get();
+    }
+
+    public long lastModified() {
+        return lastModified;
+    }
+
+    public void put(Products product) {
+        lock.lock();
+        try {
+            Snapshot current = snapshot;
+            if (current != null && product != null && product.getId() != null) {
+                Map<Long, Products> byId = new LinkedHashMap<>(current.byId);
+                byId.put(product.getId(), copy(product));
+                snapshot = new Snapshot(byId);
+                stock.computeIfAbsent(product.getId(), id -> new AtomicInteger()).set(product.getStock());
+            }
+            changed();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void remove(Long id) {
+        lock.lock();
+        try {
+            Snapshot current = snapshot;
+            if (current != null && id != null && current.byId.containsKey(id)) {
+                Map<Long, Products> byId = new LinkedHashMap<>(current.byId);
+                byId.remove(id);
+                snapshot = new Snapshot(byId);
+                stock.remove(id);
+                evictions.increment();
+            }
+            changed();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Copies already handed out keep the stock they had
+    public void adjustStock(Long id, int delta) {
+        AtomicInteger current = id == null ? null : stock.get(id);
+        if (current == null) {
+            // Not loaded, or being loaded: the lock waits out a load, which then holds the counter
+            lock.lock();
+            try {
+                current = id == null ? null : stock.get(id);
+            } finally {
+                lock.unlock();
+            }
+            if (current == null) {
+                return;
+            }
+        }
+        current.addAndGet(delta);
+        stockVersion.incrementAndGet();
+    }
+
+    public void invalidate() {
+        lock.lock();
+        try {
+            if (snapshot != null) {
+                snapshot = null;
+                stock.clear();
+                evictions.increment();
+            }
+            changed();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public Map<String, Object> stats() {
+        Snapshot current = snapshot;
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("hits", hits.sum());
+        stats.put("misses", misses.sum());
+        stats.put("evictions", evictions.sum());
+        stats.put("loads", loads.sum());
+        stats.put("size", current == null ? 0 : current.all.size());
+        stats.put("version", version.get());
+        stats.put("stockVersion", stockVersion.get());
+        return stats;
+    }
+
+    private void changed() {
+        lastModified = System.currentTimeMillis();
+        version.incrementAndGet();
+    }
+
+    private Snapshot current() {
+        Snapshot current = snapshot;
+        if (current != null) {
+            hits.increment();
+            return current;
+        }
+        misses.increment();
+        return load();
+    }
+
+    private Snapshot load() {
+        lock.lock();
+        try {
+            if (snapshot == null) {
+                Map<Long, Products> byId = new LinkedHashMap<>();
+                for (Products product : productRepo.findAll()) {
+                    byId.put(product.getId(), copy(product));
+                    stock.put(product.getId(), new AtomicInteger(product.getStock()));
+                }
+                snapshot = new Snapshot(byId);
+                loads.increment();
+            }
+            return snapshot;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private Products withStock(Products product) {
+        Products copy = copy(product);
+        if (copy != null) {
+            copy.setStock(stock(product));
+        }
+        return copy;
+    }
+
+    // Every persistent field; a new column on Products must be copied here too
+    static Products copy(Products product) {
+        if (product == null) {
+            return null;
+        }
+        Products copy = new Products();
+        copy.setId(product.getId());
+        copy.setSku(product.getSku());
+        copy.setName(product.getName());
+        copy.setPrice(product.getPrice());
+        copy.setDescription(product.getDescription());
+        copy.setImage(product.getImage());
+        copy.setCategory(product.getCategory());
+        copy.setPrescription(product.isPrescription());
+        copy.setStock(product.getStock());
+        copy.setRating(product.getRating());
+        copy.setReviews(product.getReviews());
+        copy.setFeatured(product.isFeatured());
+        return copy;
+    }
+
+    private static final class Snapshot {
+        final List<Products> all;
+        final Map<Long, Products> byId;
+        final Map<String, Products> byName;
+
+        Snapshot(Map<Long, Products> byId) {
+            this.byId = Collections.unmodifiableMap(byId);
+            this.all = Collections.unmodifiableList(new ArrayList<>(byId.values()));
+            Map<String, Products> names = new HashMap<>();
+            for (Products product : all) {
+                if (product.getName() != null) {
+                    names.putIfAbsent(product.getName(), product);
+                }
+            }
+            this.byName = Collections.unmodifiableMap(names);
+        }
+    }
+}
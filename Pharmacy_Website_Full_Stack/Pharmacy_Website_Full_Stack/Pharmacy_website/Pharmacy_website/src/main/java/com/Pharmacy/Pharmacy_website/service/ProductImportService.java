@@ -0,0 +1,623 @@
+package com.Pharmacy.Pharmacy_website.service;
+
+import com.Pharmacy.Pharmacy_website.dto.ProductImportReport;
+import com.Pharmacy.Pharmacy_website.entity.Products;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bulk catalog import from a streamed CSV or JSON file. Records are read a
+ * batch at a time, validated in parallel with the same rules as the product
+ * endpoints, and upserted with one JDBC batch per batch of rows: by SKU when
+ * the row has one, otherwise by name. Rows that fail are reported by position
+ * instead of stopping the import. The catalog cache, price table, search index
+ * and suggester are refreshed once when the import ends.
+ */
+@Service
+public class ProductImportService {
+
+    public enum Format { CSV, JSON }
+
+    static final int MAX_REPORTED_ERRORS = 1000;
+    private static final List<String> COLUMNS = List.of("sku", "name", "price", "description", "image",
+            "category", "prescription", "stock", "rating", "reviews", "featured");
+    private static final List<String> REQUIRED_COLUMNS = List.of("name", "price", "category");
+
+    private static final String INSERT = "insert into products (sku, name, price, description, image, category, "
+            + "prescription, stock, rating, reviews, featured) values (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String UPDATE = "update products set sku = ?, name = ?, price = ?, description = ?, image = ?, "
+            + "category = ?, prescription = ?, stock = ?, rating = ?, reviews = ?, featured = ? where id = ?";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ProductCatalogCache catalogCache;
+
+    @Autowired
+    private PriceTable priceTable;
+
+    @Autowired
+    private ProductSearchIndex searchIndex;
+
+    @Autowired
+    private ProductSuggester suggester;
+
+    @Value("${products.import.batch-size:500}")
+    private int batchSize;
+
+    private TransactionTemplate transactionTemplate;
+
+    // One import at a time, so two feeds never race to insert the same new SKU
+    private final AtomicBoolean importing = new AtomicBoolean();
+
+    private final LongAdder imports = new LongAdder();
+    private final LongAdder inserted = new LongAdder();
+    private final LongAdder updated = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder batchFallbacks = new LongAdder();
+
+    @Autowired
+    public void setTransactionManager(PlatformTransactionManager transactionManager) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    public ProductImportReport importProducts(Format format, InputStream in) throws IOException {
+        if (!importing.compareAndSet(false, true)) {
+            throw new IllegalStateException("A product import is already running");
+        }
+        Progress progress = new Progress();
+        try (RowReader reader = format == Format.JSON ? new JsonRowReader(in) : new CsvRowReader(in)) {
+            Keys keys = loadKeys();
+            List<ImportRow> batch;
+            while (!(batch = nextBatch(reader, progress)).isEmpty()) {
+                // Parsing stays on this thread; conversion and the validation rules are independent per row
+                batch.parallelStream().forEach(ImportRow::validate);
+                write(batch, keys, progress);
+            }
+        } finally {
+            importing.set(false);
+            imports.increment();
+            if (progress.inserted + progress.updated > 0) {
+                refreshCatalog();
+            }
+        }
+        return progress.report();
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("imports", imports.sum());
+        stats.put("inserted", inserted.sum());
+        stats.put("updated", updated.sum());
+        stats.put("failed", failed.sum());
+        stats.put("batchFallbacks", batchFallbacks.sum());
+        stats.put("running", importing.get());
+        return stats;
+    }
+
+    // A malformed record ends the read, but the batches already written stay and are reported
+    private List<ImportRow> nextBatch(RowReader reader, Progress progress) throws IOException {
+        List<ImportRow> batch = new ArrayList<>(batchSize);
+        if (progress.abortedReason != null) {
+            return batch;
+        }
+        try {
+            Map<String, Object> values;
+            while (batch.size() < batchSize && (values = reader.next()) != null) {
+                batch.add(new ImportRow(++progress.rows, values));
+            }
+        } catch (JsonProcessingException e) {
+            progress.abortedReason = "Malformed JSON after row " + progress.rows + ": " + e.getOriginalMessage();
+        } catch (IllegalArgumentException e) {
+            progress.abortedReason = e.getMessage();
+        }
+        return batch;
+    }
+
+    private void write(List<ImportRow> batch, Keys keys, Progress progress) {
+        List<ImportRow> pending = new ArrayList<>(batch.size());
+        for (ImportRow row : batch) {
+            if (row.error != null) {
+                progress.fail(row, row.error);
+            } else {
+                pending.add(row);
+            }
+        }
+        // A row touching a product that an earlier row of the same pass already claims waits for the next
+        // pass, so repeats inside one file apply in file order (a repeated new SKU becomes an update)
+        while (!pending.isEmpty()) {
+            List<ImportRow> inserts = new ArrayList<>();
+            List<ImportRow> updates = new ArrayList<>();
+            List<ImportRow> deferred = new ArrayList<>();
+            Set<Long> claimedIds = new HashSet<>();
+            Set<String> claimedSkus = new HashSet<>();
+            Set<String> claimedNames = new HashSet<>();
+            Set<String> claimedSkulessNames = new HashSet<>();
+            for (ImportRow row : pending) {
+                Products product = row.product;
+                String sku = product.getSku();
+                // Rows without a SKU match any product by name; rows with one only fall back to SKU-less products
+                boolean clash = sku == null
+                        ? claimedNames.contains(product.getName())
+                        : claimedSkus.contains(sku)
+                                || (!keys.bySku.containsKey(sku) && claimedSkulessNames.contains(product.getName()));
+                Long id = clash ? null : keys.match(product);
+                if (clash || (id != null && !claimedIds.add(id))) {
+                    deferred.add(row);
+                    continue;
+                }
+                product.setId(id);
+                (id == null ? inserts : updates).add(row);
+                if (sku != null) {
+                    claimedSkus.add(sku);
+                } else {
+                    claimedSkulessNames.add(product.getName());
+                }
+                claimedNames.add(product.getName());
+            }
+            writePass(inserts, updates, keys, progress);
+            pending = deferred;
+        }
+    }
+
+    private void writePass(List<ImportRow> inserts, List<ImportRow> updates, Keys keys, Progress progress) {
+        try {
+            List<Long> ids = transactionTemplate.execute(status -> {
+                List<Long> generated = insertBatch(inserts);
+                if (!updates.isEmpty()) {
+                    jdbcTemplate.batchUpdate(UPDATE, updates, updates.size(), (ps, row) -> bind(ps, row.product, true));
+                }
+                return generated;
+            });
+            for (int i = 0; i < inserts.size(); i++) {
+                inserts.get(i).product.setId(ids.get(i));
+                keys.saved(inserts.get(i).product);
+            }
+            for (ImportRow row : updates) {
+                keys.saved(row.product);
+            }
+            progress.inserted(inserts.size());
+            progress.updated(updates.size());
+        } catch (DataAccessException e) {
+            // The batch rolled back as a whole (usually a SKU that clashes); redo it row by row to
+            // find the offending rows and keep the rest
+            batchFallbacks.increment();
+            for (ImportRow row : inserts) {
+                writeOne(row, false, keys, progress);
+            }
+            for (ImportRow row : updates) {
+                writeOne(row, true, keys, progress);
+            }
+        }
+    }
+
+    private List<Long> insertBatch(List<ImportRow> inserts) {
+        List<Long> ids = new ArrayList<>(inserts.size());
+        if (inserts.isEmpty()) {
+            return ids;
+        }
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(con -> con.prepareStatement(INSERT, new String[]{"id"}),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        bind(ps, inserts.get(i).product, false);
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return inserts.size();
+                    }
+                }, keyHolder);
+        for (Map<String, Object> key : keyHolder.getKeyList()) {
+            // The key column is ID on most drivers and GENERATED_KEY on MySQL
+            ids.add(((Number) key.values().iterator().next()).longValue());
+        }
+        if (ids.size() != inserts.size()) {
+            throw new IllegalStateException("Expected " + inserts.size() + " generated ids but got " + ids.size());
+        }
+        return ids;
+    }
+
+    private void writeOne(ImportRow row, boolean update, Keys keys, Progress progress) {
+        try {
+            if (update) {
+                jdbcTemplate.update(UPDATE, ps -> bind(ps, row.product, true));
+                progress.updated(1);
+            } else {
+                KeyHolder keyHolder = new GeneratedKeyHolder();
+                jdbcTemplate.update(con -> {
+                    PreparedStatement ps = con.prepareStatement(INSERT, new String[]{"id"});
+                    bind(ps, row.product, false);
+                    return ps;
+                }, keyHolder);
+                row.product.setId(((Number) keyHolder.getKeyList().get(0).values().iterator().next()).longValue());
+                progress.inserted(1);
+            }
+            keys.saved(row.product);
+        } catch (DataAccessException e) {
+            progress.fail(row, "Could not be saved: " + e.getMostSpecificCause().getMessage());
+        }
+    }
+
+    private static void bind(PreparedStatement ps, Products product, boolean withId) throws SQLException {
+        ps.setString(1, product.getSku());
+        ps.setString(2, product.getName());
+        ps.setDouble(3, product.getPrice());
+        ps.setString(4, product.getDescription());
+        ps.setString(5, product.getImage());
+        ps.setString(6, product.getCategory());
+        ps.setBoolean(7, product.isPrescription());
+        ps.setInt(8, product.getStock());
+        ps.setDouble(9, product.getRating());
+        ps.setInt(10, product.getReviews());
+        ps.setBoolean(11, product.isFeatured());
+        if (withId) {
+            ps.setLong(12, product.getId());
+        }
+    }
+
+    private Keys loadKeys() {
+        Keys keys = new Keys();
+        jdbcTemplate.query("select id, sku, name from products order by id", rs -> {
+            Products product = new Products();
+            product.setId(rs.getLong("id"));
+            product.setSku(rs.getString("sku"));
+            product.setName(rs.getString("name"));
+            keys.saved(product);
+        });
+        return keys;
+    }
+
+    // Once per import rather than per row: every structure is rebuilt from the committed catalog
+    private void refreshCatalog() {
+        catalogCache.invalidate();
+        priceTable.invalidate();
+        searchIndex.rebuild();
+        suggester.refresh();
+    }
+
+    private static Products toProduct(Map<String, Object> values) {
+        Products product = new Products();
+        product.setSku(text(values, "sku"));
+        product.setName(text(values, "name"));
+        product.setPrice(decimal(values, "price"));
+        product.setDescription(text(values, "description"));
+        product.setImage(text(values, "image"));
+        product.setCategory(text(values, "category"));
+        product.setPrescription(flag(values, "prescription"));
+        product.setStock(whole(values, "stock"));
+        product.setRating(decimal(values, "rating"));
+        product.setReviews(whole(values, "reviews"));
+        product.setFeatured(flag(values, "featured"));
+        return product;
+    }
+
+    private static String text(Map<String, Object> values, String column) {
+        Object value = values.get(column);
+        if (value == null) {
+            return null;
+        }
+        if (value instanceof Map || value instanceof List) {
+            throw new IllegalArgumentException(column + " must be a single value");
+        }
+        String text = value.toString().trim();
+        return text.isEmpty() ? null : text;
+    }
+
+    private static double decimal(Map<String, Object> values, String column) {
+        String text = text(values, column);
+        if (text == null) {
+            return 0;
+        }
+        try {
+            double value = Double.parseDouble(text);
+            if (Double.isFinite(value)) {
+                return value;
+            }
+        } catch (NumberFormatException ignored) {
+            // reported below
+        }
+        throw new IllegalArgumentException(column + " must be a number");
+    }
+
+    private static int whole(Map<String, Object> values, String column) {
+        String text = text(values, column);
+        if (text == null) {
+            return 0;
+        }
+        try {
+            return Integer.parseInt(text);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(column + " must be a whole number");
+        }
+    }
+
+    private static boolean flag(Map<String, Object> values, String column) {
+        String text = text(values, column);
+        if (text == null) {
+            return false;
+        }
+        switch (text.toLowerCase(Locale.ROOT)) {
+            case "true": case "yes": case "1": return true;
+            case "false": case "no": case "0": return false;
+            default: throw new IllegalArgumentException(column + " must be true or false");
+        }
+    }
+
+    private static final class ImportRow {
+        final long row;
+        final Map<String, Object> values;
+        Products product;
+        String error;
+
+        ImportRow(long row, Map<String, Object> values) {
+            this.row = row;
+            this.values = values;
+        }
+
+        void validate() {
+            if (error != null) {
+                return;
+            }
+            try {
+                product = toProduct(values);
+            } catch (IllegalArgumentException e) {
+                error = e.getMessage();
+                return;
+            }
+            error = ProductValidator.validate(product);
+        }
+
+        String key() {
+            if (product != null) {
+                return product.getSku() != null ? product.getSku() : product.getName();
+            }
+            Object sku = values.get("sku");
+            return sku != null && !sku.toString().isBlank() ? sku.toString() : Objects.toString(values.get("name"), null);
+        }
+    }
+
+    // Which product a row lands on: the SKU first, then the name of a product that has no SKU yet
+    private static final class Keys {
+        final Map<String, Long> bySku = new HashMap<>();
+        final Map<String, Long> byName = new HashMap<>();
+        final Map<Long, String> skuById = new HashMap<>();
+        final Map<Long, String> nameById = new HashMap<>();
+
+        Long match(Products product) {
+            if (product.getSku() != null) {
+                Long id = bySku.get(product.getSku());
+                if (id != null) {
+                    return id;
+                }
+                id = byName.get(product.getName());
+                return id != null && !skuById.containsKey(id) ? id : null;
+            }
+            return byName.get(product.getName());
+        }
+
+        void saved(Products product) {
+            Long id = product.getId();
+            String oldSku = skuById.remove(id);
+            if (oldSku != null) {
+                bySku.remove(oldSku, id);
+            }
+            String oldName = nameById.remove(id);
+            if (oldName != null) {
+                byName.remove(oldName, id);
+            }
+            if (product.getSku() != null) {
+                skuById.put(id, product.getSku());
+                bySku.put(product.getSku(), id);
+            }
+            if (product.getName() != null) {
+                nameById.put(id, product.getName());
+                // Names are not unique; like the catalog cache, the oldest product keeps the name
+                byName.putIfAbsent(product.getName(), id);
+            }
+        }
+    }
+
+    private final class Progress {
+        long rows;
+        long inserted;
+        long updated;
+        long failed;
+        String abortedReason;
+        final List<ProductImportReport.RowError> errors = new ArrayList<>();
+
+        void inserted(int count) {
+            inserted += count;
+            ProductImportService.this.inserted.add(count);
+        }
+
+        void updated(int count) {
+            updated += count;
+            ProductImportService.this.updated.add(count);
+        }
+
+        void fail(ImportRow row, String message) {
+            failed++;
+            ProductImportService.this.failed.increment();
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                errors.add(new ProductImportReport.RowError(row.row, row.key(), message));
+            }
+        }
+
+        ProductImportReport report() {
+            return new ProductImportReport(rows, inserted, updated, failed, errors, abortedReason);
+        }
+    }
+
+    private interface RowReader extends Closeable {
+        // Null at the end of the input; IllegalArgumentException for a record that cannot be parsed
+        Map<String, Object> next() throws IOException;
+    }
+
+    // RFC 4180: a header row, quoted fields may hold commas, quotes (doubled) and line breaks
+    private static final class CsvRowReader implements RowReader {
+        private final Reader reader;
+        private final List<String> header;
+        private long line = 1;
+
+        CsvRowReader(InputStream in) throws IOException {
+            this.reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8), 64 * 1024);
+            List<String> names = record();
+            if (names == null) {
+                throw new IllegalArgumentException("The CSV file is empty");
+            }
+            header = new ArrayList<>(names.size());
+            for (String name : names) {
+                // Spreadsheet exports often start with a byte order mark
+                header.add(name.replace("\uFEFF", "").trim().toLowerCase(Locale.ROOT));
+            }
+            for (String column : REQUIRED_COLUMNS) {
+                if (!header.contains(column)) {
+                    throw new IllegalArgumentException("The CSV header must include " + REQUIRED_COLUMNS
+                            + "; optional columns are " + COLUMNS);
+                }
+            }
+        }
+
+        @Override
+        public Map<String, Object> next() throws IOException {
+            List<String> fields;
+            do {
+                fields = record();
+                if (fields == null) {
+                    return null;
+                }
+            } while (fields.size() == 1 && fields.get(0).isEmpty()); // blank line
+            Map<String, Object> values = new HashMap<>();
+            for (int i = 0; i < header.size() && i < fields.size(); i++) {
+                values.put(header.get(i), fields.get(i));
+            }
+            return values;
+        }
+
+        private List<String> record() throws IOException {
+            int c = reader.read();
+            if (c == -1) {
+                return null;
+            }
+            long startLine = line;
+            List<String> fields = new ArrayList<>();
+            StringBuilder field = new StringBuilder();
+            boolean quoted = false;
+            while (true) {
+                if (quoted) {
+                    if (c == -1) {
+                        throw new IllegalArgumentException("Unclosed quote in the record starting on line " + startLine);
+                    }
+                    if (c == '"') {
+                        int next = reader.read();
+                        if (next != '"') {
+                            quoted = false;
+                            c = next;
+                            continue;
+                        }
+                        field.append('"');
+                    } else {
+                        if (c == '\n') {
+                            line++;
+                        }
+                        field.append((char) c);
+                    }
+                } else if (c == '"' && field.length() == 0) {
+                    quoted = true;
+                } else if (c == ',') {
+                    fields.add(field.toString());
+                    field.setLength(0);
+                } else if (c == '\n' || c == -1) {
+                    fields.add(field.toString());
+                    line++;
+                    return fields;
+                } else if (c != '\r') {
+                    field.append((char) c);
+                }
+                c = reader.read();
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            reader.close();
+        }
+    }
+
+    // Either one array of objects or a stream of objects (NDJSON); only the current object is held
+    private final class JsonRowReader implements RowReader {
+        private final JsonParser parser;
+        private boolean started;
+
+        JsonRowReader(InputStream in) throws IOException {
+            this.parser = objectMapper.getFactory().createParser(in);
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public Map<String, Object> next() throws IOException {
+            JsonToken token = parser.nextToken();
+            if (!started) {
+                started = true;
+                if (token == JsonToken.START_ARRAY) {
+                    token = parser.nextToken();
+                }
+            }
+            if (token == null || token == JsonToken.END_ARRAY) {
+                return null;
+            }
+            if (token != JsonToken.START_OBJECT) {
+                throw new IllegalArgumentException("Expected a JSON object for each product, found " + token);
+            }
+            Map<String, Object> values = new HashMap<>();
+            for (Map.Entry<String, Object> entry : ((Map<String, Object>) parser.readValueAs(Map.class)).entrySet()) {
+                values.put(entry.getKey().toLowerCase(Locale.ROOT), entry.getValue());
+            }
+            return values;
+        }
+
+        @Override
+        public void close() throws IOException {
+            parser.close();
+        }
+    }
+}
@@ -0,0 +1,374 @@
+package com.Pharmacy.Pharmacy_website.service;
+
+import com.Pharmacy.Pharmacy_website.entity.Products;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * In-process inverted index over product name, category and description.
+ * Postings are updated incrementally from ProductService writes; lookups are
+ * lock-free and never touch the database. An update adds the new postings before
+ * dropping stale ones, and a rebuild swaps in a whole new index, so a concurrent
+ * search never misses a product that exists. The index keeps only ids and
+ * scoring data; hits are resolved through the catalog cache, so results carry
+ * its current stock and prices.
+ */
+@Component
+public class ProductSearchIndex {
+
+    private static final float NAME_WEIGHT = 3.0f;
+    private static final float CATEGORY_WEIGHT = 2.0f;
+    private static final float DESCRIPTION_WEIGHT = 1.0f;
+
+    private static final double EXACT_MATCH = 1.0;
+    private static final double PREFIX_MATCH = 0.6;
+    private static final double FUZZY_MATCH = 0.4;
+    private static final int MAX_EXPANSIONS = 50;
+
+    private final ProductCatalogCache catalogCache;
+
+    private volatile Index index = new Index();
+    private volatile boolean built;
+    // Writers and the first build share one lock; rebuild() may load the catalog from the database
+    private final ReentrantLock lock = new ReentrantLock();
+
+    @Autowired
+    public ProductSearchIndex(ProductCatalogCache catalogCache) {
+        this.catalogCache = catalogCache;
+    }
+
+    public List<Products> search(String query, int limit) {
+        List<String> queryTerms = tokenize(query);
+        if (queryTerms.isEmpty() || limit <= 0) {
+            return Collections.emptyList();
+        }
+        ensureBuilt();
+        Index index = this.index;
+
+        int docCount = Math.max(index.documents.size(), 1);
+        List<TermMatch> matches = new ArrayList<>();
+        for (String queryTerm : new LinkedHashSet<>(queryTerms)) {
+            TermMatch match = new TermMatch(index, index.expand(queryTerm), docCount);
+            if (match.postingCount == 0) {
+                // Every query term has to match something in the product
+                return Collections.emptyList();
+            }
+            matches.add(match);
+        }
+        // Start from the rarest term and only probe the surviving candidates for the rest
+        matches.sort((a, b) -> Integer.compare(a.postingCount, b.postingCount));
+
+        Map<Long, Double> scores = new HashMap<>();
+        TermMatch rarest = matches.get(0);
+        for (int i = 0; i < rarest.postings.size(); i++) {
+            double weight = rarest.weights.get(i);
+            for (Map.Entry<Long, Float> posting : rarest.postings.get(i).entrySet()) {
+                scores.merge(posting.getKey(), posting.getValue() * weight, Math::max);
+            }
+        }
+        for (int m = 1; m < matches.size() && !scores.isEmpty(); m++) {
+            TermMatch match = matches.get(m);
+            scores.entrySet().removeIf(entry -> {
+                double best = match.score(entry.getKey());
+                if (best == 0) {
+                    return true;
+                }
+                entry.setValue(entry.getValue() + best);
+                return false;
+            });
+        }
+
+        PriorityQueue<ScoredDocument> top = new PriorityQueue<>(limit + 1);
+        for (Map.Entry<Long, Double> entry : scores.entrySet()) {
+            Document document = index.documents.get(entry.getKey());
+            if (document == null) {
+                continue;
+            }
+            top.add(new ScoredDocument(document, entry.getValue() * document.boost));
+            if (top.size() > limit) {
+                top.poll();
+            }
+        }
+        List<Products> results = new ArrayList<>(top.size());
+        while (!top.isEmpty()) {
+            // Gone from the catalog but not yet from the index
+            Products product = catalogCache.getById(top.poll().document.id);
+            if (product != null) {
+                results.add(product);
+            }
+        }
+        Collections.reverse(results);
+        return results;
+    }
+
+    public void index(Products product) {
+        lock.lock();
+        try {
+            if (!built || product == null || product.getId() == null) {
+                return;
+            }
+            index.replace(product);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void remove(Long id) {
+        lock.lock();
+        try {
+            index.remove(id);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void rebuild() {
+        lock.lock();
+        try {
+            rebuild(catalogCache.view());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Built aside and swapped in, so searches keep using the old index until the new one is whole
+    public void rebuild(Collection<Products> products) {
+        lock.lock();
+        try {
+            Index fresh = new Index();
+            for (Products product : products) {
+                fresh.replace(product);
+            }
+            index = fresh;
+            built = true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int size() {
+        return index.documents.size();
+    }
+
+    private void ensureBuilt() {
+        if (!built) {
+            lock.lock();
+            try {
+                if (!built) {
+                    rebuild();
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    private static void addField(Map<String, Float> weights, String text, float fieldWeight) {
+        for (String term : tokenize(text)) {
+            weights.merge(term, fieldWeight, Math::max);
+        }
+    }
+
+    // Bounded Damerau-Levenshtein (optimal string alignment) with early exit
+    static boolean withinDistance(String a, String b, int max) {
+        int[] previous2 = new int[b.length() + 1];
+        int[] previous = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            current[0] = i;
+            int rowMin = current[0];
+            for (int j = 1; j <= b.length(); j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                int value = Math.min(Math.min(previous[j] + 1, current[j - 1] + 1), previous[j - 1] + cost);
+                if (i > 1 && j > 1 && a.charAt(i - 1) == b.charAt(j - 2) && a.charAt(i - 2) == b.charAt(j - 1)) {
+                    value = Math.min(value, previous2[j - 2] + 1);
+                }
+                current[j] = value;
+                rowMin = Math.min(rowMin, value);
+            }
+            if (rowMin > max) {
+                return false;
+            }
+            int[] recycled = previous2;
+            previous2 = previous;
+            previous = current;
+            current = recycled;
+        }
+        return previous[b.length()] <= max;
+    }
+
+    static List<String> tokenize(String text) {
+        if (text == null || text.isBlank()) {
+            return Collections.emptyList();
+        }
+        List<String> terms = new ArrayList<>();
+        for (String token : text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+")) {
+            if (!token.isEmpty()) {
+                terms.add(token);
+            }
+        }
+        return terms;
+    }
+
+    private static double popularity(Products product) {
+        return 1.0
+                + 0.05 * Math.max(product.getRating(), 0)
+                + 0.05 * Math.log1p(Math.max(product.getReviews(), 0))
+                + (product.isFeatured() ? 0.25 : 0.0);
+    }
+
+    // Postings, dictionary and documents; changed only under the lock, read without it
+    static final class Index {
+        final Map<String, Map<Long, Float>> postings = new ConcurrentHashMap<>();
+        final NavigableSet<String> dictionary = new ConcurrentSkipListSet<>();
+        final Map<Long, Document> documents = new ConcurrentHashMap<>();
+
+        // New postings go in before stale ones come out, so the product stays findable throughout
+        void replace(Products product) {
+            Map<String, Float> weights = new HashMap<>();
+            addField(weights, product.getName(), NAME_WEIGHT);
+            addField(weights, product.getCategory(), CATEGORY_WEIGHT);
+            addField(weights, product.getDescription(), DESCRIPTION_WEIGHT);
+            Document old = documents.put(product.getId(), new Document(product.getId(), weights.keySet(), popularity(product)));
+            for (Map.Entry<String, Float> entry : weights.entrySet()) {
+                postings.computeIfAbsent(entry.getKey(), term -> new ConcurrentHashMap<>())
+                        .put(product.getId(), entry.getValue());
+                dictionary.add(entry.getKey());
+            }
+            if (old != null) {
+                for (String term : old.terms) {
+                    if (!weights.containsKey(term)) {
+                        removePosting(term, product.getId());
+                    }
+                }
+            }
+        }
+
+        void remove(Long id) {
+            Document old = documents.remove(id);
+            if (old != null) {
+                for (String term : old.terms) {
+                    removePosting(term, id);
+                }
+            }
+        }
+
+        private void removePosting(String term, Long id) {
+            Map<Long, Float> docs = postings.get(term);
+            if (docs != null) {
+                docs.remove(id);
+                if (docs.isEmpty()) {
+                    postings.remove(term);
+                    dictionary.remove(term);
+                }
+            }
+        }
+
+        // Exact term, then dictionary terms starting with it, then terms within edit distance
+        Map<String, Double> expand(String term) {
+            Map<String, Double> expansions = new HashMap<>();
+            if (postings.containsKey(term)) {
+                expansions.put(term, EXACT_MATCH);
+            }
+            if (term.length() >= 2) {
+                for (String candidate : dictionary.subSet(term, false, term + Character.MAX_VALUE, false)) {
+                    if (expansions.size() >= MAX_EXPANSIONS) {
+                        break;
+                    }
+                    expansions.put(candidate, PREFIX_MATCH);
+                }
+            }
+            if (expansions.isEmpty() && term.length() >= 4) {
+                int maxDistance = term.length() >= 8 ? 2 : 1;
+                // Typos rarely hit the first letter, which keeps the scan to one slice of the dictionary
+                String first = term.substring(0, 1);
+                for (String candidate : dictionary.subSet(first, true, first + Character.MAX_VALUE, false)) {
+                    if (Math.abs(candidate.length() - term.length()) <= maxDistance
+                            && withinDistance(term, candidate, maxDistance)) {
+                        expansions.put(candidate, FUZZY_MATCH);
+                        if (expansions.size() >= MAX_EXPANSIONS) {
+                            break;
+                        }
+                    }
+                }
+            }
+            return expansions;
+        }
+    }
+
+    private static final class TermMatch {
+        final List<Map<Long, Float>> postings = new ArrayList<>();
+        final List<Double> weights = new ArrayList<>();
+        int postingCount;
+
+        TermMatch(Index index, Map<String, Double> expansions, int docCount) {
+            for (Map.Entry<String, Double> expansion : expansions.entrySet()) {
+                Map<Long, Float> docs = index.postings.get(expansion.getKey());
+                if (docs == null || docs.isEmpty()) {
+                    continue;
+                }
+                double idf = Math.log(1.0 + (double) docCount / docs.size());
+                postings.add(docs);
+                weights.add(expansion.getValue() * idf);
+                postingCount += docs.size();
+            }
+        }
+
+        double score(Long id) {
+            double best = 0;
+            for (int i = 0; i < postings.size(); i++) {
+                Float weight = postings.get(i).get(id);
+                if (weight != null) {
+                    best = Math.max(best, weight * weights.get(i));
+                }
+            }
+            return best;
+        }
+    }
+
+    private static final class Document {
+        final Long id;
+        final Set<String> terms;
+        final double boost;
+
+        Document(Long id, Set<String> terms, double boost) {
+            this.id = id;
+            this.terms = terms;
+            this.boost = boost;
+        }
+    }
+
+    private static final class ScoredDocument implements Comparable<ScoredDocument> {
+        final Document document;
+        final double score;
+
+        ScoredDocument(Document document, double score) {
+            this.document = document;
+            this.score = score;
+        }
+
+        @Override
+        public int compareTo(ScoredDocument other) {
+            int byScore = Double.compare(score, other.score);
+            return byScore != 0 ? byScore : Long.compare(other.document.id, document.id);
+        }
+    }
+}
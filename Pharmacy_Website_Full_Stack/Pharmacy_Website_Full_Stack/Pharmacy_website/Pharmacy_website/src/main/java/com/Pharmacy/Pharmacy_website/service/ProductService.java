@@ -1,43 +1,180 @@
 package com.Pharmacy.Pharmacy_website.service;
 
+import com.Pharmacy.Pharmacy_website.dto.ProductFilter;
+import com.Pharmacy.Pharmacy_website.dto.ProductPageResponse;
+import com.Pharmacy.Pharmacy_website.dto.ProductSuggestion;
 import com.Pharmacy.Pharmacy_website.entity.Products;
 import com.Pharmacy.Pharmacy_website.entity.User;
 import com.Pharmacy.Pharmacy_website.repo.ProductRepo;
+import com.Pharmacy.Pharmacy_website.repo.ProductSpecifications;
 import com.Pharmacy.Pharmacy_website.repo.UserRepo;
+import io.micrometer.core.annotation.Timed;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
 import java.util.List;
 
 @Service
+@Timed(value = "pharmacy.service", histogram = true)
 public class ProductService {
+    private static final String NULL_VALUE = "N";
+    private static final String PRESENT_VALUE = "V";
+
     @Autowired
     private ProductRepo productRepo;
 
+    @Autowired
+    private ProductCatalogCache catalogCache;
+
+    @Autowired
+    private ProductSearchIndex searchIndex;
+
+    @Autowired
+    private ProductSuggester suggester;
+
+    @Autowired
+    private PriceTable priceTable;
+
     public List<Products> getAllProduct() {
-        return productRepo.findAll();
+        return catalogCache.getAll();
     }
 
     public Products getProductById(Long id) {
-        return productRepo.findById(id).orElseThrow(() -> new RuntimeException("Product with id " + id + " not found"));
+        Products product = catalogCache.getById(id);
+        if (product == null) {
+            throw new RuntimeException("Product with id " + id + " not found");
+        }
+        return product;
     }
 
     public Products createProduct(Products product) {
-        return productRepo.save(product);
+        Products saved = productRepo.save(product);
+        catalogCache.put(saved);
+        priceTable.update(saved);
+        searchIndex.index(saved);
+        suggester.refresh();
+        return saved;
     }
 
     public Products updateProduct(Products product) {
-        productRepo.findById(product.getId()).orElseThrow(() -> new RuntimeException("Product with id " + product.getId() + " not found"));
-        return productRepo.save(product);
+        Products existing = getProductById(product.getId());
+        if (product.getSku() == null) {
+            // Clients that predate SKUs send the product without one; keep what the import set
+            product.setSku(existing.getSku());
+        }
+        Products saved = productRepo.save(product);
+        catalogCache.put(saved);
+        priceTable.update(saved);
+        searchIndex.index(saved);
+        suggester.refresh();
+        return saved;
     }
 
     public void deleteProduct(Long id) {
-        productRepo.findById(id).orElseThrow(() -> new RuntimeException("Product with id " + id + " not found"));
+        getProductById(id);
         productRepo.deleteById(id);
+        catalogCache.remove(id);
+        priceTable.remove(id);
+        searchIndex.remove(id);
+        suggester.refresh();
     }
 
     public Products findProductByName(String name) {
-        return productRepo.findByName(name);
+        return catalogCache.getByName(name);
+    }
+
+    public List<Products> searchProducts(String query, int limit) {
+        return searchIndex.search(query, limit);
+    }
+
+    public List<ProductSuggestion> suggestProducts(String prefix, int limit) {
+        return suggester.suggest(prefix, limit);
+    }
+
+    public ProductPageResponse getProductPage(ProductFilter filter, int page, int size, Sort.Order order) {
+        Page<Products> result = productRepo.findAll(ProductSpecifications.matching(filter),
+                PageRequest.of(page, size, seekSort(order)));
+        return new ProductPageResponse(result.getContent(), result.getNumber(), result.getSize(),
+                result.getTotalElements(), result.getTotalPages(), result.hasNext(), null);
+    }
+
+    public ProductPageResponse getProductsAfter(ProductFilter filter, String cursor, int size, Sort.Order order) {
+        Specification<Products> spec = ProductSpecifications.matching(filter);
+        if (cursor != null && !cursor.isEmpty()) {
+            spec = spec.and(afterCursor(order, cursor));
+        }
+        // Fetch one extra row to learn whether another page exists without a count query
+        List<Products> rows = productRepo.findBy(spec, q -> q.sortBy(seekSort(order)).limit(size + 1).all());
+        boolean hasNext = rows.size() > size;
+        List<Products> content = hasNext ? rows.subList(0, size) : rows;
+        String nextCursor = hasNext ? encodeCursor(order.getProperty(), content.get(content.size() - 1)) : null;
+        return new ProductPageResponse(content, null, size, null, null, hasNext, nextCursor);
+    }
+
+    private Sort seekSort(Sort.Order order) {
+        // MySQL and H2 both sort nulls lowest, which the seek predicate relies on; Spring Data cannot
+        // ask for null precedence on a criteria query, and a CASE key would keep the name index out
+        Sort sort = Sort.by(order);
+        return "id".equals(order.getProperty()) ? sort : sort.and(Sort.by(order.getDirection(), "id"));
+    }
+
+    private Specification<Products> afterCursor(Sort.Order order, String cursor) {
+        String decoded;
+        try {
+            decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+        int separator = decoded.lastIndexOf('|');
+        if (separator < 0) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+        // 'N' marks a null sort value, 'V' prefixes a present one
+        String value;
+        if (decoded.startsWith(NULL_VALUE) && separator == NULL_VALUE.length()) {
+            value = null;
+        } else if (decoded.startsWith(PRESENT_VALUE)) {
+            value = decoded.substring(PRESENT_VALUE.length(), separator);
+        } else {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+        try {
+            Long id = Long.valueOf(decoded.substring(separator + 1));
+            switch (order.getProperty()) {
+                case "name":
+                    return ProductSpecifications.after("name", order.getDirection(), value, id);
+                case "price":
+                case "rating":
+                    return ProductSpecifications.after(order.getProperty(), order.getDirection(),
+                            value == null ? null : Double.valueOf(value), id);
+                case "reviews":
+                    return ProductSpecifications.after("reviews", order.getDirection(),
+                            value == null ? null : Integer.valueOf(value), id);
+                default:
+                    return ProductSpecifications.after("id", order.getDirection(), id, id);
+            }
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+
+    private String encodeCursor(String property, Products last) {
+        String value;
+        switch (property) {
+            case "name": value = last.getName(); break;
+            case "price": value = String.valueOf(last.getPrice()); break;
+            case "rating": value = String.valueOf(last.getRating()); break;
+            case "reviews": value = String.valueOf(last.getReviews()); break;
+            default: value = String.valueOf(last.getId());
+        }
+        String raw = (value == null ? NULL_VALUE : PRESENT_VALUE + value) + "|" + last.getId();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
     }
 
-}
\ No newline at end of file
+}
@@ -0,0 +1,266 @@
+package com.Pharmacy.Pharmacy_website.service;
+
+import com.Pharmacy.Pharmacy_website.config.BackgroundThreads;
+import com.Pharmacy.Pharmacy_website.dto.ProductSuggestion;
+import com.Pharmacy.Pharmacy_website.entity.Products;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Autocomplete over product names and categories.
+ * Backed by a compressed prefix trie where every node already holds its top
+ * completions, so a lookup is a walk down the trie that returns a shared,
+ * precomputed list. The trie is immutable and rebuilt off the request path
+ * whenever the catalog changes.
+ */
+@Component
+public class ProductSuggester {
+
+    public static final int MAX_SUGGESTIONS = 10;
+    private static final int MAX_KEY_LENGTH = 64;
+
+    @Autowired
+    private ProductCatalogCache catalogCache;
+
+    @Autowired
+    private BackgroundThreads backgroundThreads;
+
+    private ExecutorService rebuildExecutor;
+    private final AtomicBoolean rebuildPending = new AtomicBoolean();
+    // Rebuilds may also run on request threads; a monitor would pin a virtual one for the whole build
+    private final ReentrantLock indexLock = new ReentrantLock();
+    private volatile Node root;
+
+    public List<ProductSuggestion> suggest(String query, int limit) {
+        if (query == null || query.isBlank() || limit <= 0) {
+            return Collections.emptyList();
+        }
+        Node node = root;
+        if (node == null) {
+            node = rebuild();
+        }
+        String prefix = query.strip().toLowerCase(Locale.ROOT);
+        int position = 0;
+        while (position < prefix.length()) {
+            int index = Arrays.binarySearch(node.firstChars, prefix.charAt(position));
+            if (index < 0) {
+                return Collections.emptyList();
+            }
+            Node child = node.children[index];
+            int length = Math.min(child.label.length(), prefix.length() - position);
+            if (!prefix.regionMatches(position, child.label, 0, length)) {
+                return Collections.emptyList();
+            }
+            position += child.label.length();
+            node = child;
+        }
+        return node.top.size() <= limit ? node.top : node.top.subList(0, limit);
+    }
+
+    @PostConstruct
+    public void start() {
+        rebuildExecutor = Executors.newSingleThreadExecutor(backgroundThreads.factory("product-suggester"));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void refresh() {
+        if (rebuildPending.compareAndSet(false, true)) {
+            rebuildExecutor.execute(() -> {
+                // Clear the flag first so writes landing mid-rebuild schedule another pass
+                rebuildPending.set(false);
+                rebuild();
+            });
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (rebuildExecutor != null) {
+            rebuildExecutor.shutdownNow();
+        }
+    }
+
+    Node rebuild() {
+        return index(catalogCache.view());
+    }
+
+    // Replaces the trie with one over exactly these products
+    public void rebuild(Collection<Products> products) {
+        index(products);
+    }
+
+    private Node index(Collection<Products> products) {
+        indexLock.lock();
+        try {
+            return buildIndex(products);
+        } finally {
+            indexLock.unlock();
+        }
+    }
+
+    private Node buildIndex(Collection<Products> products) {
+        Map<String, List<Candidate>> keys = new HashMap<>();
+        Map<String, Candidate> categories = new HashMap<>();
+        for (Products product : products) {
+            if (product.getName() == null || product.getName().isBlank()) {
+                continue;
+            }
+            double weight = weight(product);
+            Candidate candidate = new Candidate(
+                    new ProductSuggestion(product.getName(), "product", product.getId()), weight);
+            String name = product.getName().strip().toLowerCase(Locale.ROOT);
+            // Index the full name and every word start, so "para" completes "Tylenol Paracetamol"
+            for (int i = 0; i < name.length(); i++) {
+                if (i == 0 || (!Character.isLetterOrDigit(name.charAt(i - 1)) && Character.isLetterOrDigit(name.charAt(i)))) {
+                    addKey(keys, name.substring(i), candidate);
+                }
+            }
+            // A category ranks as its best product does; summing would let a big category crowd out every name
+            if (product.getCategory() != null && !product.getCategory().isBlank()) {
+                String category = product.getCategory().strip();
+                Candidate existing = categories.get(category.toLowerCase(Locale.ROOT));
+                if (existing == null) {
+                    categories.put(category.toLowerCase(Locale.ROOT),
+                            new Candidate(new ProductSuggestion(category, "category", null), weight));
+                } else {
+                    existing.weight = Math.max(existing.weight, weight);
+                }
+            }
+        }
+        for (Map.Entry<String, Candidate> category : categories.entrySet()) {
+            addKey(keys, category.getKey(), category.getValue());
+        }
+
+        String[] sorted = keys.keySet().toArray(new String[0]);
+        Arrays.sort(sorted);
+        Node built = sorted.length == 0
+                ? new Node("", new char[0], new Node[0], Collections.emptyList())
+                : build(sorted, 0, sorted.length, 0, 0, keys).node;
+        root = built;
+        return built;
+    }
+
+    private static void addKey(Map<String, List<Candidate>> keys, String key, Candidate candidate) {
+        String trimmed = key.length() > MAX_KEY_LENGTH ? key.substring(0, MAX_KEY_LENGTH) : key;
+        keys.computeIfAbsent(trimmed, k -> new ArrayList<>(1)).add(candidate);
+    }
+
+    // Builds the subtree for sorted[lo, hi), all of which share the first `depth` characters.
+    // The node's edge label starts at labelStart, where the parent branched.
+    private static Built build(String[] sorted, int lo, int hi, int labelStart, int depth,
+                               Map<String, List<Candidate>> keys) {
+        String first = sorted[lo];
+        String last = sorted[hi - 1];
+        int end = depth;
+        // The root keeps an empty label so lookups always start by branching
+        while (depth > 0 && end < first.length() && end < last.length() && first.charAt(end) == last.charAt(end)) {
+            end++;
+        }
+
+        List<Candidate> candidates = new ArrayList<>();
+        int start = lo;
+        if (first.length() == end) {
+            candidates.addAll(keys.get(first));
+            start++;
+        }
+        List<Character> firstChars = new ArrayList<>();
+        List<Node> children = new ArrayList<>();
+        while (start < hi) {
+            char branch = sorted[start].charAt(end);
+            int stop = start + 1;
+            while (stop < hi && sorted[stop].charAt(end) == branch) {
+                stop++;
+            }
+            Built child = build(sorted, start, stop, end, end + 1, keys);
+            firstChars.add(branch);
+            children.add(child.node);
+            candidates.addAll(child.top);
+            start = stop;
+        }
+
+        List<Candidate> top = topCandidates(candidates);
+        List<ProductSuggestion> suggestions = new ArrayList<>(top.size());
+        for (Candidate candidate : top) {
+            suggestions.add(candidate.suggestion);
+        }
+        char[] chars = new char[firstChars.size()];
+        for (int i = 0; i < chars.length; i++) {
+            chars[i] = firstChars.get(i);
+        }
+        Node node = new Node(first.substring(labelStart, end), chars, children.toArray(new Node[0]),
+                Collections.unmodifiableList(suggestions));
+        return new Built(node, top);
+    }
+
+    private static List<Candidate> topCandidates(List<Candidate> candidates) {
+        candidates.sort((a, b) -> Double.compare(b.weight, a.weight));
+        List<Candidate> top = new ArrayList<>(Math.min(candidates.size(), MAX_SUGGESTIONS));
+        Map<Candidate, Boolean> seen = new IdentityHashMap<>();
+        for (Candidate candidate : candidates) {
+            if (seen.put(candidate, Boolean.TRUE) == null) {
+                top.add(candidate);
+                if (top.size() == MAX_SUGGESTIONS) {
+                    break;
+                }
+            }
+        }
+        return top;
+    }
+
+    private static double weight(Products product) {
+        return Math.log1p(Math.max(product.getReviews(), 0)) * Math.max(product.getRating(), 1.0)
+                + (product.isFeatured() ? 1.0 : 0.0);
+    }
+
+    private static final class Candidate {
+        final ProductSuggestion suggestion;
+        double weight;
+
+        Candidate(ProductSuggestion suggestion, double weight) {
+            this.suggestion = suggestion;
+            this.weight = weight;
+        }
+    }
+
+    private static final class Built {
+        final Node node;
+        final List<Candidate> top;
+
+        Built(Node node, List<Candidate> top) {
+            this.node = node;
+            this.top = top;
+        }
+    }
+
+    static final class Node {
+        final String label;
+        final char[] firstChars;
+        final Node[] children;
+        final List<ProductSuggestion> top;
+
+        Node(String label, char[] firstChars, Node[] children, List<ProductSuggestion> top) {
+            this.label = label;
+            this.firstChars = firstChars;
+            this.children = children;
+            this.top = top;
+        }
+    }
+}
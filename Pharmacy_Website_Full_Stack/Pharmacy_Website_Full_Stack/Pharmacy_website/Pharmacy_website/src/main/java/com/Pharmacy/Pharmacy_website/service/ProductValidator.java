@@ -0,0 +1,37 @@
+package com.Pharmacy.Pharmacy_website.service;
+
+import com.Pharmacy.Pharmacy_website.entity.Products;
+
+/**
+ * The rules every product write has to pass, shared by the single-product
+ * endpoints and the bulk import. Stateless, so import rows can be checked
+ * from several threads at once.
+ */
+public final class ProductValidator {
+
+    public static final String DEFAULT_IMAGE = "https://via.placeholder.com/300x300.png?text=No+Image";
+    public static final double DEFAULT_RATING = 4.5;
+
+    private ProductValidator() {}
+
+    // Returns the first rule the product breaks, or null once the optional fields have their defaults
+    public static String validate(Products product) {
+        if (product.getName() == null || product.getName().trim().isEmpty()) {
+            return "Product name is required";
+        }
+        if (product.getPrice() <= 0) {
+            return "Product price must be greater than zero";
+        }
+        if (product.getCategory() == null || product.getCategory().trim().isEmpty()) {
+            return "Product category is required";
+        }
+
+        if (product.getImage() == null || product.getImage().trim().isEmpty()) {
+            product.setImage(DEFAULT_IMAGE);
+        }
+        if (product.getRating() <= 0) {
+            product.setRating(DEFAULT_RATING);
+        }
+        return null;
+    }
+}
@@ -2,36 +2,65 @@ package com.Pharmacy.Pharmacy_website.service;
 
 import com.Pharmacy.Pharmacy_website.entity.User;
 import com.Pharmacy.Pharmacy_website.repo.UserRepo;
+import com.Pharmacy.Pharmacy_website.security.CredentialService;
+import com.Pharmacy.Pharmacy_website.security.PrincipalResolver;
+import io.micrometer.core.annotation.Timed;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
 
 @Service
+@Timed(value = "pharmacy.service", histogram = true)
 public class UserService {
     @Autowired
     private UserRepo userRepo;
 
+    @Autowired
+    private CredentialService credentialService;
+
+    @Autowired
+    private PrincipalResolver principalResolver;
+
+    @Autowired
+    private DashboardAggregates dashboardAggregates;
+
     public List<User> getAllUser() {
         return userRepo.findAll();
     }
 
+    public Page<User> getUserPage(int page, int size) {
+        return userRepo.findAll(PageRequest.of(page, size, Sort.by("id")));
+    }
+
     public User getUserById(Long id) {
         return userRepo.findById(id).orElseThrow(() -> new RuntimeException("User with id " + id + " not found"));
     }
 
     public void createUser(User user) {
+        boolean added = user.getId() == null;
+        user.setPassword(credentialService.hashIfNeeded(user.getPassword()));
         userRepo.save(user);
+        if (added) {
+            dashboardAggregates.userAdded();
+        }
+        principalResolver.invalidate(user.getEmail());
     }
 
     public void updateUser(User User) {
         userRepo.findById(User.getId()).orElseThrow(() -> new RuntimeException("User with id " + User.getId() + " not found"));
+        User.setPassword(credentialService.hashIfNeeded(User.getPassword()));
         userRepo.save(User);
+        principalResolver.invalidate(User.getEmail());
     }
 
     public void deleteUser(Long id) {
         userRepo.findById(id).orElseThrow(() -> new RuntimeException("User with id " + id + " not found"));
         userRepo.deleteById(id);
+        dashboardAggregates.userRemoved();
     }
 
     public User findUserByEmail(String email) {
@@ -40,7 +69,8 @@ public class UserService {
 
     public boolean verifyCredentials(String email, String password) {
         User User = userRepo.findByEmail(email);
-        if (User.getPassword().equals(password)) {
+        if (User != null && credentialService.verify(password, User.getPassword())) {
+            credentialService.upgradeAfterLogin(User, password);
             return true;
         }
 
@@ -0,0 +1,304 @@
+package com.Pharmacy.Pharmacy_website.Controller;
+
+import com.Pharmacy.Pharmacy_website.dto.CartItemRequest;
+import com.Pharmacy.Pharmacy_website.entity.Products;
+import com.Pharmacy.Pharmacy_website.entity.User;
+import com.Pharmacy.Pharmacy_website.repo.UserRepo;
+import com.Pharmacy.Pharmacy_website.service.OrderService;
+import com.Pharmacy.Pharmacy_website.service.ProductService;
+import com.Pharmacy.Pharmacy_website.support.QueryCounter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.io.ByteArrayInputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class CatalogConditionalGetTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(CatalogConditionalGetTest.class);
+    private static final int PRODUCTS = 200;
+    private static final int SESSIONS = 30;
+    private static final int TRACE_SECONDS = 3600;
+    private static final int POLL_SECONDS = 60;
+    private static final int PRODUCT_VIEWS_PER_SESSION = 20;
+    private static final int PRICE_EDITS = 4;
+    // About one checkout every ten seconds
+    private static final int CHECKOUTS = 360;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private UserRepo userRepo;
+
+    private final List<Products> products = new ArrayList<>();
+    private User buyer;
+
+    @BeforeEach
+    void seedCatalog() {
+        String run = UUID.randomUUID().toString().substring(0, 8);
+        for (int i = 0; i < PRODUCTS; i++) {
+            Products product = new Products();
+            product.setName("Trace product " + run + "-" + i);
+            product.setCategory("Trace " + (i % 8));
+            product.setDescription("Film-coated tablets, pack of " + (10 + i % 5 * 10) + ". Read the leaflet before use.");
+            product.setImage("/images/trace-" + i + ".jpg");
+            product.setPrice(2.0 + i % 40);
+            product.setStock(10_000);
+            products.add(productService.createProduct(product));
+        }
+        buyer = new User();
+        buyer.setName("Trace buyer");
+        buyer.setEmail("trace-" + run + "@example.com");
+        buyer.setPassword("x");
+        buyer = userRepo.save(buyer);
+    }
+
+    @Test
+    void unchangedCatalogIsAnsweredWithoutQueriesOrBody() throws Exception {
+        MockHttpServletResponse first = mockMvc.perform(get("/api/products")).andReturn().getResponse();
+        assertEquals(200, first.getStatus());
+        String eTag = first.getHeader(HttpHeaders.ETAG);
+        assertNotNull(eTag);
+        assertNotNull(first.getHeader(HttpHeaders.LAST_MODIFIED));
+
+        MockHttpServletResponse revalidated = QueryCounter.assertAtMost(0, () -> mockMvc.perform(get("/api/products")
+                .header(HttpHeaders.IF_NONE_MATCH, eTag)).andReturn().getResponse());
+        assertEquals(304, revalidated.getStatus());
+        assertEquals(0, revalidated.getContentAsByteArray().length);
+
+        MockHttpServletResponse byDate = mockMvc.perform(get("/api/products")
+                .header(HttpHeaders.IF_MODIFIED_SINCE, first.getHeader(HttpHeaders.LAST_MODIFIED)))
+                .andReturn().getResponse();
+        assertEquals(304, byDate.getStatus());
+
+        // The gzipped body is the same catalog
+        MockHttpServletResponse gzipped = mockMvc.perform(get("/api/products")
+                .header(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate, br")).andReturn().getResponse();
+        assertEquals("gzip", gzipped.getHeader(HttpHeaders.CONTENT_ENCODING));
+        assertArrayEquals(first.getContentAsByteArray(), gunzip(gzipped.getContentAsByteArray()));
+        assertTrue(gzipped.getContentAsByteArray().length < first.getContentAsByteArray().length / 3);
+    }
+
+    @Test
+    void productWritesChangeTheCatalogETagAndOrdersOnlyTheStockETag() throws Exception {
+        Products product = products.get(0);
+        String original = eTag("/api/products/" + product.getId());
+
+        product.setPrice(product.getPrice() + 1);
+        productService.updateProduct(product);
+        String afterEdit = eTag("/api/products/" + product.getId());
+        assertNotEquals(original, afterEdit);
+        MockHttpServletResponse stale = mockMvc.perform(get("/api/products/" + product.getId())
+                .header(HttpHeaders.IF_NONE_MATCH, original)).andReturn().getResponse();
+        assertEquals(200, stale.getStatus());
+        assertEquals(product.getPrice(), objectMapper.readTree(stale.getContentAsByteArray()).get("price").asDouble());
+
+        MockHttpServletResponse stock = mockMvc.perform(get("/api/products/stock")).andReturn().getResponse();
+        String stockETag = stock.getHeader(HttpHeaders.ETAG);
+        String catalogETag = eTag("/api/products");
+        Long ordered = products.get(1).getId();
+        assertEquals(10_000, objectMapper.readTree(stock.getContentAsByteArray()).get(ordered.toString()).asInt());
+
+        orderService.placeCartOrder(buyer, List.of(line(ordered, 1)));
+        assertEquals(afterEdit, eTag("/api/products/" + product.getId()));
+        assertEquals(catalogETag, eTag("/api/products"));
+        assertEquals(304, mockMvc.perform(get("/api/products").header(HttpHeaders.IF_NONE_MATCH, catalogETag))
+                .andReturn().getResponse().getStatus());
+        MockHttpServletResponse restocked = mockMvc.perform(get("/api/products/stock")
+                .header(HttpHeaders.IF_NONE_MATCH, stockETag)).andReturn().getResponse();
+        assertEquals(200, restocked.getStatus());
+        assertNotEquals(stockETag, restocked.getHeader(HttpHeaders.ETAG));
+        assertEquals(9_999, objectMapper.readTree(restocked.getContentAsByteArray()).get(ordered.toString()).asInt());
+        assertEquals(304, mockMvc.perform(get("/api/products/stock")
+                .header(HttpHeaders.IF_NONE_MATCH, restocked.getHeader(HttpHeaders.ETAG))).andReturn().getResponse().getStatus());
+
+        assertEquals(404, mockMvc.perform(get("/api/products/" + Long.MAX_VALUE)).andReturn().getResponse().getStatus());
+    }
+
+    // A simulated hour of storefront traffic: every open tab polls the catalog and its stock and opens
+    // product pages, while an admin edits a few prices and customers check out all the time
+    @Test
+    void replayedBrowserTraceSavesBandwidthAndCpu() throws Exception {
+        List<Event> trace = browserTrace(new Random(42));
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+
+        // After: each browser keeps its ETags like an HTTP cache does and accepts gzip
+        List<Map<String, String>> browserCaches = new ArrayList<>();
+        for (int i = 0; i < SESSIONS; i++) {
+            browserCaches.add(new HashMap<>());
+        }
+        long bytes = 0;
+        long cpu = 0;
+        int requests = 0;
+        int notModified = 0;
+        int stockRequests = 0;
+        for (Event event : trace) {
+            if (event.session < 0) {
+                applyWrite(event);
+                continue;
+            }
+            String path = path(event);
+            Map<String, String> cache = browserCaches.get(event.session);
+            MockHttpServletRequestBuilder request = get(path).header(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate, br");
+            if (cache.containsKey(path)) {
+                request.header(HttpHeaders.IF_NONE_MATCH, cache.get(path));
+            }
+            long started = threads.getCurrentThreadCpuTime();
+            MockHttpServletResponse response = mockMvc.perform(request).andReturn().getResponse();
+            cpu += threads.getCurrentThreadCpuTime() - started;
+            bytes += response.getContentAsByteArray().length;
+            if (event.stock) {
+                stockRequests++;
+            } else {
+                requests++;
+            }
+            if (response.getStatus() == 304) {
+                notModified += event.stock ? 0 : 1;
+            } else {
+                assertEquals(200, response.getStatus());
+                cache.put(path, response.getHeader(HttpHeaders.ETAG));
+            }
+        }
+
+        // Before, replayed second so it runs on the warmer JIT: every GET went through the same dispatch, serialized the body again and sent it uncompressed
+        long baselineBytes = 0;
+        long baselineCpu = 0;
+        for (Event event : trace) {
+            // Stock used to come inside the catalog body
+            if (event.session < 0 || event.stock) {
+                continue;
+            }
+            long started = threads.getCurrentThreadCpuTime();
+            mockMvc.perform(get(path(event))).andReturn();
+            Object body = event.productId == null
+                    ? productService.getAllProduct()
+                    : productService.getProductById(event.productId);
+            baselineBytes += objectMapper.writeValueAsBytes(body).length;
+            baselineCpu += threads.getCurrentThreadCpuTime() - started;
+        }
+
+        logger.debug("Catalog trace: {} catalog GETs and {} stock GETs over {} tabs with {} checkouts, {} catalog GETs answered 304; "
+                        + "body bytes {} -> {}; request CPU {} ms -> {} ms", requests, stockRequests, SESSIONS, CHECKOUTS,
+                notModified, baselineBytes, bytes, baselineCpu / 1_000_000, cpu / 1_000_000);
+        // Checkouts only move the stock validators, so the catalog keeps revalidating
+        assertTrue(notModified > requests / 2, notModified + " of " + requests);
+        assertTrue(bytes < baselineBytes / 10, bytes + " vs " + baselineBytes);
+        assertTrue(cpu < baselineCpu, cpu + " vs " + baselineCpu);
+    }
+
+    private static String path(Event event) {
+        if (event.stock) {
+            return "/api/products/stock";
+        }
+        return event.productId == null ? "/api/products" : "/api/products/" + event.productId;
+    }
+
+    private List<Event> browserTrace(Random random) {
+        List<Event> trace = new ArrayList<>();
+        for (int session = 0; session < SESSIONS; session++) {
+            // Tabs open at different times, so they see different catalog versions first
+            for (int t = random.nextInt(POLL_SECONDS); t < TRACE_SECONDS; t += POLL_SECONDS) {
+                trace.add(new Event(t, session, null));
+                trace.add(new Event(t, session, null, true));
+            }
+            for (int v = 0; v < PRODUCT_VIEWS_PER_SESSION; v++) {
+                // Shoppers keep coming back to a few popular products
+                int index = random.nextInt(4) == 0 ? random.nextInt(PRODUCTS) : random.nextInt(10);
+                trace.add(new Event(random.nextInt(TRACE_SECONDS), session, products.get(index).getId()));
+            }
+        }
+        for (int i = 0; i < PRICE_EDITS; i++) {
+            trace.add(new Event(TRACE_SECONDS / PRICE_EDITS * i + 600, -1, products.get(random.nextInt(PRODUCTS)).getId()));
+        }
+        for (int i = 0; i < CHECKOUTS; i++) {
+            trace.add(new Event(random.nextInt(TRACE_SECONDS), -2, products.get(random.nextInt(PRODUCTS)).getId()));
+        }
+        trace.sort((a, b) -> Integer.compare(a.second, b.second));
+        return trace;
+    }
+
+    private void applyWrite(Event event) {
+        if (event.session == -1) {
+            Products product = productService.getProductById(event.productId);
+            product.setPrice(product.getPrice() + 0.5);
+            productService.updateProduct(product);
+        } else {
+            orderService.placeCartOrder(buyer, List.of(line(event.productId, 1)));
+        }
+    }
+
+    private String eTag(String path) throws Exception {
+        return mockMvc.perform(get(path)).andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+    }
+
+    private static byte[] gunzip(byte[] gzipped) throws Exception {
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(gzipped))) {
+            return in.readAllBytes();
+        }
+    }
+
+    private static CartItemRequest line(Long productId, int quantity) {
+        CartItemRequest line = new CartItemRequest();
+        line.setProductId(productId);
+        line.setQuantity(quantity);
+        return line;
+    }
+
+    // session -1 is a price edit, -2 an order; otherwise a GET from that tab
+    private static final class Event {
+        final int second;
+        final int session;
+        final Long productId;
+        final boolean stock;
+
+        Event(int second, int session, Long productId) {
+            this(second, session, productId, false);
+        }
+
+        Event(int second, int session, Long productId, boolean stock) {
+            this.second = second;
+            this.session = session;
+            this.productId = productId;
+            this.stock = stock;
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.Pharmacy.Pharmacy_website.Controller;
+
+import com.Pharmacy.Pharmacy_website.entity.Message;
+import com.Pharmacy.Pharmacy_website.service.ContactMessageQueue;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class ContactApiControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ContactMessageQueue contactMessageQueue;
+
+    @Test
+    void overLongFieldsAreRejectedBeforeTheyAreQueued() throws Exception {
+        long acceptedBefore = (Long) contactMessageQueue.stats().get("accepted");
+
+        send("Over long", "long@contact.test", "x".repeat(Message.MAX_CONTENT_LENGTH + 1))
+                .andExpect(status().isBadRequest());
+        send("Over long", "x".repeat(Message.MAX_EMAIL_LENGTH) + "@contact.test", "Hello")
+                .andExpect(status().isBadRequest());
+        send("x".repeat(Message.MAX_NAME_LENGTH + 1), "long@contact.test", "Hello")
+                .andExpect(status().isBadRequest());
+
+        assertEquals(acceptedBefore, contactMessageQueue.stats().get("accepted"));
+    }
+
+    private ResultActions send(String name, String email, String content) throws Exception {
+        Message message = new Message();
+        message.setName(name);
+        message.setEmail(email);
+        message.setContent(content);
+        return mockMvc.perform(post("/api/contact")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(message)));
+    }
+}
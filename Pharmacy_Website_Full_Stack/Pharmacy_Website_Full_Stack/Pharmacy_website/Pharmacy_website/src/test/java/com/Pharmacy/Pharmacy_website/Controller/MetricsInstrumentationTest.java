@@ -0,0 +1,83 @@
+package com.Pharmacy.Pharmacy_website.Controller;
+
+import com.Pharmacy.Pharmacy_website.security.PasswordHashingService;
+import com.Pharmacy.Pharmacy_website.service.ProductService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class MetricsInstrumentationTest {
+
+    private static final int CALLS = 200_000;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private MeterRegistry registry;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private PasswordHashingService passwordHashingService;
+
+    @Test
+    void requestsAreTimedPerEndpointAndOutcome() throws Exception {
+        mockMvc.perform(get("/api/products")).andExpect(status().isOk());
+        mockMvc.perform(get("/api/products/" + Long.MAX_VALUE)).andExpect(status().isNotFound());
+
+        assertTrue(count(registry.find("http.server.requests")
+                .tags("uri", "/api/products", "outcome", "SUCCESS").timer()) >= 1);
+        assertTrue(count(registry.find("http.server.requests")
+                .tags("uri", "/api/products/{id}", "outcome", "CLIENT_ERROR", "status", "404").timer()) >= 1);
+    }
+
+    @Test
+    void servicesHashingPoolAndHibernateAreInstrumented() {
+        productService.getAllProduct();
+        assertTrue(count(registry.find("pharmacy.service").tags("method", "getAllProduct").timer()) >= 1);
+
+        passwordHashingService.encode("metrics-check").join();
+        assertTrue(count(registry.find("pharmacy.bcrypt.hash").tag("outcome", "success").timer()) >= 1);
+        assertTrue(count(registry.find("pharmacy.bcrypt.queue.wait").timer()) >= 1);
+
+        assertNotNull(registry.find("hikaricp.connections.acquire").timer());
+        assertFalse(registry.find("hibernate.statements").meters().isEmpty());
+        // The figures /api/metrics already reported, as gauges
+        assertNotNull(registry.find("pharmacy.mail.queueDepth").gauge());
+        assertNotNull(registry.find("pharmacy.catalogCache.version").gauge());
+    }
+
+    // The timer on a cached read must stay small next to a request
+    @Test
+    void timingAServiceCallCostsMicrosecondsAtMost() {
+        for (int i = 0; i < CALLS; i++) {
+            productService.findProductByName("metrics-check");
+        }
+        long started = System.nanoTime();
+        for (int i = 0; i < CALLS; i++) {
+            productService.findProductByName("metrics-check");
+        }
+        double nanosPerCall = (System.nanoTime() - started) / (double) CALLS;
+        assertTrue(nanosPerCall < 20_000, nanosPerCall + " ns");
+    }
+
+    private static long count(Timer timer) {
+        return timer == null ? 0 : timer.count();
+    }
+}
@@ -0,0 +1,104 @@
+package com.Pharmacy.Pharmacy_website.Controller;
+
+import com.Pharmacy.Pharmacy_website.dto.CartItemRequest;
+import com.Pharmacy.Pharmacy_website.entity.OrderStatus;
+import com.Pharmacy.Pharmacy_website.entity.Products;
+import com.Pharmacy.Pharmacy_website.entity.User;
+import com.Pharmacy.Pharmacy_website.repo.OrderRepo;
+import com.Pharmacy.Pharmacy_website.repo.UserRepo;
+import com.Pharmacy.Pharmacy_website.security.JwtService;
+import com.Pharmacy.Pharmacy_website.service.OrderService;
+import com.Pharmacy.Pharmacy_website.service.ProductService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class OrderCancelAuthorizationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JwtService jwtService;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private OrderRepo orderRepo;
+
+    @Autowired
+    private UserRepo userRepo;
+
+    @Test
+    void usersCancelOnlyTheirOwnOrders() throws Exception {
+        User owner = user();
+        User other = user();
+        Long id = placeOrder(owner);
+
+        // Another user's order looks exactly like one that does not exist
+        cancel(id, token(other, "user")).andExpect(status().isNotFound());
+        cancel(Long.MAX_VALUE, token(other, "user")).andExpect(status().isNotFound());
+        assertEquals(OrderStatus.PLACED, orderRepo.findById(id).orElseThrow().getStatus());
+
+        cancel(id, token(owner, "user")).andExpect(status().isOk());
+        assertEquals(OrderStatus.CANCELLED, orderRepo.findById(id).orElseThrow().getStatus());
+        assertEquals(10, productService.findProductByName(productName(owner)).getStock());
+    }
+
+    @Test
+    void adminsCancelAnyOrder() throws Exception {
+        Long id = placeOrder(user());
+        cancel(id, jwtService.createAccessToken(1L, "admin@pharmacy.com", "admin")).andExpect(status().isOk());
+        assertEquals(OrderStatus.CANCELLED, orderRepo.findById(id).orElseThrow().getStatus());
+    }
+
+    private ResultActions cancel(Long id, String token) throws Exception {
+        return mockMvc.perform(post("/api/orders/{id}/cancel", id)
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + token));
+    }
+
+    private Long placeOrder(User buyer) {
+        Products product = new Products();
+        product.setName(productName(buyer));
+        product.setCategory("Cancel");
+        product.setPrice(2.0);
+        product.setStock(10);
+        Products saved = productService.createProduct(product);
+        return orderService.placeCartOrder(buyer, List.of(new CartItemRequest(saved.getId(), 3))).getId();
+    }
+
+    private String token(User user, String role) {
+        return jwtService.createAccessToken(user.getId(), user.getEmail(), role);
+    }
+
+    private User user() {
+        User user = new User();
+        user.setName("Cancel buyer");
+        user.setEmail("cancel-" + UUID.randomUUID() + "@example.com");
+        user.setPassword("x");
+        return userRepo.save(user);
+    }
+
+    private static String productName(User buyer) {
+        return "Cancel product " + buyer.getEmail();
+    }
+}
@@ -0,0 +1,182 @@
+package com.Pharmacy.Pharmacy_website.Controller;
+
+import com.Pharmacy.Pharmacy_website.dto.CartItemRequest;
+import com.Pharmacy.Pharmacy_website.entity.Order;
+import com.Pharmacy.Pharmacy_website.entity.OrderItem;
+import com.Pharmacy.Pharmacy_website.entity.Products;
+import com.Pharmacy.Pharmacy_website.entity.User;
+import com.Pharmacy.Pharmacy_website.repo.OrderRepo;
+import com.Pharmacy.Pharmacy_website.repo.UserRepo;
+import com.Pharmacy.Pharmacy_website.security.JwtService;
+import com.Pharmacy.Pharmacy_website.service.OrderService;
+import com.Pharmacy.Pharmacy_website.service.ProductService;
+import com.Pharmacy.Pharmacy_website.support.QueryCounter;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class OrderQueryBudgetTest {
+
+    private static final int BUYERS = 10;
+    private static final int ORDERS_PER_BUYER = 3;
+    private static final AtomicInteger RUN = new AtomicInteger();
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private JwtService jwtService;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private OrderRepo orderRepo;
+
+    @Autowired
+    private UserRepo userRepo;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final List<User> buyers = new ArrayList<>();
+
+    // Several buyers and products, so a lazy association costs one query per distinct row
+    @BeforeEach
+    void placeOrders() {
+        int run = RUN.incrementAndGet();
+        List<Products> products = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            Products product = new Products();
+            product.setName("Budget product " + run + "-" + i);
+            product.setCategory("Budget");
+            product.setPrice(1.25 + i);
+            product.setStock(1000);
+            products.add(productService.createProduct(product));
+        }
+        for (int b = 0; b < BUYERS; b++) {
+            User buyer = new User();
+            buyer.setName("Budget buyer " + b);
+            buyer.setEmail("budget-" + run + "-" + b + "@example.com");
+            buyer.setPassword("x");
+            buyer = userRepo.save(buyer);
+            buyers.add(buyer);
+            for (int o = 0; o < ORDERS_PER_BUYER; o++) {
+                orderService.placeCartOrder(buyer, List.of(
+                        line(products.get(o % 3).getId(), 1), line(products.get((o + 1) % 3).getId(), 2)));
+            }
+            // A single-product order, the shape the admin form creates
+            Order single = new Order();
+            single.setUser(buyer);
+            single.setProduct(products.get(b % 3));
+            single.setQuantity(1);
+            single.setDate(new Date());
+            orderService.placeOrder(single);
+        }
+    }
+
+    @Test
+    void adminOrderApiRunsTwoQueriesWhateverThePageSize() throws Exception {
+        String token = jwtService.createAccessToken(1L, "admin@pharmacy.com", "admin");
+
+        // The summary query plus its count
+        MvcResult result = QueryCounter.assertAtMost(2, () -> mockMvc.perform(get("/api/admin/orders")
+                        .param("size", "50")
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + token))
+                .andExpect(status().isOk())
+                .andReturn());
+
+        JsonNode content = objectMapper.readTree(result.getResponse().getContentAsString()).get("content");
+        assertTrue(content.size() >= BUYERS * (ORDERS_PER_BUYER + 1));
+        for (JsonNode order : content) {
+            assertNotNull(order.get("userEmail").asText(null));
+            assertTrue(order.get("lineCount").asInt() > 0 || order.hasNonNull("productName"));
+        }
+    }
+
+    @Test
+    void adminHomePageOrdersArrivePreloaded() throws Exception {
+        // Page, count and one query for every line on the page
+        Page<Order> page = QueryCounter.assertAtMost(3, () -> orderService.getOrderPage(0, 50));
+
+        // Rendered after the transaction closed, as the view does: nothing left to load lazily
+        int lines = 0;
+        for (Order order : page.getContent()) {
+            assertNotNull(order.getUser().getEmail());
+            if (order.getProduct() != null) {
+                assertNotNull(order.getProduct().getName());
+            }
+            for (OrderItem item : order.getItems()) {
+                assertNotNull(item.getProduct().getName());
+                lines++;
+            }
+        }
+        assertTrue(lines >= 2 * BUYERS * ORDERS_PER_BUYER || page.getTotalElements() > 50);
+    }
+
+    @Test
+    void userOrderPageLoadsInOneQuery() throws Exception {
+        User buyer = buyers.get(0);
+        List<Order> orders = QueryCounter.assertAtMost(1, () -> orderService.findOrdersByUser(buyer));
+
+        assertEquals(ORDERS_PER_BUYER + 1, orders.size());
+        for (Order order : orders) {
+            assertEquals(buyer.getEmail(), order.getUser().getEmail());
+            for (OrderItem item : order.getItems()) {
+                assertNotNull(item.getProduct().getName());
+            }
+        }
+    }
+
+    @Test
+    void budgetCatchesLazyLoadingPerOrder() {
+        // The inherited findAll(Pageable) has no fetch plan: touching each buyer is one more query per buyer
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        assertThrows(AssertionError.class, () -> QueryCounter.assertAtMost(3, () -> transaction.execute(status -> {
+            for (Order order : orderRepo.findAll(PageRequest.of(0, 50)).getContent()) {
+                order.getUser().getEmail();
+            }
+            return null;
+        })));
+    }
+
+    private static CartItemRequest line(Long productId, int quantity) {
+        CartItemRequest line = new CartItemRequest();
+        line.setProductId(productId);
+        line.setQuantity(quantity);
+        return line;
+    }
+}
@@ -0,0 +1,64 @@
+package com.Pharmacy.Pharmacy_website.Controller;
+
+import com.Pharmacy.Pharmacy_website.repo.UserRepo;
+import com.Pharmacy.Pharmacy_website.security.PrincipalResolver;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class UserRegistrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserRepo userRepo;
+
+    @MockitoSpyBean
+    private PrincipalResolver principalResolver;
+
+    // The save and the cache and dashboard updates after it must not occupy a BCrypt thread
+    @Test
+    void registrationPersistsOffTheHashingPool() throws Exception {
+        AtomicReference<String> persistedOn = new AtomicReference<>();
+        doAnswer(invocation -> {
+            persistedOn.set(Thread.currentThread().getName());
+            return invocation.callRealMethod();
+        }).when(principalResolver).invalidate(anyString());
+
+        String email = "register-" + UUID.randomUUID() + "@example.com";
+        MvcResult started = mockMvc.perform(post("/api/users")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":\"New user\",\"email\":\"" + email + "\",\"password\":\"secret123\"}"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(started)).andExpect(status().isCreated());
+
+        assertNotNull(userRepo.findByEmail(email));
+        assertTrue(userRepo.findByEmail(email).getPassword().startsWith("$2"));
+        assertNotNull(persistedOn.get());
+        assertFalse(persistedOn.get().startsWith("bcrypt-"), "persisted on " + persistedOn.get());
+    }
+}
@@ -0,0 +1,68 @@
+package com.Pharmacy.Pharmacy_website.config;
+
+import com.Pharmacy.Pharmacy_website.dto.CartItemRequest;
+import com.Pharmacy.Pharmacy_website.entity.Order;
+import com.Pharmacy.Pharmacy_website.entity.OrderItem;
+import com.Pharmacy.Pharmacy_website.entity.Products;
+import com.Pharmacy.Pharmacy_website.service.OrderService;
+import com.Pharmacy.Pharmacy_website.service.ProductService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class IdSequenceSeederTest {
+
+    // More than one allocation block, so ids cached before the seed run out during the test
+    private static final int ORDERS = 120;
+
+    @Autowired
+    private IdSequenceSeeder seeder;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    // Rows written before the switch from IDENTITY sit far above where the fresh sequences start
+    @Test
+    void newIdsNeverCollideWithRowsAlreadyInTheTables() {
+        Products product = new Products();
+        product.setName("Sequence seed product");
+        product.setCategory("Sequence");
+        product.setPrice(1.0);
+        product.setStock(ORDERS);
+        product = productService.createProduct(product);
+
+        long legacyOrder = jdbcTemplate.queryForObject("select coalesce(max(id), 0) from orders", Long.class) + 75;
+        long legacyItem = jdbcTemplate.queryForObject("select coalesce(max(id), 0) from order_items", Long.class) + 75;
+        jdbcTemplate.update("insert into orders (id, quantity) values (?, 0)", legacyOrder);
+        jdbcTemplate.update("insert into order_items (id, orderID, productID, quantity) values (?, ?, ?, 0)",
+                legacyItem, legacyOrder, product.getId());
+        try {
+            seeder.seed();
+
+            Order last = null;
+            for (int i = 0; i < ORDERS; i++) {
+                last = orderService.placeCartOrder(null, List.of(new CartItemRequest(product.getId(), 1)));
+            }
+            assertTrue(last.getId() > legacyOrder, last.getId() + " <= " + legacyOrder);
+            OrderItem item = last.getItems().get(0);
+            assertTrue(item.getId() > legacyItem, item.getId() + " <= " + legacyItem);
+        } finally {
+            jdbcTemplate.update("delete from order_items where id = ?", legacyItem);
+            jdbcTemplate.update("delete from orders where id = ?", legacyOrder);
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package com.Pharmacy.Pharmacy_website.loadtest;
+
+import com.Pharmacy.Pharmacy_website.service.OrderExportService;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Exports a million orders from a JVM whose heap is far too small to hold them,
+ * so the export only passes if it really streams. The database is an H2 file in
+ * a temporary directory, seeded inside the database, so it stays off that heap
+ * apart from its page cache. Run with mvn test -Pload-tests -Dtest=OrderExportLoadTest,
+ * tuned by load.export.rows (1000000) and load.export.heap (64m).
+ */
+@Tag("load")
+class OrderExportLoadTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(OrderExportLoadTest.class);
+    private static final int ROWS = Integer.getInteger("load.export.rows", 1_000_000);
+    private static final String HEAP = System.getProperty("load.export.heap", "64m");
+    private static final int SEED_CHUNK = 100_000;
+
+    @TempDir
+    Path databaseDir;
+
+    @Test
+    void exportsEveryRowInASmallHeap() throws Exception {
+        String java = Paths.get(System.getProperty("java.home"), "bin", "java").toString();
+        Process fork = new ProcessBuilder(java, "-Xmx" + HEAP, "-XX:+ExitOnOutOfMemoryError",
+                "-cp", System.getProperty("java.class.path"), Export.class.getName(),
+                databaseDir.resolve("export").toString(), Integer.toString(ROWS))
+                .redirectErrorStream(true)
+                .start();
+        String output = new String(fork.getInputStream().readAllBytes(), StandardCharsets.UTF_8).strip();
+        assertTrue(fork.waitFor(10, TimeUnit.MINUTES), "export did not finish");
+
+        assertEquals(0, fork.exitValue(), output);
+        String[] lines = output.split("\n");
+        String[] counts = lines[lines.length - 1].split(" ");
+        assertEquals(ROWS, Long.parseLong(counts[0]), output);
+        assertEquals(ROWS + 1, Long.parseLong(counts[1]), output); // header
+        logger.debug("Order export in -Xmx{}: {} rows, {} MB of CSV in {} ms",
+                HEAP, counts[0], Long.parseLong(counts[2]) >> 20, counts[3]);
+    }
+
+    // Runs in the forked JVM; the last line printed is "rows lines bytes millis"
+    static final class Export {
+
+        public static void main(String[] args) throws Exception {
+            DriverManagerDataSource dataSource = new DriverManagerDataSource("jdbc:h2:file:" + args[0], "sa", "");
+            int rows = Integer.parseInt(args[1]);
+            JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+            jdbcTemplate.execute("create table users (id bigint primary key, email varchar(255))");
+            jdbcTemplate.execute("create table order_items (id bigint primary key, orderID bigint)");
+            jdbcTemplate.execute("create table orders (id bigint primary key, date timestamp, status varchar(20), "
+                    + "userID bigint, productID bigint, quantity int, price decimal(12, 2), amount decimal(12, 2))");
+            for (long from = 1; from <= rows; from += SEED_CHUNK) {
+                jdbcTemplate.update("insert into orders (id, date, status, quantity, price, amount) "
+                        + "select X, dateadd('SECOND', X, timestamp '2024-01-01 00:00:00'), 'PLACED', 1, 9.99, 9.99 "
+                        + "from system_range(?, ?)", from, Math.min(from + SEED_CHUNK - 1, rows));
+            }
+
+            LineCounter out = new LineCounter();
+            long started = System.nanoTime();
+            long exported = new OrderExportService(dataSource, 1000).export(OrderExportService.Format.CSV, null, null, out);
+            long millis = (System.nanoTime() - started) / 1_000_000;
+            System.out.println(exported + " " + out.lines + " " + out.bytes + " " + millis);
+        }
+    }
+
+    private static final class LineCounter extends OutputStream {
+        long lines;
+        long bytes;
+
+        @Override
+        public void write(int b) {
+            bytes++;
+            if (b == '\n') {
+                lines++;
+            }
+        }
+
+        @Override
+        public void write(byte[] buffer, int offset, int length) {
+            bytes += length;
+            for (int i = offset; i < offset + length; i++) {
+                if (buffer[i] == '\n') {
+                    lines++;
+                }
+            }
+        }
+    }
+}
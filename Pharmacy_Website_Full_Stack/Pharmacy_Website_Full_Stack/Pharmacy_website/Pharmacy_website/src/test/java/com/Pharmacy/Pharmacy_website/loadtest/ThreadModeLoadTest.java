@@ -0,0 +1,246 @@
+package com.Pharmacy.Pharmacy_website.loadtest;
+
+import com.Pharmacy.Pharmacy_website.PharmacyWebsiteApplication;
+import com.Pharmacy.Pharmacy_website.config.BackgroundThreads;
+import com.Pharmacy.Pharmacy_website.entity.Products;
+import com.Pharmacy.Pharmacy_website.entity.User;
+import com.Pharmacy.Pharmacy_website.repo.UserRepo;
+import com.Pharmacy.Pharmacy_website.security.JwtService;
+import com.Pharmacy.Pharmacy_website.service.ProductService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntFunction;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Platform versus virtual request threads under 2000 concurrent clients, on the
+ * paged catalog query and on checkout. Each mode boots its own application and
+ * H2 database; every client sends its next request as soon as the previous one
+ * answers. Run with mvn test -Pload-tests; the virtual run needs Java 21 and is
+ * skipped on anything older. Once both modes have run, the comparison is written
+ * to target/load/thread-modes.json and logged at debug level.
+ */
+@Tag("load")
+class ThreadModeLoadTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(ThreadModeLoadTest.class);
+    private static final int CLIENTS = 2000;
+    private static final int CATALOG_REQUESTS_PER_CLIENT = 10;
+    private static final int CHECKOUTS_PER_CLIENT = 3;
+    private static final int PRODUCTS = 50;
+    private static final int BUYERS = 200;
+
+    private static final Path REPORT = Path.of("target", "load", "thread-modes.json");
+
+    private static final Map<String, String> RESULTS = new TreeMap<>();
+    private static final Map<String, Object> REPORTS = new TreeMap<>();
+
+    @ParameterizedTest(name = "virtual threads: {0}")
+    @ValueSource(booleans = {false, true})
+    void catalogAndCheckoutUnderLoad(boolean virtual) throws Exception {
+        String mode = virtual ? "virtual" : "platform";
+        if (virtual && Runtime.version().feature() < 21) {
+            String reason = "virtual threads need Java 21, this JVM is " + Runtime.version().feature();
+            RESULTS.put(mode, "skipped: " + reason);
+            REPORTS.put(mode, Map.of("skipped", reason));
+            Assumptions.abort("Virtual threads need Java 21");
+        }
+        ConfigurableApplicationContext app = new SpringApplicationBuilder(PharmacyWebsiteApplication.class)
+                .profiles("test")
+                .run("--server.port=0",
+                        "--spring.threads.virtual.enabled=" + virtual,
+                        "--spring.datasource.url=jdbc:h2:mem:load_" + mode + ";DB_CLOSE_DELAY=-1",
+                        "--spring.devtools.restart.enabled=false",
+                        "--logging.level.root=WARN");
+        ExecutorService callbacks = Executors.newFixedThreadPool(8);
+        HttpClient client = HttpClient.newBuilder()
+                .executor(callbacks)
+                .connectTimeout(Duration.ofSeconds(30))
+                .build();
+        try {
+            assertEquals(virtual, app.getBean(BackgroundThreads.class).isVirtual());
+            String base = "http://localhost:" + ((ServletWebServerApplicationContext) app).getWebServer().getPort();
+
+            List<Long> productIds = new ArrayList<>();
+            ProductService productService = app.getBean(ProductService.class);
+            for (int i = 0; i < PRODUCTS; i++) {
+                Products product = new Products();
+                product.setName("Load product " + i);
+                product.setCategory("Load " + (i % 5));
+                product.setPrice(1.0 + i);
+                product.setStock(1_000_000);
+                productIds.add(productService.createProduct(product).getId());
+            }
+            List<String> tokens = new ArrayList<>();
+            List<Long> buyerIds = new ArrayList<>();
+            UserRepo userRepo = app.getBean(UserRepo.class);
+            JwtService jwtService = app.getBean(JwtService.class);
+            for (int i = 0; i < BUYERS; i++) {
+                User buyer = new User();
+                buyer.setName("Load buyer " + i);
+                buyer.setEmail("load-" + i + "@example.com");
+                buyer.setPassword("x");
+                buyer = userRepo.save(buyer);
+                buyerIds.add(buyer.getId());
+                tokens.add(jwtService.createAccessToken(buyer.getId(), buyer.getEmail(), "user"));
+            }
+
+            // Paged and filtered, so every request runs a JPA query instead of hitting the catalog cache
+            Phase catalog = run(client, CATALOG_REQUESTS_PER_CLIENT, n -> HttpRequest.newBuilder(URI.create(
+                    base + "/api/products?category=Load%20" + (n % 5) + "&size=20&page=" + (n % 2)))
+                    .timeout(Duration.ofSeconds(120)).GET().build());
+            Phase checkout = run(client, CHECKOUTS_PER_CLIENT, n -> {
+                int buyer = n % BUYERS;
+                long productId = productIds.get(ThreadLocalRandom.current().nextInt(PRODUCTS));
+                String body = "{\"userId\":" + buyerIds.get(buyer) + ",\"items\":[{\"productId\":" + productId
+                        + ",\"quantity\":1}]}";
+                return HttpRequest.newBuilder(URI.create(base + "/api/orders/checkout"))
+                        .timeout(Duration.ofSeconds(120))
+                        .header("Content-Type", "application/json")
+                        .header("Authorization", "Bearer " + tokens.get(buyer))
+                        .POST(HttpRequest.BodyPublishers.ofString(body)).build();
+            });
+
+            RESULTS.put(mode, "catalog " + catalog + " | checkout " + checkout);
+            Map<String, Object> phases = new LinkedHashMap<>();
+            phases.put("catalog", catalog.summary());
+            phases.put("checkout", checkout.summary());
+            REPORTS.put(mode, phases);
+            // A saturated box may time out the odd pool wait; more than that is a regression
+            assertTrue(catalog.errorRate() < 0.01 && checkout.errorRate() < 0.01, RESULTS.get(mode));
+        } finally {
+            callbacks.shutdownNow();
+            app.close();
+        }
+    }
+
+    @AfterAll
+    static void report() throws Exception {
+        Map<String, Object> json = new LinkedHashMap<>();
+        Map<String, Object> settings = new LinkedHashMap<>();
+        settings.put("clients", CLIENTS);
+        settings.put("catalogRequestsPerClient", CATALOG_REQUESTS_PER_CLIENT);
+        settings.put("checkoutsPerClient", CHECKOUTS_PER_CLIENT);
+        settings.put("cpus", Runtime.getRuntime().availableProcessors());
+        settings.put("java", Runtime.version().toString());
+        json.put("settings", settings);
+        json.put("modes", REPORTS);
+        Files.createDirectories(REPORT.getParent());
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(REPORT.toFile(), json);
+
+        logger.debug("Thread mode load test, {} concurrent clients:", CLIENTS);
+        RESULTS.forEach((mode, result) -> logger.debug("  {} {}", mode, result));
+        logger.debug("Report written to {}", REPORT.toAbsolutePath());
+    }
+
+    // CLIENTS closed-loop clients, each sending requestsPerClient requests one after another
+    private static Phase run(HttpClient client, int requestsPerClient, IntFunction<HttpRequest> request) {
+        int total = CLIENTS * requestsPerClient;
+        long[] latencies = new long[total];
+        AtomicInteger recorded = new AtomicInteger();
+        AtomicInteger errors = new AtomicInteger();
+        AtomicInteger sequence = new AtomicInteger();
+        long started = System.nanoTime();
+        CompletableFuture<?>[] clients = new CompletableFuture<?>[CLIENTS];
+        for (int c = 0; c < CLIENTS; c++) {
+            clients[c] = loop(client, request, requestsPerClient, sequence, latencies, recorded, errors);
+        }
+        CompletableFuture.allOf(clients).join();
+        long elapsed = System.nanoTime() - started;
+        long[] sorted = Arrays.copyOf(latencies, recorded.get());
+        Arrays.sort(sorted);
+        return new Phase(total, errors.get(), elapsed, sorted);
+    }
+
+    private static CompletableFuture<Void> loop(HttpClient client, IntFunction<HttpRequest> request, int remaining,
+                                                AtomicInteger sequence, long[] latencies, AtomicInteger recorded,
+                                                AtomicInteger errors) {
+        if (remaining == 0) {
+            return CompletableFuture.completedFuture(null);
+        }
+        long sent = System.nanoTime();
+        return client.sendAsync(request.apply(sequence.getAndIncrement()), HttpResponse.BodyHandlers.discarding())
+                .handle((response, failure) -> {
+                    latencies[recorded.getAndIncrement()] = System.nanoTime() - sent;
+                    if (failure != null || response.statusCode() >= 400) {
+                        errors.incrementAndGet();
+                    }
+                    return null;
+                })
+                .thenCompose(ignored -> loop(client, request, remaining - 1, sequence, latencies, recorded, errors));
+    }
+
+    private static final class Phase {
+        final int requests;
+        final int errors;
+        final long elapsedNanos;
+        final long[] sortedLatencies;
+
+        Phase(int requests, int errors, long elapsedNanos, long[] sortedLatencies) {
+            this.requests = requests;
+            this.errors = errors;
+            this.elapsedNanos = elapsedNanos;
+            this.sortedLatencies = sortedLatencies;
+        }
+
+        double errorRate() {
+            return (double) errors / requests;
+        }
+
+        Map<String, Object> summary() {
+            Map<String, Object> summary = new LinkedHashMap<>();
+            summary.put("requests", requests);
+            summary.put("requestsPerSecond", requests / (elapsedNanos / 1e9));
+            summary.put("p50Millis", percentileMillis(0.50));
+            summary.put("p95Millis", percentileMillis(0.95));
+            summary.put("p99Millis", percentileMillis(0.99));
+            summary.put("maxMillis", percentileMillis(1.0));
+            summary.put("errors", errors);
+            summary.put("errorRate", errorRate());
+            return summary;
+        }
+
+        private long percentileMillis(double percentile) {
+            int index = (int) Math.ceil(percentile * sortedLatencies.length) - 1;
+            return sortedLatencies[Math.max(0, index)] / 1_000_000;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d req, %.0f req/s, p50 %d ms, p95 %d ms, p99 %d ms, max %d ms, %d errors",
+                    requests, requests / (elapsedNanos / 1e9), percentileMillis(0.50), percentileMillis(0.95),
+                    percentileMillis(0.99), percentileMillis(1.0), errors);
+        }
+    }
+}
@@ -0,0 +1,488 @@
+package com.Pharmacy.Pharmacy_website.loadtest;
+
+import com.Pharmacy.Pharmacy_website.PharmacyWebsiteApplication;
+import com.Pharmacy.Pharmacy_website.entity.Products;
+import com.Pharmacy.Pharmacy_website.entity.User;
+import com.Pharmacy.Pharmacy_website.repo.UserRepo;
+import com.Pharmacy.Pharmacy_website.security.JwtService;
+import com.Pharmacy.Pharmacy_website.security.PasswordEncoder;
+import com.Pharmacy.Pharmacy_website.service.ProductService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * The storefront's traffic mix against a running application: catalog browsing,
+ * product pages, search, login, registration and checkout, each picked by weight
+ * by closed-loop virtual users. Boots the app on a random port against an H2
+ * database in MySQL mode (or a real database given load.jdbc-url), seeds products
+ * and users, warms up, then measures. Writes throughput, p50/p95/p99 latency and
+ * error rate per endpoint to target/load/traffic-mix.json, and logs the same table
+ * at debug level.
+ * <p>
+ * Run headless with mvn test -Pload-tests -Dtest=TrafficMixLoadTest, tuned by
+ * system properties:
+ * <ul>
+ *   <li>load.products (500), load.users (200): seeded rows</li>
+ *   <li>load.clients (50): concurrent virtual users</li>
+ *   <li>load.warmup-seconds (10), load.duration-seconds (60)</li>
+ *   <li>load.think-ms (1000): mean pause between a user's requests; 0 drives the
+ *       box flat out, where BCrypt saturates first and login and registration shed with 503</li>
+ *   <li>load.mix (browse=40,product=22,search=20,login=5,register=1,checkout=12)</li>
+ *   <li>load.jdbc-url, load.jdbc-user, load.jdbc-password: a scratch MySQL schema
+ *       instead of H2; its tables are dropped afterwards</li>
+ *   <li>load.max-error-rate (0.01): the per-endpoint rate that fails the run</li>
+ *   <li>load.app.&lt;property&gt;: passed to the application, e.g.
+ *       -Dload.app.spring.threads.virtual.enabled=true</li>
+ * </ul>
+ */
+@Tag("load")
+class TrafficMixLoadTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(TrafficMixLoadTest.class);
+    private static final int PRODUCTS = Integer.getInteger("load.products", 500);
+    private static final int USERS = Integer.getInteger("load.users", 200);
+    private static final int CLIENTS = Integer.getInteger("load.clients", 50);
+    private static final long WARMUP_SECONDS = Long.getLong("load.warmup-seconds", 10);
+    private static final long DURATION_SECONDS = Long.getLong("load.duration-seconds", 60);
+    private static final long THINK_MILLIS = Long.getLong("load.think-ms", 1000);
+    private static final String MIX = System.getProperty("load.mix",
+            "browse=40,product=22,search=20,login=5,register=1,checkout=12");
+    private static final String JDBC_URL = System.getProperty("load.jdbc-url",
+            "jdbc:h2:mem:load_mix;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1");
+    private static final double MAX_ERROR_RATE = Double.parseDouble(System.getProperty("load.max-error-rate", "0.01"));
+    private static final Path REPORT = Path.of("target", "load", "traffic-mix.json");
+
+    private static final String PASSWORD = "load-test-password";
+    private static final String[] MEDICINES = {"Paracetamol", "Ibuprofen", "Aspirin", "Cetirizine", "Loratadine",
+            "Omeprazole", "Vitamin C", "Vitamin D3", "Zinc", "Amoxicillin", "Metformin", "Salbutamol"};
+    private static final String[] FORMS = {"tablets", "capsules", "syrup", "gel", "spray"};
+    private static final String[] CATEGORIES = {"Pain Relief", "Allergy", "Digestive Health", "Vitamins",
+            "Antibiotics", "Diabetes", "Respiratory"};
+
+    enum Endpoint {
+        BROWSE("GET /api/products"),
+        PRODUCT("GET /api/products/{id}"),
+        SEARCH("GET /api/products/search"),
+        LOGIN("POST /api/auth/login"),
+        REGISTER("POST /api/users"),
+        CHECKOUT("POST /api/orders/checkout");
+
+        final String label;
+
+        Endpoint(String label) {
+            this.label = label;
+        }
+    }
+
+    @Test
+    void storefrontTrafficMix() throws Exception {
+        Map<Endpoint, Integer> weights = parseMix(MIX);
+        ConfigurableApplicationContext app = new SpringApplicationBuilder(PharmacyWebsiteApplication.class)
+                .profiles("test")
+                .run(applicationArgs());
+        ExecutorService callbacks = Executors.newFixedThreadPool(8);
+        ScheduledExecutorService thinking = Executors.newSingleThreadScheduledExecutor();
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .executor(callbacks)
+                .connectTimeout(Duration.ofSeconds(30))
+                .build();
+        try {
+            String base = "http://localhost:" + ((ServletWebServerApplicationContext) app).getWebServer().getPort();
+            long seeding = System.nanoTime();
+            Seed seed = seed(app);
+            logger.debug("Seeded {} products and {} users in {} ms", PRODUCTS, USERS,
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - seeding));
+
+            Map<Endpoint, EndpointStats> stats = new EnumMap<>(Endpoint.class);
+            for (Endpoint endpoint : Endpoint.values()) {
+                stats.put(endpoint, new EndpointStats());
+            }
+            long measureFrom = System.nanoTime() + TimeUnit.SECONDS.toNanos(WARMUP_SECONDS);
+            long stopAt = measureFrom + TimeUnit.SECONDS.toNanos(DURATION_SECONDS);
+            AtomicLong registrations = new AtomicLong();
+            List<CompletableFuture<Void>> users = new ArrayList<>();
+            for (int c = 0; c < CLIENTS; c++) {
+                VirtualUser user = new VirtualUser(c, base, client, thinking, seed, weights, stats, registrations,
+                        measureFrom, stopAt);
+                user.next();
+                users.add(user.done);
+            }
+            CompletableFuture.allOf(users.toArray(new CompletableFuture<?>[0])).join();
+
+            String report = report(weights, stats);
+            logger.debug("Traffic mix results:{}{}", System.lineSeparator(), report);
+            for (Endpoint endpoint : weights.keySet()) {
+                EndpointStats endpointStats = stats.get(endpoint);
+                assertTrue(endpointStats.count() > 0, endpoint.label + " was never measured\n" + report);
+                assertTrue(endpointStats.errorRate() < MAX_ERROR_RATE, endpoint.label + " errors\n" + report);
+            }
+        } finally {
+            thinking.shutdownNow();
+            callbacks.shutdownNow();
+            app.close();
+        }
+    }
+
+    private static String[] applicationArgs() {
+        Map<String, String> properties = new LinkedHashMap<>();
+        properties.put("server.port", "0");
+        properties.put("spring.datasource.url", JDBC_URL);
+        if (JDBC_URL.startsWith("jdbc:mysql:")) {
+            properties.put("spring.datasource.driver-class-name", "com.mysql.cj.jdbc.Driver");
+            properties.put("spring.jpa.database-platform", "org.hibernate.dialect.MySQLDialect");
+        }
+        properties.put("spring.datasource.username", System.getProperty("load.jdbc-user", "sa"));
+        properties.put("spring.datasource.password", System.getProperty("load.jdbc-password", ""));
+        // Every virtual user connects from the loopback address, which the login throttle would
+        // otherwise treat as one client guessing passwords
+        properties.put("security.login.ip-per-minute", "1000000");
+        properties.put("security.login.ip-burst", "1000000");
+        properties.put("security.login.email-per-minute", "1000000");
+        properties.put("security.login.email-burst", "1000000");
+        properties.put("spring.devtools.restart.enabled", "false");
+        properties.put("logging.level.root", "WARN");
+        System.getProperties().stringPropertyNames().stream()
+                .filter(name -> name.startsWith("load.app."))
+                .forEach(name -> properties.put(name.substring("load.app.".length()), System.getProperty(name)));
+        return properties.entrySet().stream()
+                .map(property -> "--" + property.getKey() + "=" + property.getValue())
+                .toArray(String[]::new);
+    }
+
+    private static Map<Endpoint, Integer> parseMix(String mix) {
+        Map<Endpoint, Integer> weights = new EnumMap<>(Endpoint.class);
+        for (String entry : mix.split(",")) {
+            String[] parts = entry.trim().split("=");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("load.mix entries look like browse=35, got: " + entry);
+            }
+            int weight = Integer.parseInt(parts[1].trim());
+            if (weight > 0) {
+                weights.put(Endpoint.valueOf(parts[0].trim().toUpperCase(Locale.ROOT)), weight);
+            }
+        }
+        if (weights.isEmpty()) {
+            throw new IllegalArgumentException("load.mix has no endpoint with a positive weight: " + mix);
+        }
+        return weights;
+    }
+
+    private static Seed seed(ConfigurableApplicationContext app) {
+        Random random = new Random(42);
+        ProductService productService = app.getBean(ProductService.class);
+        List<Long> productIds = new ArrayList<>();
+        for (int i = 0; i < PRODUCTS; i++) {
+            String medicine = MEDICINES[i % MEDICINES.length];
+            Products product = new Products();
+            product.setSku("LOAD-" + i);
+            product.setName(medicine + " " + (100 + random.nextInt(9) * 50) + " mg "
+                    + FORMS[random.nextInt(FORMS.length)] + ", pack " + i);
+            product.setCategory(CATEGORIES[i % CATEGORIES.length]);
+            product.setDescription("Seeded for the traffic mix load test.");
+            product.setPrice(1.0 + random.nextInt(5000) / 100.0);
+            product.setStock(1_000_000_000);
+            productIds.add(productService.createProduct(product).getId());
+        }
+
+        // One hash for every seeded account; hashing each would take longer than the run
+        String hash = app.getBean(PasswordEncoder.class).encode(PASSWORD);
+        JwtService jwtService = app.getBean(JwtService.class);
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < USERS; i++) {
+            User user = new User();
+            user.setName("Load user " + i);
+            user.setEmail("load-user-" + i + "@example.com");
+            user.setPassword(hash);
+            users.add(user);
+        }
+        List<Long> userIds = new ArrayList<>();
+        List<String> emails = new ArrayList<>();
+        List<String> tokens = new ArrayList<>();
+        for (User user : app.getBean(UserRepo.class).saveAll(users)) {
+            userIds.add(user.getId());
+            emails.add(user.getEmail());
+            tokens.add(jwtService.createAccessToken(user.getId(), user.getEmail(), "user"));
+        }
+        return new Seed(productIds, userIds, emails, tokens);
+    }
+
+    private static String report(Map<Endpoint, Integer> weights, Map<Endpoint, EndpointStats> stats)
+            throws Exception {
+        int totalWeight = weights.values().stream().mapToInt(Integer::intValue).sum();
+        StringBuilder out = new StringBuilder(String.format(
+                "Traffic mix: %d virtual users, %d s measured after %d s warm-up, think time %d ms, %s%n",
+                CLIENTS, DURATION_SECONDS, WARMUP_SECONDS, THINK_MILLIS, JDBC_URL));
+        out.append(String.format("%-28s %6s %9s %8s %8s %8s %8s %8s %8s  %s%n", "endpoint", "mix", "requests",
+                "req/s", "p50 ms", "p95 ms", "p99 ms", "max ms", "errors", "error statuses"));
+
+        Map<String, Object> json = new LinkedHashMap<>();
+        Map<String, Object> settings = new LinkedHashMap<>();
+        settings.put("products", PRODUCTS);
+        settings.put("users", USERS);
+        settings.put("clients", CLIENTS);
+        settings.put("warmupSeconds", WARMUP_SECONDS);
+        settings.put("durationSeconds", DURATION_SECONDS);
+        settings.put("thinkMillis", THINK_MILLIS);
+        settings.put("mix", MIX);
+        settings.put("jdbcUrl", JDBC_URL);
+        settings.put("cpus", Runtime.getRuntime().availableProcessors());
+        settings.put("java", Runtime.version().toString());
+        json.put("settings", settings);
+        Map<String, Object> endpoints = new LinkedHashMap<>();
+        EndpointStats total = new EndpointStats();
+        for (Endpoint endpoint : weights.keySet()) {
+            EndpointStats endpointStats = stats.get(endpoint);
+            total.addAll(endpointStats);
+            out.append(row(endpoint.label, 100.0 * weights.get(endpoint) / totalWeight, endpointStats));
+            endpoints.put(endpoint.label, endpointStats.summary());
+        }
+        out.append(row("total", 100.0, total));
+        json.put("endpoints", endpoints);
+        json.put("total", total.summary());
+
+        Files.createDirectories(REPORT.getParent());
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(REPORT.toFile(), json);
+        out.append("Report written to ").append(REPORT.toAbsolutePath()).append(System.lineSeparator());
+        return out.toString();
+    }
+
+    private static String row(String label, double share, EndpointStats stats) {
+        return String.format("%-28s %5.1f%% %9d %8.1f %8.1f %8.1f %8.1f %8.1f %7.2f%%  %s%n", label, share,
+                stats.count(), stats.count() / (double) DURATION_SECONDS, stats.percentileMillis(0.50),
+                stats.percentileMillis(0.95), stats.percentileMillis(0.99), stats.percentileMillis(1.0),
+                stats.errorRate() * 100, stats.errorStatuses());
+    }
+
+    private record Seed(List<Long> productIds, List<Long> userIds, List<String> emails, List<String> tokens) {
+    }
+
+    /**
+     * One shopper: picks the next endpoint by weight, waits for the answer, thinks,
+     * and goes again until the run ends. Signed in as one seeded user for checkout,
+     * and keeps the catalog ETag the way the browser does.
+     */
+    private static final class VirtualUser {
+
+        final CompletableFuture<Void> done = new CompletableFuture<>();
+        private final String base;
+        private final HttpClient client;
+        private final ScheduledExecutorService thinking;
+        private final Seed seed;
+        private final Endpoint[] picks;
+        private final Map<Endpoint, EndpointStats> stats;
+        private final AtomicLong registrations;
+        private final long measureFrom;
+        private final long stopAt;
+        private final Random random;
+        private final int account;
+        private volatile String catalogETag;
+
+        VirtualUser(int id, String base, HttpClient client, ScheduledExecutorService thinking, Seed seed,
+                    Map<Endpoint, Integer> weights, Map<Endpoint, EndpointStats> stats, AtomicLong registrations,
+                    long measureFrom, long stopAt) {
+            this.base = base;
+            this.client = client;
+            this.thinking = thinking;
+            this.seed = seed;
+            this.stats = stats;
+            this.registrations = registrations;
+            this.measureFrom = measureFrom;
+            this.stopAt = stopAt;
+            this.random = new Random(id);
+            this.account = id % seed.userIds().size();
+            List<Endpoint> picks = new ArrayList<>();
+            weights.forEach((endpoint, weight) -> {
+                for (int i = 0; i < weight; i++) {
+                    picks.add(endpoint);
+                }
+            });
+            this.picks = picks.toArray(new Endpoint[0]);
+        }
+
+        void next() {
+            if (System.nanoTime() >= stopAt) {
+                done.complete(null);
+                return;
+            }
+            Endpoint endpoint = picks[random.nextInt(picks.length)];
+            HttpRequest request = request(endpoint);
+            long sent = System.nanoTime();
+            client.sendAsync(request, HttpResponse.BodyHandlers.discarding()).whenComplete((response, failure) -> {
+                long finished = System.nanoTime();
+                // Only requests sent and answered inside the measured window count
+                if (sent >= measureFrom && finished <= stopAt) {
+                    stats.get(endpoint).record(finished - sent, failure != null ? -1 : response.statusCode());
+                }
+                if (endpoint == Endpoint.BROWSE && response != null && response.statusCode() == 200) {
+                    catalogETag = response.headers().firstValue("ETag").orElse(null);
+                }
+                if (THINK_MILLIS > 0) {
+                    // Exponential pauses, so users do not march in step
+                    long pause = (long) (-Math.log(1 - random.nextDouble()) * THINK_MILLIS);
+                    thinking.schedule(this::next, pause, TimeUnit.MILLISECONDS);
+                } else {
+                    next();
+                }
+            });
+        }
+
+        private HttpRequest request(Endpoint endpoint) {
+            switch (endpoint) {
+                case BROWSE: {
+                    HttpRequest.Builder builder = get("/api/products");
+                    if (catalogETag != null) {
+                        builder.header("If-None-Match", catalogETag);
+                    }
+                    return builder.build();
+                }
+                case PRODUCT:
+                    return get("/api/products/" + seed.productIds().get(random.nextInt(seed.productIds().size())))
+                            .build();
+                case SEARCH: {
+                    String term = MEDICINES[random.nextInt(MEDICINES.length)];
+                    if (random.nextInt(4) == 0) {
+                        term += " " + FORMS[random.nextInt(FORMS.length)];
+                    }
+                    return get("/api/products/search?q=" + URLEncoder.encode(term, StandardCharsets.UTF_8)).build();
+                }
+                case LOGIN:
+                    return post("/api/auth/login", "{\"email\":\"" + seed.emails().get(random.nextInt(seed.emails().size()))
+                            + "\",\"password\":\"" + PASSWORD + "\"}").build();
+                case REGISTER:
+                    return post("/api/users", "{\"name\":\"New shopper\",\"email\":\"new-" + registrations.incrementAndGet()
+                            + "-" + System.nanoTime() + "@example.com\",\"password\":\"" + PASSWORD + "\"}").build();
+                case CHECKOUT: {
+                    int lines = 1 + random.nextInt(3);
+                    StringBuilder items = new StringBuilder();
+                    for (int i = 0; i < lines; i++) {
+                        items.append(i == 0 ? "" : ",").append("{\"productId\":")
+                                .append(seed.productIds().get(random.nextInt(seed.productIds().size())))
+                                .append(",\"quantity\":").append(1 + random.nextInt(2)).append('}');
+                    }
+                    return post("/api/orders/checkout", "{\"userId\":" + seed.userIds().get(account)
+                            + ",\"items\":[" + items + "]}")
+                            .header("Authorization", "Bearer " + seed.tokens().get(account))
+                            .build();
+                }
+                default:
+                    throw new IllegalStateException("Unknown endpoint " + endpoint);
+            }
+        }
+
+        private HttpRequest.Builder get(String path) {
+            return HttpRequest.newBuilder(URI.create(base + path))
+                    .timeout(Duration.ofSeconds(60))
+                    .header("Accept-Encoding", "gzip")
+                    .GET();
+        }
+
+        private HttpRequest.Builder post(String path, String body) {
+            return HttpRequest.newBuilder(URI.create(base + path))
+                    .timeout(Duration.ofSeconds(60))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(body));
+        }
+    }
+
+    // Latencies and status codes for one endpoint; a status of -1 is a request that failed without an answer
+    private static final class EndpointStats {
+
+        private long[] latencies = new long[1024];
+        private int count;
+        private int errors;
+        private final Map<Integer, Integer> errorStatuses = new TreeMap<>();
+        private long[] sorted;
+
+        synchronized void record(long nanos, int status) {
+            if (count == latencies.length) {
+                latencies = Arrays.copyOf(latencies, count * 2);
+            }
+            latencies[count++] = nanos;
+            if (status < 0 || status >= 400) {
+                errors++;
+                errorStatuses.merge(status, 1, Integer::sum);
+            }
+            sorted = null;
+        }
+
+        synchronized void addAll(EndpointStats other) {
+            for (int i = 0; i < other.count; i++) {
+                record(other.latencies[i], 200);
+            }
+            errors += other.errors;
+            other.errorStatuses.forEach((status, n) -> errorStatuses.merge(status, n, Integer::sum));
+        }
+
+        synchronized int count() {
+            return count;
+        }
+
+        synchronized double errorRate() {
+            return count == 0 ? 0 : (double) errors / count;
+        }
+
+        synchronized String errorStatuses() {
+            return errorStatuses.isEmpty() ? "-" : errorStatuses.toString();
+        }
+
+        synchronized double percentileMillis(double percentile) {
+            if (count == 0) {
+                return 0;
+            }
+            if (sorted == null) {
+                sorted = Arrays.copyOf(latencies, count);
+                Arrays.sort(sorted);
+            }
+            int index = (int) Math.ceil(percentile * sorted.length) - 1;
+            return sorted[Math.max(0, index)] / 1e6;
+        }
+
+        synchronized Map<String, Object> summary() {
+            Map<String, Object> summary = new LinkedHashMap<>();
+            summary.put("requests", count);
+            summary.put("requestsPerSecond", count / (double) DURATION_SECONDS);
+            summary.put("p50Millis", percentileMillis(0.50));
+            summary.put("p95Millis", percentileMillis(0.95));
+            summary.put("p99Millis", percentileMillis(0.99));
+            summary.put("maxMillis", percentileMillis(1.0));
+            summary.put("errorRate", errorRate());
+            summary.put("errorStatuses", errorStatuses);
+            return summary;
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.Pharmacy.Pharmacy_website.security;
+
+import com.Pharmacy.Pharmacy_website.entity.User;
+import com.Pharmacy.Pharmacy_website.repo.UserRepo;
+import com.Pharmacy.Pharmacy_website.support.QueryCounter;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class CredentialServiceTest {
+
+    @Autowired
+    private CredentialService credentialService;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private UserRepo userRepo;
+
+    @Test
+    void detectsFormatAndCost() {
+        String current = passwordEncoder.encode("secret");
+        String cheaper = new PasswordEncoder(4).encode("secret");
+
+        assertTrue(credentialService.isHashed(current));
+        assertFalse(credentialService.needsUpgrade(current));
+        assertTrue(credentialService.needsUpgrade(cheaper));
+        assertTrue(credentialService.needsUpgrade("secret"));
+        assertTrue(credentialService.verify("secret", current));
+        assertTrue(credentialService.verify("secret", "secret"));
+        // A stolen hash must not work as a password
+        assertFalse(credentialService.verify(current, current));
+    }
+
+    @Test
+    void loginRehashesLegacyPassword() throws Exception {
+        User user = legacyUser("rehash-on-login@example.com", "plain-pass");
+
+        assertTrue(credentialService.verify("plain-pass", user.getPassword()));
+        credentialService.upgradeAfterLogin(user, "plain-pass");
+
+        String stored = awaitHashed(user.getId());
+        assertTrue(passwordEncoder.matches("plain-pass", stored));
+    }
+
+    @Test
+    void migrationHashesRemainingLegacyRows() throws Exception {
+        User first = legacyUser("migrate-1@example.com", "first-pass");
+        User second = legacyUser("migrate-2@example.com", "second-pass");
+
+        assertTrue(credentialService.startMigration());
+
+        assertTrue(passwordEncoder.matches("first-pass", awaitHashed(first.getId())));
+        assertTrue(passwordEncoder.matches("second-pass", awaitHashed(second.getId())));
+    }
+
+    // Scraped every few seconds as gauges, so repeated reads must not re-count the credential tables
+    @Test
+    void statsReuseTheLegacyCounts() throws Exception {
+        credentialService.stats();
+        Map<String, Object> stats = QueryCounter.assertAtMost(0, () -> credentialService.stats());
+        assertTrue((Long) stats.get("legacyUsers") >= 0);
+    }
+
+    private User legacyUser(String email, String password) {
+        User user = new User();
+        user.setName("Legacy");
+        user.setEmail(email);
+        user.setPassword(password);
+        // Straight through the repository, the way rows were written before hashing existed
+        return userRepo.save(user);
+    }
+
+    private String awaitHashed(Long id) throws InterruptedException {
+        for (int i = 0; i < 100; i++) {
+            String stored = userRepo.findById(id).orElseThrow().getPassword();
+            if (credentialService.isHashed(stored)) {
+                return stored;
+            }
+            Thread.sleep(50);
+        }
+        throw new AssertionError("Password for user " + id + " was not re-hashed");
+    }
+}
@@ -0,0 +1,112 @@
+package com.Pharmacy.Pharmacy_website.security;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class JwtServiceTest {
+
+    private static final String SECRET = secret(32);
+
+    private final JwtService jwtService = new JwtService(SECRET, 900, 604800, 100);
+
+    @Test
+    void issuedTokensVerifyWithTheirClaims() {
+        AuthenticatedUser user = jwtService.validateAccessToken(jwtService.createAccessToken(7L, "a@example.com", "user"));
+        assertNotNull(user);
+        assertEquals(7L, user.getId());
+        assertEquals("a@example.com", user.getEmail());
+        assertEquals("user", user.getRole());
+        assertTrue(user.getExpiresAtMillis() > System.currentTimeMillis());
+
+        AuthenticatedUser admin = jwtService.validateAccessToken(jwtService.createAccessToken(1L, "root@example.com", "admin"));
+        assertTrue(admin.isAdmin());
+
+        JwtService.Rotation refreshed = jwtService.rotateRefreshToken(jwtService.createRefreshToken(7L, "a@example.com", "user"));
+        assertEquals(7L, refreshed.getUser().getId());
+        assertEquals("a@example.com", refreshed.getUser().getEmail());
+    }
+
+    @Test
+    void refreshTokensAreSingleUseAndReuseRevokesTheFamily() {
+        String first = jwtService.createRefreshToken(7L, "a@example.com", "user");
+        String other = jwtService.createRefreshToken(8L, "b@example.com", "user");
+
+        String second = jwtService.rotateRefreshToken(first).getRefreshToken();
+        assertNotEquals(first, second);
+        String third = jwtService.rotateRefreshToken(second).getRefreshToken();
+
+        // Replaying a spent token is refused and takes its successors down with it
+        assertNull(jwtService.rotateRefreshToken(first));
+        assertNull(jwtService.rotateRefreshToken(third));
+        assertEquals(1L, jwtService.stats().get("reusedRefreshTokens"));
+
+        // Other logins are untouched
+        assertEquals(8L, jwtService.rotateRefreshToken(other).getUser().getId());
+        assertEquals(3L, jwtService.stats().get("refreshRotations"));
+    }
+
+    @Test
+    void refreshTokensFromAnotherServiceInstanceAreRejected() {
+        // Same key, but this instance never issued the family
+        JwtService restarted = new JwtService(SECRET, 900, 604800, 100);
+        assertNull(restarted.rotateRefreshToken(jwtService.createRefreshToken(7L, "a@example.com", "user")));
+    }
+
+    @Test
+    void tokensOfTheWrongTypeAreRejected() {
+        assertNull(jwtService.validateAccessToken(jwtService.createRefreshToken(7L, "a@example.com", "user")));
+        assertNull(jwtService.rotateRefreshToken(jwtService.createAccessToken(7L, "a@example.com", "user")));
+    }
+
+    @Test
+    void expiredTokensAreRejected() {
+        JwtService expired = new JwtService(SECRET, -1, -1, 100);
+        assertNull(expired.validateAccessToken(expired.createAccessToken(7L, "a@example.com", "user")));
+        assertNull(expired.rotateRefreshToken(expired.createRefreshToken(7L, "a@example.com", "user")));
+    }
+
+    @Test
+    void tamperedAndForeignTokensAreRejected() {
+        String token = jwtService.createAccessToken(7L, "a@example.com", "user");
+        String[] parts = token.split("\\.");
+
+        // Claim admin by rewriting the payload but keep the original signature
+        String payload = new String(Base64.getUrlDecoder().decode(parts[1])).replace("\"user\"", "\"admin\"");
+        String forged = parts[0] + "." + Base64.getUrlEncoder().withoutPadding().encodeToString(payload.getBytes())
+                + "." + parts[2];
+        assertNull(jwtService.validateAccessToken(forged));
+
+        char last = parts[2].charAt(0);
+        String badSignature = parts[0] + "." + parts[1] + "." + (last == 'A' ? 'B' : 'A') + parts[2].substring(1);
+        assertNull(jwtService.validateAccessToken(badSignature));
+
+        JwtService other = new JwtService(secret(48), 900, 604800, 100);
+        assertNull(jwtService.validateAccessToken(other.createAccessToken(7L, "a@example.com", "admin")));
+        assertNull(jwtService.validateAccessToken("not a token"));
+        assertEquals(4L, jwtService.stats().get("rejectedTokens"));
+    }
+
+    @Test
+    void missingOrShortSecretsFailAtStartup() {
+        assertThrows(IllegalStateException.class, () -> new JwtService("", 900, 604800, 100));
+        assertThrows(IllegalStateException.class, () -> new JwtService(null, 900, 604800, 100));
+        assertThrows(IllegalStateException.class, () -> new JwtService(secret(31), 900, 604800, 100));
+        assertThrows(IllegalStateException.class, () -> new JwtService("not base64 at all!", 900, 604800, 100));
+    }
+
+    private static String secret(int bytes) {
+        byte[] key = new byte[bytes];
+        for (int i = 0; i < bytes; i++) {
+            key[i] = (byte) (i * 31 + 7);
+        }
+        return Base64.getEncoder().encodeToString(key);
+    }
+}
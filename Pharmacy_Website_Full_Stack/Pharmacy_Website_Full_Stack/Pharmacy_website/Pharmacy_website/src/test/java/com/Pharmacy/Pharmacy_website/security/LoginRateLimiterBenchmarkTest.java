@@ -0,0 +1,132 @@
+package com.Pharmacy.Pharmacy_website.security;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Checks the throttle semantics, then measures the cost of a check under contention from every core
+class LoginRateLimiterBenchmarkTest {
+
+    private static final int KEYS = 20_000;
+    private static final int CHECKS_PER_THREAD = 500_000;
+
+    @Test
+    void allowsBurstThenRefillsAtConfiguredRate() {
+        AtomicLong now = new AtomicLong(TimeUnit.SECONDS.toNanos(1));
+        LoginRateLimiter limiter = new LoginRateLimiter(1000, 1000, 6, 3, 100, now::get);
+
+        for (int i = 0; i < 3; i++) {
+            assertEquals(0, limiter.tryAcquire("10.0.0.1", "victim@example.com"));
+        }
+        long wait = limiter.tryAcquire("10.0.0.1", "Victim@Example.com ");
+        assertTrue(wait > 0 && wait <= TimeUnit.SECONDS.toNanos(10), "wait was " + wait);
+        // Other accounts from the same address are unaffected
+        assertEquals(0, limiter.tryAcquire("10.0.0.1", "someone@example.com"));
+
+        now.addAndGet(TimeUnit.SECONDS.toNanos(10));
+        assertEquals(0, limiter.tryAcquire("10.0.0.1", "victim@example.com"));
+    }
+
+    @Test
+    void idleKeysAreEvictedToStayWithinBound() {
+        AtomicLong now = new AtomicLong();
+        LoginRateLimiter limiter = new LoginRateLimiter(60, 60, 60, 5, 100, now::get);
+
+        for (int round = 0; round < 10; round++) {
+            for (int i = 0; i < 100; i++) {
+                limiter.tryAcquire("10.0.0.1", "user" + round + "-" + i + "@example.com");
+            }
+            now.addAndGet(TimeUnit.MINUTES.toNanos(1));
+        }
+        Map<String, Object> email = stats(limiter, "email");
+        assertTrue((int) email.get("keys") <= 100, "keys " + email.get("keys"));
+        assertTrue((long) email.get("evicted") > 0);
+    }
+
+    @Test
+    void aFloodOfActiveKeysEvictsTheOldestInsteadOfFailingOpen() {
+        AtomicLong now = new AtomicLong();
+        LoginRateLimiter limiter = new LoginRateLimiter(60, 60, 6, 3, 100, now::get);
+
+        // Every key spends a token and none refills, so the idle sweep alone frees nothing
+        for (int i = 0; i < 300; i++) {
+            limiter.tryAcquire("10.1." + (i / 256) + "." + (i % 256), "user" + i + "@example.com");
+            now.addAndGet(TimeUnit.MILLISECONDS.toNanos(1));
+        }
+        // A new account past the bound is still throttled
+        int allowed = 0;
+        for (int i = 0; i < 10; i++) {
+            if (limiter.tryAcquire("10.0.0.2", "victim@example.com") == 0) {
+                allowed++;
+            }
+        }
+        assertEquals(3, allowed);
+
+        for (String bucket : new String[] {"ip", "email"}) {
+            Map<String, Object> stats = stats(limiter, bucket);
+            assertTrue((int) stats.get("keys") <= 100, bucket + " keys " + stats.get("keys"));
+            assertTrue((long) stats.get("evictedActive") > 0, bucket);
+        }
+    }
+
+    @Test
+    void checkOverheadAcrossCores() throws Exception {
+        int threads = Math.max(2, Runtime.getRuntime().availableProcessors());
+        LoginRateLimiter limiter = new LoginRateLimiter(30, 30, 10, 5, 100_000, System::nanoTime);
+        String[] emails = new String[KEYS];
+        String[] ips = new String[KEYS];
+        for (int i = 0; i < KEYS; i++) {
+            emails[i] = "user" + i + "@example.com";
+            ips[i] = "10.0." + (i / 256 % 256) + "." + (i % 256);
+        }
+        run(limiter, threads, CHECKS_PER_THREAD / 10, emails, ips);
+
+        long started = System.nanoTime();
+        run(limiter, threads, CHECKS_PER_THREAD, emails, ips);
+        long elapsed = System.nanoTime() - started;
+
+        long checks = (long) threads * CHECKS_PER_THREAD;
+        double perSecond = checks / (elapsed / 1e9);
+        // Orders of magnitude above the 50k/s login budget, so throttling is never the bottleneck
+        assertTrue(perSecond > 50_000, "only " + perSecond + " checks/s over " + threads + " threads");
+    }
+
+    private static void run(LoginRateLimiter limiter, int threads, int checks, String[] emails, String[] ips)
+            throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> workers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            int offset = t * 7919;
+            workers.add(pool.submit(() -> {
+                start.await();
+                for (int i = 0; i < checks; i++) {
+                    int key = (offset + i) % KEYS;
+                    limiter.tryAcquire(ips[key], emails[key]);
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> worker : workers) {
+            worker.get();
+        }
+        pool.shutdown();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> stats(LoginRateLimiter limiter, String bucket) {
+        return (Map<String, Object>) limiter.stats().get(bucket);
+    }
+}
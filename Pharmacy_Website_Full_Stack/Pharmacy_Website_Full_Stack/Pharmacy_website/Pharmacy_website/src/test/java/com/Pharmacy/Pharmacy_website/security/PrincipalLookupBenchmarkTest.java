@@ -0,0 +1,145 @@
+package com.Pharmacy.Pharmacy_website.security;
+
+import com.Pharmacy.Pharmacy_website.entity.Admin;
+import com.Pharmacy.Pharmacy_website.entity.User;
+import com.Pharmacy.Pharmacy_website.repo.AdminRepo;
+import com.Pharmacy.Pharmacy_website.repo.UserRepo;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Login lookup latency under concurrency: the old admin-then-user queries against the single union lookup
+@SpringBootTest
+@ActiveProfiles("test")
+class PrincipalLookupBenchmarkTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(PrincipalLookupBenchmarkTest.class);
+
+    private static final int USERS = 2000;
+    private static final int ADMINS = 20;
+    private static final int UNKNOWN = 200;
+    private static final int THREADS = 8;
+    private static final int LOOKUPS_PER_THREAD = 2500;
+
+    @Autowired
+    private PrincipalResolver principalResolver;
+
+    @Autowired
+    private UserRepo userRepo;
+
+    @Autowired
+    private AdminRepo adminRepo;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Test
+    void unionLookupMatchesSequentialQueries() throws Exception {
+        String hash = passwordEncoder.encode("bench-password");
+        List<String> emails = new ArrayList<>();
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < USERS; i++) {
+            User user = new User();
+            user.setName("Bench user " + i);
+            user.setEmail("bench-user-" + i + "@example.com");
+            user.setPassword(hash);
+            users.add(user);
+            emails.add(user.getEmail());
+        }
+        userRepo.saveAll(users);
+        for (int i = 0; i < ADMINS; i++) {
+            Admin admin = new Admin();
+            admin.setName("Bench admin " + i);
+            admin.setEmail("bench-admin-" + i + "@example.com");
+            admin.setPassword(hash);
+            adminRepo.save(admin);
+            emails.add(admin.getEmail());
+        }
+        for (int i = 0; i < UNKNOWN; i++) {
+            emails.add("bench-unknown-" + i + "@example.com");
+        }
+
+        for (String email : List.of("bench-user-7@example.com", "bench-admin-3@example.com", "bench-unknown-1@example.com")) {
+            String expected = adminRepo.findByEmail(email) != null ? "admin" : userRepo.findByEmail(email) != null ? "user" : null;
+            List<PrincipalResolver.Account> accounts = principalResolver.resolve(email);
+            assertEquals(expected, accounts.isEmpty() ? null : accounts.get(0).getRole());
+        }
+
+        Function<String, Object> sequential = email -> {
+            Admin admin = adminRepo.findByEmail(email);
+            return admin != null ? admin : userRepo.findByEmail(email);
+        };
+        Function<String, Object> union = principalResolver::resolve;
+
+        run(emails, sequential);
+        run(emails, union);
+        long[] before = run(emails, sequential);
+        long[] after = run(emails, union);
+
+        logger.debug("Login lookup over {} threads: admin+user queries p50 {} us, p99 {} us; "
+                        + "union with negative cache p50 {} us, p99 {} us",
+                THREADS, before[0] / 1000, before[1] / 1000, after[0] / 1000, after[1] / 1000);
+        assertTrue((long) principalResolver.stats().get("negativeHits") > 0);
+        // One query instead of two for known emails, none for cached misses
+        assertTrue(after[0] <= before[0], "union p50 " + after[0] + " ns, sequential p50 " + before[0] + " ns");
+    }
+
+    @Test
+    void signUpClearsAMissCachedUnderAnyCasing() {
+        principalResolver.resolve("Late-Signup@Example.com");
+        long queries = (long) principalResolver.stats().get("queries");
+        principalResolver.resolve("LATE-SIGNUP@example.com");
+        assertEquals(queries, (long) principalResolver.stats().get("queries"));
+
+        principalResolver.invalidate("late-signup@example.com");
+        principalResolver.resolve("Late-Signup@Example.com");
+        assertEquals(queries + 1, (long) principalResolver.stats().get("queries"));
+    }
+
+    // Returns {p50, p99} in nanoseconds for a mix of user, admin and unknown emails
+    private static long[] run(List<String> emails, Function<String, Object> lookup) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<long[]>> workers = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            int offset = t * 613;
+            workers.add(pool.submit(() -> {
+                long[] latencies = new long[LOOKUPS_PER_THREAD];
+                start.await();
+                for (int i = 0; i < LOOKUPS_PER_THREAD; i++) {
+                    String email = emails.get((offset + i * 31) % emails.size());
+                    long started = System.nanoTime();
+                    lookup.apply(email);
+                    latencies[i] = System.nanoTime() - started;
+                }
+                return latencies;
+            }));
+        }
+        start.countDown();
+        long[] all = new long[THREADS * LOOKUPS_PER_THREAD];
+        int position = 0;
+        for (Future<long[]> worker : workers) {
+            long[] latencies = worker.get();
+            System.arraycopy(latencies, 0, all, position, latencies.length);
+            position += latencies.length;
+        }
+        pool.shutdown();
+        Arrays.sort(all);
+        return new long[]{all[all.length / 2], all[(int) (all.length * 0.99)]};
+    }
+}
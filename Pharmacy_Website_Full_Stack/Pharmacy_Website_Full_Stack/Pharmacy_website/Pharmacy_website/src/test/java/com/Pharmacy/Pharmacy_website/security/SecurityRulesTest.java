@@ -0,0 +1,118 @@
+package com.Pharmacy.Pharmacy_website.security;
+
+import com.jayway.jsonpath.JsonPath;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class SecurityRulesTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JwtService jwtService;
+
+    @Test
+    void publicEndpointsNeedNoToken() throws Exception {
+        mockMvc.perform(get("/api/products")).andExpect(status().isOk());
+        mockMvc.perform(get("/api/products/suggest").param("q", "para")).andExpect(status().isOk());
+        mockMvc.perform(post("/api/auth/refresh").contentType(MediaType.APPLICATION_JSON).content("{}"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(post("/api/contact").contentType(MediaType.APPLICATION_JSON).content("{}"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void everythingElseNeedsAValidToken() throws Exception {
+        mockMvc.perform(get("/api/orders/history")).andExpect(status().isUnauthorized());
+        mockMvc.perform(get("/api/admin/dashboard")).andExpect(status().isUnauthorized());
+        // Paths no rule names are closed too
+        mockMvc.perform(get("/admin/home")).andExpect(status().isUnauthorized());
+        mockMvc.perform(get("/api/users")).andExpect(status().isUnauthorized());
+
+        String expired = new JwtService(
+                "dGVzdC1vbmx5LWp3dC1zZWNyZXQtZm9yLXRoZS1waGFybWFjeS10ZXN0LXN1aXRl", -1, -1, 10)
+                .createAccessToken(1L, "admin@pharmacy.com", "admin");
+        mockMvc.perform(as(get("/api/admin/dashboard"), expired)).andExpect(status().isUnauthorized());
+        mockMvc.perform(as(get("/api/admin/dashboard"), "garbage")).andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    void adminEndpointsNeedTheAdminRole() throws Exception {
+        String user = jwtService.createAccessToken(2L, "user@example.com", "user");
+        String admin = jwtService.createAccessToken(1L, "admin@pharmacy.com", "admin");
+
+        mockMvc.perform(as(get("/api/admin/dashboard"), user)).andExpect(status().isForbidden());
+        mockMvc.perform(as(delete("/api/products/" + Long.MAX_VALUE), user)).andExpect(status().isForbidden());
+        mockMvc.perform(as(get("/api/metrics"), user)).andExpect(status().isForbidden());
+
+        mockMvc.perform(as(get("/api/admin/dashboard"), admin)).andExpect(status().isOk());
+        mockMvc.perform(as(get("/api/orders/history"), user)).andExpect(status().isOk());
+    }
+
+    @Test
+    void refreshHandsOutANewTokenOnceAndIsThrottledPerIp() throws Exception {
+        String first = jwtService.createRefreshToken(2L, "user@example.com", "user");
+        String body = mockMvc.perform(refresh(first, "198.51.100.7"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        String second = JsonPath.read(body, "$.refreshToken");
+        assertNotEquals(first, second);
+        mockMvc.perform(refresh(first, "198.51.100.7")).andExpect(status().isUnauthorized());
+
+        // Guesses from one address run into the same bucket as login attempts
+        int limited = 0;
+        for (int i = 0; i < 40; i++) {
+            if (mockMvc.perform(refresh("guess-" + i, "198.51.100.8")).andReturn().getResponse().getStatus() == 429) {
+                limited++;
+            }
+        }
+        assertTrue(limited > 0);
+        mockMvc.perform(refresh("guess", "198.51.100.8"))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().exists(HttpHeaders.RETRY_AFTER));
+    }
+
+    @Test
+    void throttlingKeysOnTheForwardedClientAddress() throws Exception {
+        // Both clients reach the app through the same proxy address
+        for (int i = 0; i < 40; i++) {
+            mockMvc.perform(refresh("guess-" + i, "10.9.9.9").header("X-Forwarded-For", "203.0.113.21"));
+        }
+        mockMvc.perform(refresh("guess", "10.9.9.9").header("X-Forwarded-For", "203.0.113.21"))
+                .andExpect(status().isTooManyRequests());
+        mockMvc.perform(refresh("guess", "10.9.9.9").header("X-Forwarded-For", "203.0.113.22"))
+                .andExpect(status().isUnauthorized());
+    }
+
+    private static MockHttpServletRequestBuilder refresh(String token, String remoteAddress) {
+        return post("/api/auth/refresh").contentType(MediaType.APPLICATION_JSON)
+                .content("{\"refreshToken\":\"" + token + "\"}")
+                .with(request -> {
+                    request.setRemoteAddr(remoteAddress);
+                    return request;
+                });
+    }
+
+    private static MockHttpServletRequestBuilder as(MockHttpServletRequestBuilder request, String token) {
+        return request.header(HttpHeaders.AUTHORIZATION, "Bearer " + token);
+    }
+}
@@ -0,0 +1,213 @@
+package com.Pharmacy.Pharmacy_website.service;
+
+import com.Pharmacy.Pharmacy_website.config.BackgroundThreads;
+import com.Pharmacy.Pharmacy_website.entity.Message;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class ContactMessageQueueTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(ContactMessageQueueTest.class);
+    private static final int SENDERS = 16;
+    private static final int MESSAGES_PER_SENDER = 500;
+
+    @Autowired
+    private ContactMessageQueue contactMessageQueue;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @TempDir
+    Path spillDir;
+
+    @AfterEach
+    void removeMessages() {
+        jdbcTemplate.update("delete from messages where email like '%@contact.test'");
+    }
+
+    @Test
+    void spikeIsWrittenInBatches() throws Exception {
+        long batchesBefore = (Long) contactMessageQueue.stats().get("batches");
+        ExecutorService senders = Executors.newFixedThreadPool(SENDERS);
+        long started = System.nanoTime();
+        try {
+            List<Future<Integer>> results = new ArrayList<>();
+            for (int s = 0; s < SENDERS; s++) {
+                int sender = s;
+                results.add(senders.submit(() -> {
+                    int accepted = 0;
+                    for (int i = 0; i < MESSAGES_PER_SENDER; i++) {
+                        if (contactMessageQueue.offer(message("spike-" + sender, "Message " + i))) {
+                            accepted++;
+                        }
+                    }
+                    return accepted;
+                }));
+            }
+            int accepted = 0;
+            for (Future<Integer> result : results) {
+                accepted += result.get();
+            }
+            long acceptMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+            assertEquals(SENDERS * MESSAGES_PER_SENDER, accepted);
+
+            assertTrue(contactMessageQueue.awaitFlushed(30, TimeUnit.SECONDS));
+            long totalMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+            assertEquals(accepted, jdbcTemplate.queryForObject(
+                    "select count(*) from messages where email like 'spike-%@contact.test'", Integer.class));
+            long batches = (Long) contactMessageQueue.stats().get("batches") - batchesBefore;
+            logger.debug("Contact queue: {} messages accepted in {} ms, all written after {} ms in {} batches; {}",
+                    accepted, acceptMillis, totalMillis, batches, contactMessageQueue.stats());
+            assertTrue(batches < accepted / 10, "batches: " + batches);
+            assertEquals(0, contactMessageQueue.depth());
+        } finally {
+            senders.shutdownNow();
+        }
+    }
+
+    @Test
+    void fullQueueRejectsAndSpillFileSurvivesRestart() throws Exception {
+        Path spillFile = spillDir.resolve("contact.log");
+        // A database that fails every write, as if it were down
+        JdbcTemplate unavailable = new JdbcTemplate(new DriverManagerDataSource("jdbc:h2:mem:contact_down"));
+        ContactMessageQueue down = new ContactMessageQueue(BackgroundThreads.platform(), unavailable, objectMapper,
+                spillFile.toString(), 5, 2, 10, true);
+        down.start();
+        for (int i = 0; i < 5; i++) {
+            assertTrue(down.offer(message("spill", "Kept " + i)));
+        }
+        long started = System.nanoTime();
+        assertFalse(down.offer(message("spill", "Rejected")));
+        assertTrue(System.nanoTime() - started < TimeUnit.MILLISECONDS.toNanos(100));
+        assertEquals(1L, down.stats().get("rejected"));
+        assertFalse(down.awaitFlushed(200, TimeUnit.MILLISECONDS));
+        assertTrue((Long) down.stats().get("failedBatches") > 0);
+
+        // Only one instance may own a spill file
+        assertThrows(IllegalStateException.class, () -> new ContactMessageQueue(BackgroundThreads.platform(),
+                jdbcTemplate, objectMapper, spillFile.toString(), 5, 2, 10, true).start());
+        down.shutdown();
+        // A crash in the middle of an append leaves a torn line behind
+        Files.write(spillFile, "{\"seq\":6,\"name\":\"torn".getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+
+        ContactMessageQueue restarted = new ContactMessageQueue(BackgroundThreads.platform(), jdbcTemplate, objectMapper,
+                spillFile.toString(), 5, 2, 10, true);
+        restarted.start();
+        try {
+            assertEquals(5L, restarted.stats().get("replayedOnStartup"));
+            assertTrue(restarted.awaitFlushed(10, TimeUnit.SECONDS));
+            List<String> contents = jdbcTemplate.queryForList(
+                    "select content from messages where email = 'spill@contact.test' order by id", String.class);
+            assertEquals(List.of("Kept 0", "Kept 1", "Kept 2", "Kept 3", "Kept 4"), contents);
+            // Caught up, so the file is empty again
+            assertEquals(0, Files.size(spillFile));
+        } finally {
+            restarted.shutdown();
+        }
+    }
+
+    @Test
+    void aBatchFailingForAnyReasonMovesToTheTail() throws Exception {
+        Path spillFile = spillDir.resolve("moved.log");
+        AtomicInteger failures = new AtomicInteger(3);
+        // Fails the first few batches, as a bug outside the database would
+        JdbcTemplate flaky = new JdbcTemplate(jdbcTemplate.getDataSource()) {
+            @Override
+            public <T> int[][] batchUpdate(String sql, Collection<T> batchArgs, int batchSize,
+                                           ParameterizedPreparedStatementSetter<T> pss) {
+                if (failures.getAndDecrement() > 0) {
+                    throw new IllegalStateException("Poisoned batch");
+                }
+                return super.batchUpdate(sql, batchArgs, batchSize, pss);
+            }
+        };
+        ContactMessageQueue queue = new ContactMessageQueue(BackgroundThreads.platform(), flaky, objectMapper,
+                spillFile.toString(), 100, 1, 10, true);
+        queue.start();
+        try {
+            for (int i = 0; i < 4; i++) {
+                assertTrue(queue.offer(message("moved", "Message " + i)));
+            }
+            assertTrue(queue.awaitFlushed(10, TimeUnit.SECONDS));
+            List<String> contents = jdbcTemplate.queryForList(
+                    "select content from messages where email = 'moved@contact.test' order by content", String.class);
+            // Every failed batch went behind the others and was written on a later pass
+            assertEquals(List.of("Message 0", "Message 1", "Message 2", "Message 3"), contents);
+            assertEquals(3L, queue.stats().get("movedBatches"));
+            assertEquals(0, Files.size(spillFile));
+        } finally {
+            queue.shutdown();
+        }
+    }
+
+    @Test
+    void aMessageTheDatabaseRejectsIsDroppedAndTheRestAreWritten() throws Exception {
+        Path spillFile = spillDir.resolve("rejected.log");
+        ContactMessageQueue queue = new ContactMessageQueue(BackgroundThreads.platform(), jdbcTemplate, objectMapper,
+                spillFile.toString(), 100, 10, 10, true);
+        // Left over from a run that accepted them, so all three are replayed as one batch
+        StringBuilder lines = new StringBuilder();
+        String[] contents = {"Before", "x".repeat(Message.MAX_CONTENT_LENGTH + 1), "After"};
+        for (int i = 0; i < contents.length; i++) {
+            lines.append(objectMapper.writeValueAsString(Map.of("seq", i + 1, "name", "Contact test",
+                    "email", "rejected@contact.test", "content", contents[i]))).append('\n');
+        }
+        Files.writeString(spillFile, lines);
+        try {
+            queue.start();
+            assertTrue(queue.awaitFlushed(10, TimeUnit.SECONDS));
+            assertTrue(queue.offer(message("rejected", "Later")));
+            assertTrue(queue.awaitFlushed(10, TimeUnit.SECONDS));
+
+            assertEquals(List.of("After", "Before", "Later"), jdbcTemplate.queryForList(
+                    "select content from messages where email = 'rejected@contact.test' order by content", String.class));
+            assertEquals(1L, queue.stats().get("droppedMessages"));
+            assertEquals(0L, queue.stats().get("movedBatches"));
+            assertEquals(0, Files.size(spillFile));
+        } finally {
+            queue.shutdown();
+        }
+    }
+
+    private static Message message(String sender, String content) {
+        Message message = new Message();
+        message.setName("Contact test");
+        message.setEmail(sender + "@contact.test");
+        message.setContent(content);
+        return message;
+    }
+}
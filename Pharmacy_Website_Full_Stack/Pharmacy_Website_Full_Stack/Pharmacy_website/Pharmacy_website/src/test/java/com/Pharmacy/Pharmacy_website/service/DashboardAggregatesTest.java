@@ -0,0 +1,144 @@
+package com.Pharmacy.Pharmacy_website.service;
+
+import com.Pharmacy.Pharmacy_website.dto.CartItemRequest;
+import com.Pharmacy.Pharmacy_website.dto.DashboardSummary;
+import com.Pharmacy.Pharmacy_website.entity.Order;
+import com.Pharmacy.Pharmacy_website.entity.Products;
+import com.Pharmacy.Pharmacy_website.entity.User;
+import com.Pharmacy.Pharmacy_website.repo.UserRepo;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class DashboardAggregatesTest {
+
+    @Autowired
+    private DashboardAggregates dashboardAggregates;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private UserRepo userRepo;
+
+    @Test
+    void incrementalTotalsMatchAFreshSeed() {
+        DashboardSummary before = dashboardAggregates.summary();
+
+        Products product = new Products();
+        product.setName("Dashboard SKU");
+        product.setCategory("Vitamins");
+        product.setPrice(2.50);
+        product.setStock(5);
+        product = productService.createProduct(product);
+
+        User user = new User();
+        user.setName("Dashboard buyer");
+        user.setEmail("dashboard-buyer@example.com");
+        user.setPassword("x");
+        user = userRepo.save(user);
+
+        Order kept = orderService.placeCartOrder(user, List.of(cartLine(product.getId(), 2)));
+        Order cancelled = orderService.placeCartOrder(user, List.of(cartLine(product.getId(), 1)));
+        orderService.cancelOrder(cancelled.getId());
+
+        DashboardSummary incremental = dashboardAggregates.summary();
+        assertEquals(before.getOrders() + 1, incremental.getOrders());
+        assertEquals(before.getCancelledOrders() + 1, incremental.getCancelledOrders());
+        assertEquals(before.getRevenue().add(kept.getAmount()), incremental.getRevenue());
+        assertEquals(3, productService.getProductById(product.getId()).getStock());
+
+        dashboardAggregates.invalidate();
+        DashboardSummary seeded = dashboardAggregates.summary();
+        assertEquals(seeded.getOrders(), incremental.getOrders());
+        assertEquals(seeded.getCancelledOrders(), incremental.getCancelledOrders());
+        assertEquals(seeded.getRevenue(), incremental.getRevenue());
+        assertEquals(seeded.getUsers(), incremental.getUsers() + 1); // saved straight through the repository
+        assertEquals(last(seeded).getOrders(), last(incremental).getOrders());
+        // Other tests share the database, so the product may not make the top ten; compare the lists
+        // by value, since ties at the cut-off can pick different products
+        assertEquals(units(seeded), units(incremental));
+        assertEquals(stock(seeded), stock(incremental));
+
+        long started = System.nanoTime();
+        for (int i = 0; i < 1000; i++) {
+            dashboardAggregates.summary();
+        }
+        long micros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - started) / 1000;
+        assertTrue(micros < 10_000, micros + " us per summary");
+    }
+
+    // Re-seeding while orders commit must neither drop an order nor count one twice
+    @Test
+    void seedsRacingCommitsCountEveryOrderOnce() throws Exception {
+        Products product = new Products();
+        product.setName("Dashboard race SKU");
+        product.setCategory("Vitamins");
+        product.setPrice(1.25);
+        product.setStock(1_000);
+        Long productId = productService.createProduct(product).getId();
+        dashboardAggregates.summary();
+
+        AtomicBoolean placing = new AtomicBoolean(true);
+        ExecutorService seeder = Executors.newSingleThreadExecutor();
+        try {
+            Future<?> seeds = seeder.submit(() -> {
+                while (placing.get()) {
+                    dashboardAggregates.invalidate();
+                    dashboardAggregates.summary();
+                }
+            });
+            for (int i = 0; i < 200; i++) {
+                orderService.placeCartOrder(null, List.of(cartLine(productId, 1)));
+            }
+            placing.set(false);
+            seeds.get();
+        } finally {
+            seeder.shutdownNow();
+        }
+
+        DashboardSummary incremental = dashboardAggregates.summary();
+        dashboardAggregates.invalidate();
+        DashboardSummary seeded = dashboardAggregates.summary();
+        assertEquals(seeded.getOrders(), incremental.getOrders());
+        assertEquals(seeded.getRevenue(), incremental.getRevenue());
+        assertEquals(last(seeded).getOrders(), last(incremental).getOrders());
+        assertEquals(30, seeded.getOrdersPerDay().size());
+    }
+
+    private static List<Long> units(DashboardSummary summary) {
+        return summary.getTopSellers().stream().map(DashboardSummary.TopSeller::getUnitsSold).collect(Collectors.toList());
+    }
+
+    private static List<Integer> stock(DashboardSummary summary) {
+        return summary.getLowStock().stream().map(DashboardSummary.StockAlert::getStock).collect(Collectors.toList());
+    }
+
+    private static DashboardSummary.DayTotal last(DashboardSummary summary) {
+        return summary.getOrdersPerDay().get(summary.getOrdersPerDay().size() - 1);
+    }
+
+    private static CartItemRequest cartLine(Long productId, int quantity) {
+        CartItemRequest line = new CartItemRequest();
+        line.setProductId(productId);
+        line.setQuantity(quantity);
+        return line;
+    }
+}
@@ -0,0 +1,99 @@
+package com.Pharmacy.Pharmacy_website.service;
+
+import com.Pharmacy.Pharmacy_website.entity.Order;
+import com.Pharmacy.Pharmacy_website.entity.OrderStatus;
+import com.Pharmacy.Pharmacy_website.entity.Products;
+import com.Pharmacy.Pharmacy_website.repo.OrderRepo;
+import com.Pharmacy.Pharmacy_website.repo.ProductRepo;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class InventoryServiceStressTest {
+
+    private static final int THREADS = 16;
+    private static final int ATTEMPTS_PER_THREAD = 100;
+    private static final int STOCK = 500;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ProductRepo productRepo;
+
+    @Autowired
+    private OrderRepo orderRepo;
+
+    @Test
+    void concurrentOrdersOnHotProductNeverOversell() throws Exception {
+        Products product = new Products();
+        product.setName("Hot SKU");
+        product.setCategory("Pain Relief");
+        product.setPrice(4.99);
+        product.setStock(STOCK);
+        Products hot = productService.createProduct(product);
+
+        AtomicInteger placed = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        List<Future<?>> workers = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            workers.add(pool.submit(() -> {
+                start.await();
+                for (int i = 0; i < ATTEMPTS_PER_THREAD; i++) {
+                    Order order = new Order();
+                    order.setProduct(hot);
+                    order.setQuantity(1);
+                    order.setDate(new Date());
+                    try {
+                        orderService.placeOrder(order);
+                        placed.incrementAndGet();
+                    } catch (OutOfStockException e) {
+                        rejected.incrementAndGet();
+                    }
+                }
+                return null;
+            }));
+        }
+
+        start.countDown();
+        for (Future<?> worker : workers) {
+            worker.get();
+        }
+        pool.shutdown();
+
+        assertEquals(STOCK, placed.get());
+        assertEquals(THREADS * ATTEMPTS_PER_THREAD - STOCK, rejected.get());
+        assertEquals(0, productRepo.findById(hot.getId()).orElseThrow().getStock());
+        assertEquals(0, productService.getProductById(hot.getId()).getStock());
+        List<Order> hotOrders = orderRepo.findAll().stream()
+                .filter(order -> order.getProduct() != null && hot.getId().equals(order.getProduct().getId()))
+                .toList();
+        assertEquals(STOCK, hotOrders.size());
+
+        Order first = hotOrders.get(0);
+        orderService.cancelOrder(first.getId());
+        orderService.cancelOrder(first.getId());
+        assertEquals(OrderStatus.CANCELLED, orderRepo.findById(first.getId()).orElseThrow().getStatus());
+        assertEquals(1, productRepo.findById(hot.getId()).orElseThrow().getStock());
+        assertEquals(1, productService.getProductById(hot.getId()).getStock());
+    }
+}
@@ -0,0 +1,99 @@
+package com.Pharmacy.Pharmacy_website.service;
+
+import com.Pharmacy.Pharmacy_website.dto.CartItemRequest;
+import com.Pharmacy.Pharmacy_website.entity.Order;
+import com.Pharmacy.Pharmacy_website.entity.OrderStatus;
+import com.Pharmacy.Pharmacy_website.entity.Products;
+import com.Pharmacy.Pharmacy_website.repo.OrderRepo;
+import com.Pharmacy.Pharmacy_website.repo.ProductRepo;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class OrderCancelStressTest {
+
+    private static final int THREADS = 16;
+    private static final int ROUNDS = 20;
+    private static final int STOCK = 100;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ProductRepo productRepo;
+
+    @Autowired
+    private OrderRepo orderRepo;
+
+    // Every round places one single-product order and one cart order, then has all threads cancel both at once;
+    // stock must come back exactly once per order
+    @Test
+    void concurrentCancelsReleaseStockOnce() throws Exception {
+        Products single = productService.createProduct(product("Cancel race single"));
+        Products cartLine = productService.createProduct(product("Cancel race cart line"));
+
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        try {
+            for (int round = 0; round < ROUNDS; round++) {
+                Order direct = new Order();
+                direct.setProduct(single);
+                direct.setQuantity(3);
+                direct.setDate(new Date());
+                Long directId = orderService.placeOrder(direct).getId();
+
+                Long cartId = orderService.placeCartOrder(null, List.of(new CartItemRequest(cartLine.getId(), 2))).getId();
+
+                assertEquals(STOCK - 3, productRepo.findById(single.getId()).orElseThrow().getStock());
+                assertEquals(STOCK - 2, productRepo.findById(cartLine.getId()).orElseThrow().getStock());
+
+                CountDownLatch start = new CountDownLatch(1);
+                List<Future<?>> cancels = new ArrayList<>();
+                for (int t = 0; t < THREADS; t++) {
+                    Long id = t % 2 == 0 ? directId : cartId;
+                    cancels.add(pool.submit(() -> {
+                        start.await();
+                        return orderService.cancelOrder(id);
+                    }));
+                }
+                start.countDown();
+                for (Future<?> cancel : cancels) {
+                    assertEquals(OrderStatus.CANCELLED, ((Order) cancel.get()).getStatus());
+                }
+
+                assertEquals(OrderStatus.CANCELLED, orderRepo.findById(directId).orElseThrow().getStatus());
+                assertEquals(OrderStatus.CANCELLED, orderRepo.findById(cartId).orElseThrow().getStatus());
+                assertEquals(STOCK, productRepo.findById(single.getId()).orElseThrow().getStock());
+                assertEquals(STOCK, productRepo.findById(cartLine.getId()).orElseThrow().getStock());
+                assertEquals(STOCK, productService.getProductById(single.getId()).getStock());
+                assertEquals(STOCK, productService.getProductById(cartLine.getId()).getStock());
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private static Products product(String name) {
+        Products product = new Products();
+        product.setName(name);
+        product.setCategory("Pain Relief");
+        product.setPrice(2.5);
+        product.setStock(STOCK);
+        return product;
+    }
+}
@@ -0,0 +1,188 @@
+package com.Pharmacy.Pharmacy_website.service;
+
+import com.Pharmacy.Pharmacy_website.dto.CartItemRequest;
+import com.Pharmacy.Pharmacy_website.entity.Order;
+import com.Pharmacy.Pharmacy_website.entity.Products;
+import com.Pharmacy.Pharmacy_website.entity.User;
+import com.Pharmacy.Pharmacy_website.repo.UserRepo;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Kept small for the default run; OrderExportLoadTest exports a million rows in a 64 MB heap
+@SpringBootTest
+@ActiveProfiles("test")
+class OrderExportServiceTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(OrderExportServiceTest.class);
+    private static final long ID_BASE = 1_000_000_000L;
+    private static final int ROWS = 20_000;
+    private static final int ROWS_PER_DAY = 10_000;
+    private static final int SEED_CHUNK = 100_000;
+
+    @Autowired
+    private OrderExportService orderExportService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private UserRepo userRepo;
+
+    @AfterEach
+    void removeExportRows() {
+        jdbcTemplate.update("delete from orders where id > ?", ID_BASE);
+    }
+
+    @Test
+    void streamsEveryRow() throws Exception {
+        seed();
+
+        LineCounter out = new LineCounter();
+        long started = System.nanoTime();
+        long exported = orderExportService.export(OrderExportService.Format.CSV, null, null, out);
+
+        assertTrue(exported >= ROWS);
+        assertEquals(exported + 1, out.lines); // header
+        logger.debug("Order export: {} rows, {} KB of CSV in {} ms",
+                exported, out.bytes >> 10, (System.nanoTime() - started) / 1_000_000);
+    }
+
+    @Test
+    void csvCountsLinesAndDefusesFormulas() throws Exception {
+        Long first = product("Export SKU 1");
+        Long second = product("Export SKU 2");
+        User user = new User();
+        user.setName("Export buyer");
+        user.setEmail("=1+2,x@example.com");
+        user.setPassword("x");
+        user = userRepo.save(user);
+        Order order = orderService.placeCartOrder(user, List.of(cartLine(first, 1), cartLine(second, 2)));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        LocalDate today = LocalDate.now();
+        orderExportService.export(OrderExportService.Format.CSV, today, today, out);
+
+        String row = Arrays.stream(out.toString(StandardCharsets.UTF_8).split("\n"))
+                .filter(line -> line.startsWith(order.getId() + ",")).findFirst().orElseThrow();
+        assertTrue(row.contains(",\"'=1+2,x@example.com\","), row);
+        assertTrue(row.endsWith(",2"), row);
+    }
+
+    @Test
+    void csvDefusesFormulasBehindATabOrCarriageReturn() throws Exception {
+        Long product = product("Export SKU 3");
+        Map<Long, String> emails = new HashMap<>();
+        for (String email : List.of("\t=1+2@example.com", "\r=3+4@example.com")) {
+            User user = new User();
+            user.setName("Export buyer");
+            user.setEmail(email);
+            user.setPassword("x");
+            user = userRepo.save(user);
+            emails.put(orderService.placeCartOrder(user, List.of(cartLine(product, 1))).getId(), email);
+        }
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        LocalDate today = LocalDate.now();
+        orderExportService.export(OrderExportService.Format.CSV, today, today, out);
+
+        String[] rows = out.toString(StandardCharsets.UTF_8).split("\n");
+        for (Map.Entry<Long, String> order : emails.entrySet()) {
+            String row = Arrays.stream(rows).filter(line -> line.startsWith(order.getKey() + ",")).findFirst().orElseThrow();
+            // The carriage return also makes the field quoted
+            String field = order.getValue().startsWith("\r") ? "\"'" + order.getValue() + "\"" : "'" + order.getValue();
+            assertTrue(row.contains("," + field + ","), row);
+        }
+    }
+
+    private Long product(String name) {
+        Products product = new Products();
+        product.setName(name);
+        product.setCategory("Vitamins");
+        product.setPrice(3.00);
+        product.setStock(10);
+        return productService.createProduct(product).getId();
+    }
+
+    private static CartItemRequest cartLine(Long productId, int quantity) {
+        CartItemRequest line = new CartItemRequest();
+        line.setProductId(productId);
+        line.setQuantity(quantity);
+        return line;
+    }
+
+    @Test
+    void filtersByDateAndWritesNdjson() throws Exception {
+        seed();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        LocalDate day = LocalDate.of(2024, 1, 2);
+
+        long exported = orderExportService.export(OrderExportService.Format.NDJSON, day, day, out);
+
+        assertEquals(ROWS_PER_DAY, exported);
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(exported, lines.length);
+        JsonNode first = new ObjectMapper().readTree(lines[0]);
+        assertEquals(ID_BASE + ROWS_PER_DAY + 1, first.get("id").asLong());
+        assertTrue(first.get("date").asText().startsWith("2024-01-02"));
+        assertEquals("PLACED", first.get("status").asText());
+    }
+
+    // Generated inside the database, in chunks, rather than through JPA
+    private void seed() {
+        for (long from = 1; from <= ROWS; from += SEED_CHUNK) {
+            jdbcTemplate.update("insert into orders (id, date, status, quantity, price, amount) "
+                    + "select X + ?, dateadd('SECOND', (X - 1) * 86400 / ?, timestamp '2024-01-01 00:00:00'), "
+                    + "'PLACED', 1, 9.99, 9.99 from system_range(?, ?)",
+                    ID_BASE, ROWS_PER_DAY, from, Math.min(from + SEED_CHUNK - 1, ROWS));
+        }
+    }
+
+    private static final class LineCounter extends OutputStream {
+        long lines;
+        long bytes;
+
+        @Override
+        public void write(int b) {
+            bytes++;
+            if (b == '\n') {
+                lines++;
+            }
+        }
+
+        @Override
+        public void write(byte[] buffer, int offset, int length) {
+            bytes += length;
+            for (int i = offset; i < offset + length; i++) {
+                if (buffer[i] == '\n') {
+                    lines++;
+                }
+            }
+        }
+    }
+}
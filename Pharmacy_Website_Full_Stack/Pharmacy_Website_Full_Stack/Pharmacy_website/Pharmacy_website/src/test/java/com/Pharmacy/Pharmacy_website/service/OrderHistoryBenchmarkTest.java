@@ -0,0 +1,173 @@
+package com.Pharmacy.Pharmacy_website.service;
+
+import com.Pharmacy.Pharmacy_website.dto.CursorPageResponse;
+import com.Pharmacy.Pharmacy_website.dto.OrderSummary;
+import com.Pharmacy.Pharmacy_website.entity.User;
+import com.Pharmacy.Pharmacy_website.repo.UserRepo;
+import com.Pharmacy.Pharmacy_website.support.QueryCounter;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class OrderHistoryBenchmarkTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(OrderHistoryBenchmarkTest.class);
+    private static final long ID_BASE = 2_000_000_000L;
+    private static final int HEAVY_ORDERS = 10_000;
+    private static final int UNDATED_ORDERS = 5;
+    private static final int LIGHT_ORDERS = 10;
+    private static final int OTHER_ORDERS = 100_000;
+    private static final int PAGE_SIZE = 20;
+    private static final int SAMPLE_PAGES = 50;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private UserRepo userRepo;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void removeHistoryRows() {
+        jdbcTemplate.update("delete from orders where id > ?", ID_BASE);
+    }
+
+    @Test
+    void pageLatencyStaysFlatForTenThousandOrders() throws Exception {
+        Long heavy = user("history-heavy@example.com");
+        Long light = user("history-light@example.com");
+        // Two orders share every timestamp, so ties are broken by id; a few legacy rows have no date at all
+        seed(heavy, 0, HEAVY_ORDERS, "dateadd('SECOND', -(x / 2), timestamp '2026-06-01 12:00:00')");
+        seed(heavy, HEAVY_ORDERS, UNDATED_ORDERS, "null");
+        seed(light, HEAVY_ORDERS + UNDATED_ORDERS, LIGHT_ORDERS, "dateadd('MINUTE', -x, timestamp '2026-06-01 12:00:00')");
+        seed(null, HEAVY_ORDERS + UNDATED_ORDERS + LIGHT_ORDERS, OTHER_ORDERS, "dateadd('SECOND', -x, timestamp '2026-06-01 12:00:00')");
+
+        // The shape of findHistoryBefore: read from the index in order, no sort of the whole history
+        String plan = jdbcTemplate.queryForObject("explain select id from orders where userID = ? "
+                + "and date <= timestamp '2026-06-01 10:00:00' and (date < timestamp '2026-06-01 10:00:00' or id < 5) "
+                + "order by userID desc, date desc, id desc fetch first 21 rows only", String.class, heavy);
+        assertTrue(plan.toUpperCase().contains("IDX_ORDERS_USER_DATE"), plan);
+        assertTrue(plan.contains("index sorted"), plan);
+
+        // Walk the whole history twice; the first pass warms up, the second is measured
+        walk(heavy, null);
+        long[] perPage = new long[(HEAVY_ORDERS + UNDATED_ORDERS) / PAGE_SIZE + 1];
+        List<OrderSummary> all = walk(heavy, perPage);
+
+        assertEquals(HEAVY_ORDERS + UNDATED_ORDERS, all.size());
+        Set<Long> ids = new HashSet<>();
+        for (int i = 0; i < all.size(); i++) {
+            assertTrue(ids.add(all.get(i).getId()));
+            if (i > 0) {
+                assertTrue(newestFirst(all.get(i - 1), all.get(i)), "Out of order at " + i);
+            }
+        }
+        for (int i = HEAVY_ORDERS; i < all.size(); i++) {
+            assertNull(all.get(i).getDate());
+        }
+
+        long[] lightPages = new long[SAMPLE_PAGES];
+        for (int i = 0; i < SAMPLE_PAGES; i++) {
+            long started = System.nanoTime();
+            assertEquals(LIGHT_ORDERS, orderService.getOrderHistory(light, null, PAGE_SIZE).getContent().size());
+            lightPages[i] = System.nanoTime() - started;
+        }
+
+        long firstPages = median(Arrays.copyOfRange(perPage, 0, SAMPLE_PAGES));
+        long lastPages = median(Arrays.copyOfRange(perPage, perPage.length - SAMPLE_PAGES, perPage.length));
+        long lightFirst = median(lightPages);
+
+        long started = System.nanoTime();
+        int everything = orderService.findOrdersByUser(userRepo.findById(heavy).orElseThrow()).size();
+        long loadAllMicros = (System.nanoTime() - started) / 1000;
+
+        logger.debug("Order history p50 per page of {}: first pages {} us, last pages {} us, "
+                        + "customer with {} orders {} us; loading all {} orders at once took {} us",
+                PAGE_SIZE, firstPages / 1000, lastPages / 1000, LIGHT_ORDERS, lightFirst / 1000,
+                everything, loadAllMicros);
+        // Flat: page 500 costs about what page 1 costs, and a long history about what a short one costs
+        assertTrue(lastPages < 3 * firstPages + 1_000_000, "deep pages " + lastPages + " ns vs " + firstPages);
+        assertTrue(firstPages < 3 * lightFirst + 1_000_000, "heavy " + firstPages + " ns vs light " + lightFirst);
+    }
+
+    @Test
+    void rejectsTamperedCursor() {
+        assertThrows(IllegalArgumentException.class, () -> orderService.getOrderHistory(1L, "not a cursor", 10));
+        assertThrows(IllegalArgumentException.class, () -> orderService.getOrderHistory(1L, "YWJj", 10));
+    }
+
+    private List<OrderSummary> walk(Long userId, long[] perPage) throws Exception {
+        List<OrderSummary> all = new ArrayList<>();
+        String cursor = null;
+        int page = 0;
+        do {
+            String after = cursor;
+            long started = System.nanoTime();
+            // Keyset paging never needs a count query; only the page reaching the undated tail runs two
+            CursorPageResponse<OrderSummary> result =
+                    QueryCounter.assertAtMost(2, () -> orderService.getOrderHistory(userId, after, PAGE_SIZE));
+            if (perPage != null) {
+                perPage[page] = System.nanoTime() - started;
+            }
+            page++;
+            all.addAll(result.getContent());
+            cursor = result.getNextCursor();
+        } while (cursor != null);
+        return all;
+    }
+
+    private static boolean newestFirst(OrderSummary previous, OrderSummary next) {
+        if (previous.getDate() == null) {
+            return next.getDate() == null && next.getId() < previous.getId();
+        }
+        if (next.getDate() == null) {
+            return true;
+        }
+        int byDate = previous.getDate().compareTo(next.getDate());
+        return byDate > 0 || (byDate == 0 && next.getId() < previous.getId());
+    }
+
+    private Long user(String email) {
+        User user = userRepo.findByEmail(email);
+        if (user == null) {
+            user = new User();
+            user.setName("History customer");
+            user.setEmail(email);
+            user.setPassword("x");
+            user = userRepo.save(user);
+        }
+        return user.getId();
+    }
+
+    private void seed(Long userId, int offset, int count, String date) {
+        jdbcTemplate.update("insert into orders (id, userID, date, quantity, price, amount, status) "
+                + "select ? + x, ?, " + date + ", 1, 2.50, 2.50, 'PLACED' from system_range(1, ?)",
+                ID_BASE + offset, userId, count);
+    }
+
+    private static long median(long[] samples) {
+        long[] sorted = samples.clone();
+        Arrays.sort(sorted);
+        return sorted[sorted.length / 2];
+    }
+}
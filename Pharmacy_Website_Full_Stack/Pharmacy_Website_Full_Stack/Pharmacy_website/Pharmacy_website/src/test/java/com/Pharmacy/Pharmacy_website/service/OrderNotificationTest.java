@@ -0,0 +1,170 @@
+package com.Pharmacy.Pharmacy_website.service;
+
+import com.Pharmacy.Pharmacy_website.config.BackgroundThreads;
+import com.Pharmacy.Pharmacy_website.dto.CartItemRequest;
+import com.Pharmacy.Pharmacy_website.entity.Order;
+import com.Pharmacy.Pharmacy_website.entity.Products;
+import com.Pharmacy.Pharmacy_website.entity.User;
+import com.Pharmacy.Pharmacy_website.repo.UserRepo;
+import com.Pharmacy.Pharmacy_website.support.FakeSmtpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class OrderNotificationTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(OrderNotificationTest.class);
+    private static final int ORDERS = 30;
+    private static final long SMTP_DELAY_MILLIS = 300;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private OrderNotificationService orderNotificationService;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private UserRepo userRepo;
+
+    private FakeSmtpServer smtp;
+    private MailDispatcher dispatcher;
+    private Object originalDispatcher;
+    private Products product;
+    private User buyer;
+
+    // Mail is off in the test profile; point the confirmation at a dispatcher talking to the fake server
+    @BeforeEach
+    void startSmtp() throws Exception {
+        smtp = new FakeSmtpServer();
+        JavaMailSenderImpl sender = new JavaMailSenderImpl();
+        sender.setHost("localhost");
+        sender.setPort(smtp.getPort());
+        dispatcher = new MailDispatcher(BackgroundThreads.platform(), sender, "orders@pharmacy.test", 2, 1000, 50, 4, 20);
+        dispatcher.start();
+        originalDispatcher = ReflectionTestUtils.getField(orderNotificationService, "mailDispatcher");
+        ReflectionTestUtils.setField(orderNotificationService, "mailDispatcher", dispatcher);
+        ReflectionTestUtils.setField(orderNotificationService, "enabled", true);
+
+        String run = UUID.randomUUID().toString().substring(0, 8);
+        product = new Products();
+        product.setName("Mail product " + run);
+        product.setCategory("Mail");
+        product.setPrice(2.50);
+        product.setStock(1000);
+        product = productService.createProduct(product);
+        buyer = new User();
+        buyer.setName("Mail buyer");
+        buyer.setEmail("mail-" + run + "@example.com");
+        buyer.setPassword("x");
+        buyer = userRepo.save(buyer);
+    }
+
+    @AfterEach
+    void stopSmtp() throws Exception {
+        ReflectionTestUtils.setField(orderNotificationService, "enabled", false);
+        ReflectionTestUtils.setField(orderNotificationService, "mailDispatcher", originalDispatcher);
+        dispatcher.shutdown();
+        smtp.close();
+    }
+
+    @Test
+    void checkoutDoesNotWaitForSlowSmtp() throws Exception {
+        // Warm up checkout and the mail path before timing
+        orderService.placeCartOrder(buyer, List.of(line(product.getId(), 1)));
+        assertTrue(smtp.awaitMessages(1, 10, TimeUnit.SECONDS));
+        smtp.setDelayMillis(SMTP_DELAY_MILLIS);
+        long slowestCheckout = 0;
+        Order last = null;
+        for (int i = 0; i < ORDERS; i++) {
+            long started = System.nanoTime();
+            last = orderService.placeCartOrder(buyer, List.of(line(product.getId(), 2)));
+            slowestCheckout = Math.max(slowestCheckout, System.nanoTime() - started);
+        }
+        long checkoutMillis = TimeUnit.NANOSECONDS.toMillis(slowestCheckout);
+        assertTrue(checkoutMillis < SMTP_DELAY_MILLIS, "slowest checkout " + checkoutMillis + " ms");
+
+        assertTrue(smtp.awaitMessages(ORDERS + 1, 30, TimeUnit.SECONDS), dispatcher.stats().toString());
+        logger.debug("Order mail: slowest of {} checkouts {} ms with a {} ms SMTP server; {} mails over {} SMTP sessions; {}",
+                ORDERS, checkoutMillis, SMTP_DELAY_MILLIS, smtp.getMessages().size() - 1, smtp.getSessions() - 1,
+                dispatcher.stats());
+        // Mails that queued up while a session was busy share the next one
+        assertTrue(smtp.getSessions() - 1 < ORDERS);
+        assertEquals(1, dispatcher.stats().get("cachedTemplates"));
+
+        String lastId = "#" + last.getId();
+        String mail = smtp.getMessages().stream().filter(m -> m.contains(lastId + "\n")).findFirst().orElseThrow();
+        assertTrue(mail.contains("Subject: Your Pharmacy order " + lastId), mail);
+        assertTrue(mail.contains("To: " + buyer.getEmail()), mail);
+        assertTrue(mail.contains("2 x " + product.getName() + ": 5.00"), mail);
+        assertTrue(mail.contains("Total: 5.00"), mail);
+    }
+
+    @Test
+    void refusedMailIsRetriedWithBackoff() throws Exception {
+        smtp.refuseNext(2);
+        orderService.placeCartOrder(buyer, List.of(line(product.getId(), 1)));
+
+        // The server has the mail a moment before the dispatcher counts it as sent
+        awaitStat("sent", 1L);
+        assertEquals(1, smtp.getMessages().size());
+        assertEquals(2L, dispatcher.stats().get("failedAttempts"));
+        assertEquals(2L, dispatcher.stats().get("retried"));
+        assertEquals(0L, dispatcher.stats().get("abandoned"));
+    }
+
+    @Test
+    void permanentlyRejectedMailIsNotRetried() throws Exception {
+        smtp.rejectNext(1);
+        orderService.placeCartOrder(buyer, List.of(line(product.getId(), 1)));
+
+        awaitStat("abandoned", 1L);
+        assertEquals(1L, dispatcher.stats().get("failedAttempts"));
+        assertEquals(0L, dispatcher.stats().get("retried"));
+        assertEquals(0L, dispatcher.stats().get("pendingRetries"));
+        assertEquals(0L, dispatcher.stats().get("sent"));
+    }
+
+    @Test
+    void rolledBackOrderSendsNothing() throws Exception {
+        assertThrows(OutOfStockException.class,
+                () -> orderService.placeCartOrder(buyer, List.of(line(product.getId(), 5000))));
+        Thread.sleep(300);
+        assertEquals(0L, dispatcher.stats().get("enqueued"));
+        assertEquals(0, smtp.getSessions());
+    }
+
+    private void awaitStat(String name, long expected) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (!Long.valueOf(expected).equals(dispatcher.stats().get(name)) && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(expected, dispatcher.stats().get(name), dispatcher.stats().toString());
+    }
+
+    private static CartItemRequest line(Long productId, int quantity) {
+        CartItemRequest line = new CartItemRequest();
+        line.setProductId(productId);
+        line.setQuantity(quantity);
+        return line;
+    }
+}
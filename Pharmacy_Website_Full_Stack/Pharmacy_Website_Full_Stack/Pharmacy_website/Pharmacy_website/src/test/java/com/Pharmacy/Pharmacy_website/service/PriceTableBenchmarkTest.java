@@ -0,0 +1,106 @@
+package com.Pharmacy.Pharmacy_website.service;
+
+import com.Pharmacy.Pharmacy_website.entity.Products;
+import com.Pharmacy.Pharmacy_website.repo.ProductRepo;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Compares pricing a cart from the in-memory PriceTable with re-reading every product by id
+@SpringBootTest
+@ActiveProfiles("test")
+class PriceTableBenchmarkTest {
+
+    private static final int PRODUCTS = 200;
+    private static final int CART_LINES = 25;
+    private static final int WARMUP_ORDERS = 200;
+    private static final int MEASURED_ORDERS = 1000;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ProductRepo productRepo;
+
+    @Autowired
+    private PriceTable priceTable;
+
+    @Test
+    void priceTableMatchesDatabaseAndAvoidsPerLineLookups() {
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < PRODUCTS; i++) {
+            Products product = new Products();
+            product.setName("Bench product " + i);
+            product.setCategory("Vitamins");
+            product.setPrice(1.99 + i);
+            ids.add(productService.createProduct(product).getId());
+        }
+        List<Long> cart = ids.subList(0, CART_LINES);
+
+        assertEquals(priceWithFindById(cart), priceWithTable(cart));
+
+        for (int i = 0; i < WARMUP_ORDERS; i++) {
+            priceWithTable(cart);
+            priceWithFindById(cart);
+        }
+        long started = System.nanoTime();
+        for (int i = 0; i < MEASURED_ORDERS; i++) {
+            priceWithTable(cart);
+        }
+        long tableNanos = (System.nanoTime() - started) / MEASURED_ORDERS;
+
+        started = System.nanoTime();
+        for (int i = 0; i < MEASURED_ORDERS; i++) {
+            priceWithFindById(cart);
+        }
+        long findByIdNanos = (System.nanoTime() - started) / MEASURED_ORDERS;
+
+        assertTrue(tableNanos < findByIdNanos, "price table " + tableNanos + " ns, findById " + findByIdNanos + " ns");
+    }
+
+    @Test
+    void versionsKeepIncreasingAcrossReloads() {
+        Products product = new Products();
+        product.setName("Versioned product");
+        product.setCategory("Vitamins");
+        product.setPrice(5.00);
+        product = productService.createProduct(product);
+
+        long first = priceTable.snapshot().getVersion();
+        product.setPrice(6.00);
+        productService.updateProduct(product);
+        long updated = priceTable.snapshot().getVersion();
+        assertTrue(updated > first, updated + " after " + first);
+
+        priceTable.invalidate();
+        PriceTable.Snapshot reloaded = priceTable.snapshot();
+        assertTrue(reloaded.getVersion() > updated, reloaded.getVersion() + " after " + updated);
+        assertEquals(new BigDecimal("6.00"), reloaded.priceOf(product.getId()));
+    }
+
+    private BigDecimal priceWithTable(List<Long> cart) {
+        PriceTable.Snapshot prices = priceTable.snapshot();
+        BigDecimal total = BigDecimal.ZERO;
+        for (Long id : cart) {
+            total = total.add(prices.amountOf(id, 2));
+        }
+        return total;
+    }
+
+    private BigDecimal priceWithFindById(List<Long> cart) {
+        BigDecimal total = BigDecimal.ZERO;
+        for (Long id : cart) {
+            Products product = productRepo.findById(id).orElseThrow();
+            total = total.add(PriceTable.toMoney(product.getPrice()).multiply(BigDecimal.valueOf(2)));
+        }
+        return total;
+    }
+}
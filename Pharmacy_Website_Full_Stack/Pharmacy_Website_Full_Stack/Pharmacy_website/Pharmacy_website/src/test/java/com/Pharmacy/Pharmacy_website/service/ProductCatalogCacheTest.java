@@ -0,0 +1,134 @@
+package com.Pharmacy.Pharmacy_website.service;
+
+import com.Pharmacy.Pharmacy_website.entity.Products;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class ProductCatalogCacheTest {
+
+    @Autowired
+    private ProductCatalogCache catalogCache;
+
+    @Autowired
+    private ProductService productService;
+
+    @Test
+    void callersGetCopiesThatCannotChangeTheCache() {
+        Products created = productService.createProduct(product("Cache copy product", 10));
+        created.setStock(999);
+
+        Products first = catalogCache.getById(created.getId());
+        assertEquals(10, first.getStock());
+        first.setStock(0);
+        first.setName("Changed by a caller");
+
+        Products second = catalogCache.getById(created.getId());
+        assertNotSame(first, second);
+        assertEquals(10, second.getStock());
+        assertEquals("Cache copy product", second.getName());
+        assertEquals(10, catalogCache.getByName("Cache copy product").getStock());
+        assertThrows(UnsupportedOperationException.class, () -> catalogCache.getAll().clear());
+    }
+
+    @Test
+    void internalReadersShareTheSnapshotWithoutCopying() {
+        productService.createProduct(product("Cache view product", 10));
+
+        List<Products> view = catalogCache.view();
+        assertSame(view, catalogCache.view());
+        assertSame(find(view, catalogCache.getByName("Cache view product").getId()),
+                find(catalogCache.view(), catalogCache.getByName("Cache view product").getId()));
+        assertThrows(UnsupportedOperationException.class, view::clear);
+    }
+
+    @Test
+    void stockAdjustmentsLeaveTheSnapshotAndVersionAlone() {
+        Products created = productService.createProduct(product("Cache stock product", 50));
+        Products before = catalogCache.getById(created.getId());
+        List<Products> catalogBefore = catalogCache.getAll();
+        List<Products> view = catalogCache.view();
+        long version = catalogCache.version();
+        long lastModified = catalogCache.lastModified();
+        long stockVersion = catalogCache.stockVersion();
+
+        catalogCache.adjustStock(created.getId(), -5);
+
+        assertEquals(50, before.getStock());
+        assertEquals(50, find(catalogBefore, created.getId()).getStock());
+        assertEquals(45, catalogCache.getById(created.getId()).getStock());
+        assertEquals(45, find(catalogCache.getAll(), created.getId()).getStock());
+        assertSame(view, catalogCache.view());
+        assertEquals(version, catalogCache.version());
+        assertEquals(lastModified, catalogCache.lastModified());
+        assertTrue(catalogCache.stockVersion() > stockVersion);
+
+        // A product write sets the stock it saved
+        created.setStock(70);
+        productService.updateProduct(created);
+        assertEquals(70, catalogCache.getById(created.getId()).getStock());
+    }
+
+    // Readers racing a writer only ever see stock values it really had, and never an older one after a newer
+    @Test
+    void readersNeverSeeAPartialAdjustment() throws Exception {
+        Products created = productService.createProduct(product("Cache race product", 1_000));
+        Long id = created.getId();
+        catalogCache.getById(id);
+        AtomicBoolean writing = new AtomicBoolean(true);
+        ExecutorService readers = Executors.newFixedThreadPool(4);
+        try {
+            Future<?>[] checks = new Future<?>[4];
+            for (int r = 0; r < checks.length; r++) {
+                checks[r] = readers.submit(() -> {
+                    int last = Integer.MAX_VALUE;
+                    while (writing.get()) {
+                        int stock = catalogCache.getById(id).getStock();
+                        assertTrue(stock <= 1_000 && stock >= 500, "stock " + stock);
+                        // Only ever decremented, so a reader must never go back to an older value
+                        assertTrue(stock <= last, stock + " after " + last);
+                        last = stock;
+                    }
+                });
+            }
+            for (int i = 0; i < 500; i++) {
+                catalogCache.adjustStock(id, -1);
+            }
+            writing.set(false);
+            for (Future<?> check : checks) {
+                check.get();
+            }
+        } finally {
+            readers.shutdownNow();
+        }
+        assertEquals(500, catalogCache.getById(id).getStock());
+    }
+
+    private static Products find(List<Products> products, Long id) {
+        return products.stream().filter(p -> id.equals(p.getId())).findFirst().orElseThrow();
+    }
+
+    private static Products product(String name, int stock) {
+        Products product = new Products();
+        product.setName(name);
+        product.setCategory("Cache");
+        product.setPrice(3.5);
+        product.setStock(stock);
+        return product;
+    }
+}
@@ -0,0 +1,150 @@
+package com.Pharmacy.Pharmacy_website.service;
+
+import com.Pharmacy.Pharmacy_website.dto.ProductImportReport;
+import com.Pharmacy.Pharmacy_website.entity.Products;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.ByteArrayInputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class ProductImportServiceTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProductImportServiceTest.class);
+    private static final int BULK_ROWS = 50_000;
+
+    @Autowired
+    private ProductImportService productImportService;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private PriceTable priceTable;
+
+    @Autowired
+    private ProductCatalogCache catalogCache;
+
+    @Autowired
+    private ProductSearchIndex searchIndex;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void upsertsBySkuOrNameAndReportsBadRows() throws Exception {
+        try {
+            Products existing = new Products();
+            existing.setName("Import Aspirin");
+            existing.setCategory("Pain");
+            existing.setPrice(3.00);
+            existing.setStock(1);
+            existing = productService.createProduct(existing);
+
+            String csv = "sku,name,price,category,stock,description\r\n"
+                    + "IMP-1,Import Aspirin,4.20,Pain,7,\"Tablets, 100 \"\"count\"\"\"\r\n"
+                    + "IMP-2,Import Ibuprofen,5.00,Pain,3,\n"
+                    + ",Import Bandage,1.00,First aid,10,\n"
+                    + "IMP-3,,2.00,Pain,1,\n"
+                    + "IMP-4,Import Zinc,abc,Vitamins,1,\n"
+                    + "\n"
+                    + "IMP-2,Import Ibuprofen 400,5.50,Pain,4,\n";
+            ProductImportReport report = importCsv(csv);
+
+            assertEquals(6, report.getRows());
+            assertEquals(2, report.getInserted());
+            assertEquals(2, report.getUpdated()); // the aspirin by name, then the repeated IMP-2
+            assertEquals(2, report.getFailed());
+            assertNull(report.getAbortedReason());
+            assertEquals(4, report.getErrors().get(0).getRow());
+            assertEquals("Product name is required", report.getErrors().get(0).getMessage());
+            assertEquals(5, report.getErrors().get(1).getRow());
+            assertEquals("price must be a number", report.getErrors().get(1).getMessage());
+
+            // Caches were refreshed once at the end
+            Products aspirin = productService.getProductById(existing.getId());
+            assertEquals("IMP-1", aspirin.getSku());
+            assertEquals(7, aspirin.getStock());
+            assertEquals("Tablets, 100 \"count\"", aspirin.getDescription());
+            Products ibuprofen = productService.findProductByName("Import Ibuprofen 400");
+            assertEquals("IMP-2", ibuprofen.getSku());
+            assertEquals(ProductValidator.DEFAULT_IMAGE, ibuprofen.getImage());
+            assertEquals(0, priceTable.snapshot().priceOf(ibuprofen.getId()).compareTo(new BigDecimal("5.50")));
+            assertTrue(productService.searchProducts("bandage", 10).stream()
+                    .anyMatch(product -> "Import Bandage".equals(product.getName())));
+
+            String json = "[{\"sku\": \"IMP-2\", \"name\": \"Import Ibuprofen 400\", \"price\": 6.25, \"category\": \"Pain\","
+                    + " \"prescription\": true}, {\"name\": \"Import Bandage\", \"price\": 1.5, \"category\": \"First aid\"}]";
+            report = productImportService.importProducts(ProductImportService.Format.JSON,
+                    new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)));
+            assertEquals(2, report.getUpdated());
+            assertEquals(0, report.getInserted());
+            Products updated = productService.getProductById(ibuprofen.getId());
+            assertEquals(6.25, updated.getPrice());
+            assertTrue(updated.isPrescription());
+
+            assertThrows(IllegalArgumentException.class, () -> importCsv("sku,name\nIMP-9,Missing columns\n"));
+            report = importCsv("name,price,category\nImport Gauze,1.00,First aid\n\"Unclosed,2.00,Pain\n");
+            assertEquals(1, report.getInserted());
+            assertTrue(report.getAbortedReason().startsWith("Unclosed quote"));
+        } finally {
+            deleteProducts("name like 'Import %'");
+        }
+    }
+
+    @Test
+    void importsFiftyThousandRowsInBatches() throws Exception {
+        StringBuilder csv = new StringBuilder("sku,name,price,category,stock,rating,featured\n");
+        for (int i = 0; i < BULK_ROWS; i++) {
+            csv.append("BULK-").append(i).append(",Bulk product ").append(i).append(',')
+                    .append(1 + i % 50).append(".99,Category ").append(i % 20).append(",100,4.0,")
+                    .append(i % 10 == 0).append('\n');
+        }
+        try {
+            long started = System.nanoTime();
+            ProductImportReport inserted = importCsv(csv.toString());
+            long insertMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+            assertEquals(BULK_ROWS, inserted.getInserted());
+            assertEquals(0, inserted.getFailed());
+
+            started = System.nanoTime();
+            ProductImportReport updated = importCsv(csv.toString());
+            long updateMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+            assertEquals(BULK_ROWS, updated.getUpdated());
+            assertEquals(0, updated.getInserted());
+
+            logger.debug("Product import: {} rows inserted in {} ms, upserted again in {} ms",
+                    BULK_ROWS, insertMillis, updateMillis);
+            assertEquals("BULK-49999", productService.findProductByName("Bulk product 49999").getSku());
+        } finally {
+            deleteProducts("sku like 'BULK-%'");
+        }
+    }
+
+    // Other tests share the database and read the catalog (low stock alerts, search)
+    private void deleteProducts(String condition) {
+        jdbcTemplate.update("delete from products where " + condition);
+        catalogCache.invalidate();
+        priceTable.invalidate();
+        searchIndex.rebuild();
+    }
+
+    private ProductImportReport importCsv(String csv) throws Exception {
+        return productImportService.importProducts(ProductImportService.Format.CSV,
+                new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)));
+    }
+}
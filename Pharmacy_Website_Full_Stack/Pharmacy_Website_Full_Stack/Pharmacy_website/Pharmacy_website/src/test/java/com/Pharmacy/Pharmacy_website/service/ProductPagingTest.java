@@ -0,0 +1,126 @@
+package com.Pharmacy.Pharmacy_website.service;
+
+import com.Pharmacy.Pharmacy_website.dto.ProductFilter;
+import com.Pharmacy.Pharmacy_website.dto.ProductPageResponse;
+import com.Pharmacy.Pharmacy_website.entity.Products;
+import com.Pharmacy.Pharmacy_website.repo.ProductRepo;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class ProductPagingTest {
+
+    private static final String[] NAMES = {"Aspirin", null, "Zinc", "Aspirin", null, "Ibuprofen", "Aspirin", null,
+            "Cetirizine", "Zinc", null};
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ProductRepo productRepo;
+
+    private ProductFilter filter;
+    private List<Products> products;
+
+    // Each test pages through its own category, so products other tests create stay out of the way
+    @BeforeEach
+    void seed() {
+        filter = new ProductFilter();
+        filter.setCategory("Paging " + UUID.randomUUID());
+        products = new ArrayList<>();
+        for (int i = 0; i < NAMES.length; i++) {
+            Products product = new Products();
+            product.setName(NAMES[i]);
+            product.setCategory(filter.getCategory());
+            product.setPrice(1.0 + i % 3);
+            product.setStock(10);
+            products.add(productRepo.save(product));
+        }
+    }
+
+    @Test
+    void cursorPagesByNameVisitNullNamesExactlyOnce() {
+        // Nulls lowest: first ascending, last descending, ties broken by id
+        Comparator<Products> byName = Comparator.comparing(Products::getName,
+                Comparator.nullsFirst(Comparator.<String>naturalOrder())).thenComparing(Products::getId);
+        assertEquals(ids(sorted(byName)), walk(Sort.Order.asc("name"), 2));
+        assertEquals(ids(sorted(byName.reversed())), walk(Sort.Order.desc("name"), 2));
+        assertEquals(ids(sorted(byName)), walk(Sort.Order.asc("name"), 3));
+    }
+
+    @Test
+    void cursorPagesByPriceBreakTiesById() {
+        Comparator<Products> byPrice = Comparator.comparingDouble(Products::getPrice).thenComparing(Products::getId);
+        assertEquals(ids(sorted(byPrice)), walk(Sort.Order.asc("price"), 4));
+        assertEquals(ids(sorted(byPrice.reversed())), walk(Sort.Order.desc("price"), 4));
+    }
+
+    @Test
+    void offsetPagesCoverTheFilteredCategory() {
+        ProductPageResponse first = productService.getProductPage(filter, 0, 4, Sort.Order.asc("id"));
+        assertEquals(NAMES.length, first.getTotalElements());
+        assertEquals(3, first.getTotalPages());
+        assertTrue(first.isHasNext());
+
+        List<Long> seen = new ArrayList<>();
+        for (int page = 0; page < first.getTotalPages(); page++) {
+            productService.getProductPage(filter, page, 4, Sort.Order.asc("id")).getContent()
+                    .forEach(product -> seen.add(product.getId()));
+        }
+        assertEquals(ids(sorted(Comparator.comparing(Products::getId))), seen);
+        assertFalse(productService.getProductPage(filter, 2, 4, Sort.Order.asc("id")).isHasNext());
+    }
+
+    @Test
+    void malformedCursorsAreRejected() {
+        assertThrows(IllegalArgumentException.class,
+                () -> productService.getProductsAfter(filter, "not base64!", 2, Sort.Order.asc("name")));
+        String unmarked = Base64.getUrlEncoder().encodeToString("null|12".getBytes(StandardCharsets.UTF_8));
+        assertThrows(IllegalArgumentException.class,
+                () -> productService.getProductsAfter(filter, unmarked, 2, Sort.Order.asc("name")));
+    }
+
+    private List<Long> walk(Sort.Order order, int size) {
+        List<Long> seen = new ArrayList<>();
+        String cursor = null;
+        do {
+            ProductPageResponse page = productService.getProductsAfter(filter, cursor, size, order);
+            page.getContent().forEach(product -> seen.add(product.getId()));
+            cursor = page.getNextCursor();
+            if (!page.isHasNext()) {
+                assertNull(cursor);
+            }
+        } while (cursor != null);
+        return seen;
+    }
+
+    private List<Products> sorted(Comparator<Products> order) {
+        List<Products> sorted = new ArrayList<>(products);
+        sorted.sort(order);
+        return sorted;
+    }
+
+    private static List<Long> ids(List<Products> products) {
+        List<Long> ids = new ArrayList<>();
+        products.forEach(product -> ids.add(product.getId()));
+        return ids;
+    }
+}
@@ -0,0 +1,199 @@
+package com.Pharmacy.Pharmacy_website.service;
+
+import com.Pharmacy.Pharmacy_website.entity.Products;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ProductSearchIndexTest {
+
+    // Stands in for the catalog cache the index resolves its hits through
+    private final Map<Long, Products> catalog = new ConcurrentHashMap<>();
+    private ProductSearchIndex index;
+
+    @BeforeEach
+    void build() {
+        index = new ProductSearchIndex(new ProductCatalogCache() {
+            @Override
+            public Products getById(Long id) {
+                return copy(catalog.get(id));
+            }
+        });
+        rebuild(List.of(
+                product(1, "Paracetamol 500 mg tablets", "Pain Relief", "For headaches and fever", 4.0, 10, false),
+                product(2, "Ibuprofen 200 mg capsules", "Pain Relief", "Anti-inflammatory pain relief", 4.5, 120, false),
+                product(3, "Vitamin C effervescent", "Vitamins", "Supports the immune system during a fever", 4.2, 30, false),
+                product(4, "Cetirizine allergy tablets", "Allergy", "Non-drowsy hay fever relief", 3.9, 5, false),
+                product(5, "Paracetamol 500 mg caplets", "Pain Relief", "For headaches and fever", 4.0, 10, true)));
+    }
+
+    @Test
+    void tokenizeLowercasesAndSplitsOnAnythingButLettersAndDigits() {
+        assertEquals(List.of("vitamin", "d3", "1000", "iu"), ProductSearchIndex.tokenize("Vitamin D3, 1000-IU!"));
+        assertEquals(List.of("crème", "für", "kinder"), ProductSearchIndex.tokenize("  Crème für Kinder "));
+        assertTrue(ProductSearchIndex.tokenize(null).isEmpty());
+        assertTrue(ProductSearchIndex.tokenize("  -- ").isEmpty());
+    }
+
+    @Test
+    void withinDistanceCountsEditsAndAdjacentSwaps() {
+        assertTrue(ProductSearchIndex.withinDistance("ibuprofen", "ibuprofen", 0));
+        assertTrue(ProductSearchIndex.withinDistance("ibuprofen", "ibuprofan", 1));
+        assertTrue(ProductSearchIndex.withinDistance("ibuprofen", "ibuprfen", 1));
+        assertTrue(ProductSearchIndex.withinDistance("ibuprofen", "ibuporfen", 1));
+        assertTrue(ProductSearchIndex.withinDistance("paracetamol", "parcetamlo", 2));
+        assertFalse(ProductSearchIndex.withinDistance("paracetamol", "parcetamlo", 1));
+        assertFalse(ProductSearchIndex.withinDistance("zinc", "aspirin", 2));
+    }
+
+    @Test
+    void prefixesAndTyposExpandToIndexedTerms() {
+        assertEquals(List.of(5L, 1L), ids(index.search("parac", 10)));
+        assertEquals(List.of(2L), ids(index.search("ibuprofn", 10)));
+        assertEquals(List.of(2L), ids(index.search("ibuporfen", 10)));
+        // Fuzzy matching only starts at four letters; a short miss finds nothing
+        assertTrue(index.search("zzz", 10).isEmpty());
+    }
+
+    @Test
+    void everyQueryTermHasToMatch() {
+        assertEquals(List.of(4L), ids(index.search("fever tablets allergy", 10)));
+        assertTrue(index.search("paracetamol allergy", 10).isEmpty());
+    }
+
+    @Test
+    void rankingWeighsFieldsAndPopularity() {
+        // The same text, but 5 is featured
+        assertEquals(List.of(5L, 1L), ids(index.search("paracetamol", 10)));
+        // 4 only mentions relief in its description; the others have it as their category
+        List<Long> relief = ids(index.search("relief", 10));
+        assertEquals(4, relief.size());
+        assertEquals(4L, relief.get(3));
+        assertEquals(1, index.search("paracetamol", 1).size());
+    }
+
+    @Test
+    void updatesAndRemovalsApplyIncrementally() {
+        put(product(4, "Loratadine allergy tablets", "Allergy", "Non-drowsy", 3.9, 5, false));
+        assertTrue(index.search("cetirizine", 10).isEmpty());
+        assertEquals(List.of(4L), ids(index.search("loratadine", 10)));
+        assertFalse(ids(index.search("fever", 10)).contains(4L));
+
+        catalog.remove(3L);
+        index.remove(3L);
+        assertTrue(index.search("vitamin", 10).isEmpty());
+        assertEquals(4, index.size());
+    }
+
+    @Test
+    void hitsAreResolvedThroughTheCatalog() {
+        index.search("ibuprofen", 1).get(0).setName("Changed by a caller");
+        assertEquals("Ibuprofen 200 mg capsules", index.search("ibuprofen", 1).get(0).getName());
+
+        // Stock moves without re-indexing, and results show it
+        catalog.get(2L).setStock(7);
+        assertEquals(7, index.search("ibuprofen", 1).get(0).getStock());
+
+        // A product the catalog no longer has is skipped until the index catches up
+        catalog.remove(1L);
+        assertEquals(List.of(5L), ids(index.search("paracetamol", 10)));
+    }
+
+    // A product being re-indexed stays findable by the terms it keeps
+    @Test
+    void searchesNeverMissAProductBeingReindexed() throws Exception {
+        AtomicBoolean writing = new AtomicBoolean(true);
+        ExecutorService readers = Executors.newFixedThreadPool(2);
+        try {
+            Future<?>[] checks = new Future<?>[2];
+            for (int r = 0; r < checks.length; r++) {
+                checks[r] = readers.submit(() -> {
+                    while (writing.get()) {
+                        assertTrue(ids(index.search("ibuprofen", 10)).contains(2L));
+                    }
+                });
+            }
+            for (int i = 0; i < 20_000; i++) {
+                put(product(2, "Ibuprofen 200 mg capsules", "Pain Relief", "Batch " + i, 4.5, 120, false));
+            }
+            writing.set(false);
+            for (Future<?> check : checks) {
+                check.get();
+            }
+        } finally {
+            readers.shutdownNow();
+        }
+    }
+
+    // Guards against gross regressions; JMH's SearchBenchmark measures the latency distribution properly
+    @Test
+    void searchStaysFastOnALargeCatalog() {
+        String[] medicines = {"paracetamol", "ibuprofen", "aspirin", "cetirizine", "loratadine", "omeprazole",
+                "vitamin", "zinc", "amoxicillin", "metformin", "salbutamol", "magnesium"};
+        String[] forms = {"tablets", "capsules", "syrup", "gel", "spray", "drops"};
+        Random random = new Random(7);
+        List<Products> products = new ArrayList<>();
+        for (int i = 0; i < 20_000; i++) {
+            products.add(product(i, medicines[random.nextInt(medicines.length)] + " " + (50 * (1 + random.nextInt(20)))
+                    + " mg " + forms[random.nextInt(forms.length)] + " " + i, "Category " + i % 40,
+                    "Pack " + random.nextInt(1000), random.nextInt(50) / 10.0, random.nextInt(500), i % 97 == 0));
+        }
+        rebuild(products);
+        String[] queries = {"paracetamol", "ibuprofen tablets", "vit", "amoxicilin", "zinc 100 mg", "spray"};
+        for (int i = 0; i < 2_000; i++) {
+            index.search(queries[i % queries.length], 20);
+        }
+        long[] latencies = new long[3_000];
+        for (int i = 0; i < latencies.length; i++) {
+            long started = System.nanoTime();
+            index.search(queries[i % queries.length], 20);
+            latencies[i] = System.nanoTime() - started;
+        }
+        Arrays.sort(latencies);
+        long p99 = latencies[(int) (latencies.length * 0.99)];
+        assertTrue(p99 < 50_000_000, "p99 " + p99 + " ns");
+    }
+
+    private void rebuild(List<Products> products) {
+        products.forEach(product -> catalog.put(product.getId(), product));
+        index.rebuild(products);
+    }
+
+    private void put(Products product) {
+        catalog.put(product.getId(), product);
+        index.index(product);
+    }
+
+    private static List<Long> ids(List<Products> products) {
+        List<Long> ids = new ArrayList<>();
+        products.forEach(product -> ids.add(product.getId()));
+        return ids;
+    }
+
+    private static Products product(long id, String name, String category, String description, double rating,
+                                    int reviews, boolean featured) {
+        Products product = new Products();
+        product.setId(id);
+        product.setName(name);
+        product.setCategory(category);
+        product.setDescription(description);
+        product.setRating(rating);
+        product.setReviews(reviews);
+        product.setFeatured(featured);
+        return product;
+    }
+}
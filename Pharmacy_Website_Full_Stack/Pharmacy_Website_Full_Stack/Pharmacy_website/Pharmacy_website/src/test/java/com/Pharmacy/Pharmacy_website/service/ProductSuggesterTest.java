@@ -0,0 +1,92 @@
+package com.Pharmacy.Pharmacy_website.service;
+
+import com.Pharmacy.Pharmacy_website.dto.ProductSuggestion;
+import com.Pharmacy.Pharmacy_website.entity.Products;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ProductSuggesterTest {
+
+    private final ProductSuggester suggester = new ProductSuggester();
+
+    @Test
+    void completesNamesWordStartsAndCategories() {
+        suggester.rebuild(List.of(
+                product(1, "Tylenol Paracetamol 500 mg", "Pain Relief", 200, 4.5, false),
+                product(2, "Paracetamol caplets", "Pain Relief", 20, 4.0, false),
+                product(3, "Vitamin C", "Vitamins", 50, 4.2, false)));
+
+        assertEquals(List.of("Tylenol Paracetamol 500 mg", "Paracetamol caplets"), texts(suggester.suggest("para", 10)));
+        assertEquals(List.of("Tylenol Paracetamol 500 mg"), texts(suggester.suggest("  TYL", 10)));
+        assertEquals(List.of("Vitamin C", "Vitamins"), texts(suggester.suggest("vit", 10)));
+        assertEquals("category", suggester.suggest("vitamins", 10).get(0).getType());
+        assertEquals(1, suggester.suggest("para", 1).size());
+        assertTrue(suggester.suggest("xyz", 10).isEmpty());
+        assertTrue(suggester.suggest(" ", 10).isEmpty());
+    }
+
+    // Thirty modest products in "Pain Relief" must not outrank one popular "Painkiller"
+    @Test
+    void aLargeCategoryDoesNotSwampProductNames() {
+        List<Products> products = new ArrayList<>();
+        for (int i = 0; i < 30; i++) {
+            products.add(product(i + 1, "Generic tablets " + i, "Pain Relief", 10, 4.0, false));
+        }
+        products.add(product(100, "Painkiller Max", "Analgesics", 1_000, 4.8, false));
+        suggester.rebuild(products);
+
+        List<ProductSuggestion> suggestions = suggester.suggest("pain", 10);
+        assertEquals("Painkiller Max", suggestions.get(0).getText());
+        assertEquals("Pain Relief", suggestions.get(1).getText());
+    }
+
+    // The trie keeps a lookup under a microsecond; SuggestBenchmark measures it properly
+    @Test
+    void lookupsStayCheapOnALargeCatalog() {
+        String[] words = {"paracetamol", "ibuprofen", "aspirin", "cetirizine", "loratadine", "omeprazole", "vitamin",
+                "zinc", "amoxicillin", "metformin", "salbutamol", "magnesium"};
+        Random random = new Random(3);
+        List<Products> products = new ArrayList<>();
+        for (int i = 0; i < 50_000; i++) {
+            products.add(product(i + 1, words[random.nextInt(words.length)] + " " + random.nextInt(1000) + " "
+                    + words[random.nextInt(words.length)], "Category " + i % 50, random.nextInt(500),
+                    random.nextInt(50) / 10.0, i % 101 == 0));
+        }
+        suggester.rebuild(products);
+        String[] prefixes = {"p", "par", "ibu", "vitam", "zinc 4", "cat", "me", "salbutamol 1"};
+        for (int i = 0; i < 200_000; i++) {
+            suggester.suggest(prefixes[i % prefixes.length], 10);
+        }
+        int lookups = 1_000_000;
+        long started = System.nanoTime();
+        for (int i = 0; i < lookups; i++) {
+            suggester.suggest(prefixes[i % prefixes.length], 10);
+        }
+        double nanosPerLookup = (System.nanoTime() - started) / (double) lookups;
+        assertTrue(nanosPerLookup < 1_000, nanosPerLookup + " ns per lookup");
+    }
+
+    private static List<String> texts(List<ProductSuggestion> suggestions) {
+        List<String> texts = new ArrayList<>();
+        suggestions.forEach(suggestion -> texts.add(suggestion.getText()));
+        return texts;
+    }
+
+    private static Products product(long id, String name, String category, int reviews, double rating,
+                                    boolean featured) {
+        Products product = new Products();
+        product.setId(id);
+        product.setName(name);
+        product.setCategory(category);
+        product.setReviews(reviews);
+        product.setRating(rating);
+        product.setFeatured(featured);
+        return product;
+    }
+}
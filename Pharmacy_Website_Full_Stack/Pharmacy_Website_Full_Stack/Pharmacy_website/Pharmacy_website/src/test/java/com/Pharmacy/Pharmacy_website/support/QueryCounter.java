@@ -0,0 +1,51 @@
+package com.Pharmacy.Pharmacy_website.support;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.fail;
+
+/**
+ * Counts the SQL Hibernate sends on the calling thread, so a test can hold an
+ * endpoint or service call to a statement budget and fail on N+1 regressions.
+ * Registered for the test profile through
+ * hibernate.session_factory.statement_inspector. Counting is per thread, so
+ * background work (suggester rebuilds, credential upgrades) never leaks into a
+ * budget; plain JdbcTemplate statements are not seen.
+ */
+public class QueryCounter implements StatementInspector {
+
+    private static final ThreadLocal<List<String>> STATEMENTS = new ThreadLocal<>();
+
+    @FunctionalInterface
+    public interface Action<T> {
+        T run() throws Exception;
+    }
+
+    @Override
+    public String inspect(String sql) {
+        List<String> statements = STATEMENTS.get();
+        if (statements != null) {
+            statements.add(sql);
+        }
+        return sql;
+    }
+
+    public static <T> T assertAtMost(int budget, Action<T> action) throws Exception {
+        List<String> statements = new ArrayList<>();
+        STATEMENTS.set(statements);
+        T result;
+        try {
+            result = action.run();
+        } finally {
+            STATEMENTS.remove();
+        }
+        if (statements.size() > budget) {
+            fail("Expected at most " + budget + " SQL statements but " + statements.size() + " ran:\n"
+                    + String.join("\n", statements));
+        }
+        return result;
+    }
+}